@@ -0,0 +1,12 @@
+package com.example.platform.benchmark;
+
+// Ключи засеянных данных, по которым бенчмарки строят параметры вызовов
+public record BenchmarkData(
+        Long ownerId,
+        Long helperId,
+        Long notifiedUserId,
+        String category,
+        double centerLatitude,
+        double centerLongitude
+) {
+}
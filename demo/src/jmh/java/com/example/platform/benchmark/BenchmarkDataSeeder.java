@@ -0,0 +1,108 @@
+package com.example.platform.benchmark;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+// Засев встроенной базы пачками JDBC: сущности и сервисы не участвуют, чтобы засев не зависел от измеряемого кода.
+// Генератор с фиксированным зерном — одинаковые данные в каждом форке и от запуска к запуску
+@Component
+@Profile("benchmark")
+public class BenchmarkDataSeeder {
+    static final String[] CATEGORIES = {"SHOPPING", "TRANSPORT", "REPAIR", "MEDICINE", "OTHER"};
+    private static final double CENTER_LATITUDE = 55.75;
+    private static final double CENTER_LONGITUDE = 37.61;
+    private static final int BATCH_SIZE = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public BenchmarkData seed(int requestCount) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        int userCount = Math.max(10, requestCount / 10);
+
+        List<Object[]> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            int ratingCount = random.nextInt(20);
+            long ratingSum = ratingCount == 0 ? 0 : ratingCount + random.nextInt(ratingCount * 4 + 1);
+            users.add(new Object[] {"Пользователь " + i, "user" + i + "@bench.local", "password",
+                    ratingCount == 0 ? null : (int) Math.round((double) ratingSum / ratingCount),
+                    ratingSum, ratingCount});
+        }
+        batch("INSERT INTO users (name, email, password, rating, rating_sum, rating_count, helped_count, " +
+                "unread_notification_count) VALUES (?, ?, ?, ?, ?, ?, 0, 0)", users);
+        List<Long> userIds = jdbcTemplate.queryForList("SELECT id FROM users ORDER BY id", Long.class);
+
+        // 60% ACTIVE, 20% IN_PROGRESS, 15% COMPLETED, 5% CANCELLED; точки в радиусе ~30 км от центра
+        List<Object[]> requests = new ArrayList<>(requestCount);
+        for (int i = 0; i < requestCount; i++) {
+            int roll = random.nextInt(100);
+            String status = roll < 60 ? "ACTIVE" : roll < 80 ? "IN_PROGRESS" : roll < 95 ? "COMPLETED" : "CANCELLED";
+            LocalDateTime created = now.minusMinutes(random.nextInt(60 * 24 * 30));
+            requests.add(new Object[] {"Запрос " + i,
+                    CENTER_LATITUDE + (random.nextDouble() - 0.5) * 0.5,
+                    CENTER_LONGITUDE + (random.nextDouble() - 0.5) * 0.9,
+                    status, CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    Timestamp.valueOf(now.plusDays(1 + random.nextInt(30))),
+                    userIds.get(random.nextInt(userIds.size())),
+                    Timestamp.valueOf(created)});
+        }
+        batch("INSERT INTO requests (description, latitude, longitude, status, category, deadline_date, user_id, " +
+                "creation_date, version, is_archived, is_expired, reminder_sent) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, false, false, false)", requests);
+
+        // У запросов в работе и завершённых — по одному помощнику, отличному от создателя
+        List<Object[]> helps = new ArrayList<>();
+        List<Object[]> helped = new ArrayList<>();
+        jdbcTemplate.query("SELECT id, user_id, status, creation_date FROM requests " +
+                "WHERE status IN ('IN_PROGRESS', 'COMPLETED') ORDER BY id", row -> {
+            long ownerId = row.getLong("user_id");
+            long helperId = userIds.get(random.nextInt(userIds.size()));
+            if (helperId == ownerId) {
+                helperId = userIds.get((userIds.indexOf(ownerId) + 1) % userIds.size());
+            }
+            boolean completed = "COMPLETED".equals(row.getString("status"));
+            Timestamp start = row.getTimestamp("creation_date");
+            helps.add(new Object[] {row.getLong("id"), helperId, completed ? "COMPLETED" : "IN_PROGRESS",
+                    start, completed ? start : null});
+            if (completed) {
+                helped.add(new Object[] {row.getLong("id"), helperId});
+            }
+        });
+        batch("INSERT INTO help_history (request_id, helper_id, status, start_date, end_date, version) " +
+                "VALUES (?, ?, ?, ?, ?, 0)", helps);
+        batch("INSERT INTO user_helped_requests (request_id, user_id) VALUES (?, ?)", helped);
+
+        // Уведомления: dataSize / 10 у первого пользователя, остальные — вразброс
+        Long notifiedUserId = userIds.get(0);
+        List<Object[]> notifications = new ArrayList<>(requestCount);
+        for (int i = 0; i < requestCount; i++) {
+            Long userId = i < requestCount / 10 ? notifiedUserId : userIds.get(random.nextInt(userIds.size()));
+            notifications.add(new Object[] {userId, "Уведомление " + i, "NEW_RESPONSE", random.nextBoolean(),
+                    Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 30)))});
+        }
+        batch("INSERT INTO notifications (user_id, message, type, status, is_read, created_at, action_needed) " +
+                "VALUES (?, ?, ?, 'UNREAD', ?, ?, false)", notifications);
+        jdbcTemplate.update("UPDATE users u SET unread_notification_count = " +
+                "(SELECT COUNT(*) FROM notifications n WHERE n.user_id = u.id AND n.is_read = false)");
+
+        Object[] help = helps.isEmpty() ? null : helps.get(0);
+        Long ownerId = jdbcTemplate.queryForObject("SELECT user_id FROM requests ORDER BY id LIMIT 1", Long.class);
+        return new BenchmarkData(ownerId, help != null ? (Long) help[1] : userIds.get(1), notifiedUserId,
+                CATEGORIES[0], CENTER_LATITUDE, CENTER_LONGITUDE);
+    }
+
+    private void batch(String sql, List<Object[]> rows) {
+        for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + BATCH_SIZE, rows.size())));
+        }
+    }
+}
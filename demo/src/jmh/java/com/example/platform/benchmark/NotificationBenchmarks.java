@@ -0,0 +1,40 @@
+package com.example.platform.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.platform.dto.CursorPage;
+import com.example.platform.dto.NotificationDto;
+import com.example.platform.service.NotificationService;
+
+// Уведомления пользователя с dataSize / 10 записями: полный список и первая страница входящих
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NotificationBenchmarks {
+
+    @Benchmark
+    public List<NotificationDto> userNotifications(PlatformState state) {
+        return state.bean(NotificationService.class).getUserNotifications(state.data.notifiedUserId());
+    }
+
+    @Benchmark
+    public CursorPage<NotificationDto> inboxFirstPage(PlatformState state) {
+        return state.bean(NotificationService.class).getInbox(state.data.notifiedUserId(), false, null, 20);
+    }
+
+    @Benchmark
+    public int unreadCount(PlatformState state) {
+        return state.bean(NotificationService.class).getUnreadCount(state.data.notifiedUserId());
+    }
+}
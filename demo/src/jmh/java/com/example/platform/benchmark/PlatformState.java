@@ -0,0 +1,50 @@
+package com.example.platform.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.platform.PlatformApplication;
+import com.example.platform.service.LeaderboardService;
+import com.example.platform.service.OpenRequestIndex;
+
+// Контекст приложения без веб-сервера на встроенной H2, засеянный данными размера dataSize.
+// Один экземпляр на форк и набор параметров: старт контекста и засев не попадают в измерения
+@State(Scope.Benchmark)
+public class PlatformState {
+
+    // Число запросов; пользователей в 10 раз меньше, уведомлений у «горячего» пользователя — dataSize / 10
+    @Param({"1000"})
+    public int dataSize;
+
+    public ConfigurableApplicationContext context;
+    public BenchmarkData data;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = new SpringApplicationBuilder(PlatformApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test", "benchmark")
+                .run();
+        data = context.getBean(BenchmarkDataSeeder.class).seed(dataSize);
+
+        // Индексы в памяти строились при старте по пустой базе — перестраиваем по засеянным данным
+        context.getBean(OpenRequestIndex.class).reconcile();
+        context.getBean(LeaderboardService.class).rebuild();
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.platform.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.platform.dto.LeaderboardEntryDto;
+import com.example.platform.service.LeaderboardService;
+
+// Рейтинг пользователей: страница из готового списка и полная перестройка из базы
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RatingBenchmarks {
+
+    @Benchmark
+    public List<LeaderboardEntryDto> ratingPage(PlatformState state) {
+        return state.bean(LeaderboardService.class).getPage(0, 100);
+    }
+
+    @Benchmark
+    public int ratingRebuild(PlatformState state) {
+        LeaderboardService leaderboard = state.bean(LeaderboardService.class);
+        leaderboard.rebuild();
+        return leaderboard.size();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.platform.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.platform.dto.CursorPage;
+import com.example.platform.dto.RequestFilter;
+import com.example.platform.dto.RequestSummaryDto;
+import com.example.platform.service.RequestService;
+
+// Лента, фильтр по курсору и поиск рядом: открытые статусы обслуживает индекс в памяти, остальные — база
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestBenchmarks {
+    private static final double RADIUS_METERS = 5000;
+    private static final int PAGE_SIZE = 20;
+
+    @Benchmark
+    public List<RequestSummaryDto> activeRequests(PlatformState state) {
+        return state.bean(RequestService.class).getActiveRequests();
+    }
+
+    @Benchmark
+    public CursorPage<RequestSummaryDto> filterByCategory(PlatformState state) {
+        RequestFilter filter = new RequestFilter(state.data.category(), List.of("ACTIVE", "IN_PROGRESS"), null, null);
+        return state.bean(RequestService.class).filterRequests(filter, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public CursorPage<RequestSummaryDto> filterByOwner(PlatformState state) {
+        RequestFilter filter = new RequestFilter(null, null, state.data.ownerId(), null);
+        return state.bean(RequestService.class).filterRequests(filter, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<RequestSummaryDto> nearbyOpen(PlatformState state) {
+        return state.bean(RequestService.class).findNearbyRequests(null, List.of("ACTIVE"), RADIUS_METERS,
+                state.data.centerLatitude(), state.data.centerLongitude(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<RequestSummaryDto> nearbyCompleted(PlatformState state) {
+        return state.bean(RequestService.class).findNearbyRequests(null, List.of("COMPLETED"), RADIUS_METERS,
+                state.data.centerLatitude(), state.data.centerLongitude(), PAGE_SIZE);
+    }
+}
@@ -0,0 +1,104 @@
+package com.example.platform.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.platform.dto.RequestSummaryDto;
+import com.example.platform.model.HelpHistory;
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+import com.example.platform.service.RequestService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Сериализация ObjectMapper приложения: лента проекций и граф сущностей запроса с создателем, помощниками и историей
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmarks {
+    private static final int GRAPH_REQUESTS = 100;
+    private static final int GRAPH_HELPERS = 3;
+
+    @State(Scope.Benchmark)
+    public static class Payload {
+        ObjectMapper objectMapper;
+        List<RequestSummaryDto> feed;
+        List<Request> graph;
+
+        @Setup(Level.Trial)
+        public void load(PlatformState state) {
+            objectMapper = state.bean(ObjectMapper.class);
+            feed = state.bean(RequestService.class).getActiveRequests();
+            graph = new ArrayList<>(GRAPH_REQUESTS);
+            for (int i = 0; i < GRAPH_REQUESTS; i++) {
+                graph.add(requestGraph(i));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeFeed(Payload payload) throws JsonProcessingException {
+        return payload.objectMapper.writeValueAsBytes(payload.feed);
+    }
+
+    @Benchmark
+    public byte[] serializeRequestGraph(Payload payload) throws JsonProcessingException {
+        return payload.objectMapper.writeValueAsBytes(payload.graph);
+    }
+
+    private static Request requestGraph(long id) {
+        LocalDateTime now = LocalDateTime.now();
+        Request request = new Request();
+        request.setId(id);
+        request.setDescription("Запрос " + id);
+        request.setLatitude(55.75);
+        request.setLongitude(37.61);
+        request.setStatus("IN_PROGRESS");
+        request.setCategory(BenchmarkDataSeeder.CATEGORIES[(int) (id % BenchmarkDataSeeder.CATEGORIES.length)]);
+        request.setDeadlineDate(now.plusDays(1));
+        request.setCreationDate(now);
+        request.setVersion(0L);
+        request.setUser(user(id * 10));
+
+        List<HelpHistory> history = new ArrayList<>();
+        for (int i = 1; i <= GRAPH_HELPERS; i++) {
+            User helper = user(id * 10 + i);
+            request.getHelpers().add(helper);
+            HelpHistory help = new HelpHistory();
+            help.setId(id * 10 + i);
+            help.setRequest(request);
+            help.setHelper(helper);
+            help.setStatus("IN_PROGRESS");
+            help.setStartDate(now);
+            history.add(help);
+        }
+        request.setHelpHistory(history);
+        return request;
+    }
+
+    private static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setName("Пользователь " + id);
+        user.setEmail("user" + id + "@bench.local");
+        user.setPassword("password");
+        user.setRating(4);
+        return user;
+    }
+}
@@ -0,0 +1,311 @@
+package com.example.platform.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+import com.example.platform.service.JwtService;
+
+// Нагрузка по замкнутому циклу: concurrency потоков, каждый отправляет следующий запрос только после ответа
+// на предыдущий (плюс think-ms). Операции выбираются случайно по весам из mix, идентификаторы — равномерно
+// из диапазонов, засеянных DataSeeder. Задержки первых warmup секунд не учитываются.
+//
+//   mvn -Pbenchmarks test-compile exec:java@load -Dload.args="concurrency=32 duration=120"
+//
+// Параметры (имя=значение): base-url, concurrency, duration, warmup, think-ms, users, requests, mix, jwt-secret
+// (например mix=feed:1,filter:20,nearby:20,user:10,notifications:10). В отчёте — пропускная способность,
+// p50/p90/p99/max по каждой операции; ответы не 2xx считаются отдельно и в задержки тоже входят.
+// Шторм входов (BCrypt в отдельном пуле) и задержка остальных эндпоинтов под ним:
+//   mvn -Pbenchmarks test-compile exec:java@load -Dload.args="concurrency=64 mix=login:3,feed:1,user:1,inbox:1"
+// Входы сверх очереди хэширования получают 503 и видны в столбце non-2xx.
+// Изменяющие операции идут с bearer-токеном случайного пользователя, подписанным jwt-secret приложения
+public class LoadDriver {
+    private static final String DEFAULT_MIX = "feed:1,filter:15,nearby:20,myRequests:8,user:8,statistics:4,rating:6," +
+            "rank:4,notifications:6,inbox:8,unread:8,markRead:3,helperReviews:5,requestReviews:2,respond:2";
+
+    private static final String[] CATEGORIES = {"SHOPPING", "TRANSPORT", "REPAIR", "MEDICINE", "PETS", "OTHER"};
+    private static final double[][] CITIES = {{55.751, 37.618}, {59.939, 30.316}, {56.838, 60.597}, {55.796, 49.106}};
+
+    private final String baseUrl;
+    private final long users;
+    private final long requests;
+    private final JwtService jwtService;
+    private final Map<String, Function<ThreadLocalRandom, HttpRequest>> operations = new LinkedHashMap<>();
+
+    LoadDriver(String baseUrl, long users, long requests, String jwtSecret) {
+        this.baseUrl = baseUrl;
+        this.users = users;
+        this.requests = requests;
+        this.jwtService = new JwtService(jwtSecret, Duration.ofHours(1).toMillis(), Duration.ofHours(1).toMillis());
+
+        operations.put("feed", r -> get("/api/requests/active"));
+        operations.put("filter", r -> get("/api/requests/filter?status=ACTIVE&limit=50&category="
+                + CATEGORIES[r.nextInt(CATEGORIES.length)]));
+        operations.put("nearby", r -> {
+            double[] city = CITIES[r.nextInt(CITIES.length)];
+            return get(String.format(Locale.ROOT, "/api/requests/filter?status=ACTIVE&maxDistance=%d&userLat=%.5f&userLon=%.5f&limit=50",
+                    1000 + r.nextInt(9000), city[0] + r.nextGaussian() * 0.1, city[1] + r.nextGaussian() * 0.18));
+        });
+        operations.put("myRequests", r -> get("/api/requests/user/" + user(r)));
+        operations.put("user", r -> get("/api/users/" + user(r)));
+        operations.put("statistics", r -> get("/api/users/" + user(r) + "/statistics"));
+        operations.put("rating", r -> get("/api/users/rating?page=" + r.nextInt(10) + "&size=100"));
+        operations.put("rank", r -> get("/api/users/" + user(r) + "/rank"));
+        operations.put("notifications", r -> get("/api/notifications/user/" + user(r)));
+        operations.put("inbox", r -> get("/api/notifications/user/" + user(r) + "/inbox?limit=20"));
+        operations.put("unread", r -> get("/api/notifications/user/" + user(r) + "/unread-count"));
+        operations.put("markRead", r -> {
+            long user = user(r);
+            return authorized(request("/api/notifications/user/" + user + "/read"), user)
+                    .PUT(HttpRequest.BodyPublishers.noBody()).build();
+        });
+        operations.put("helperReviews", r -> get("/api/reviews/helper/" + user(r)));
+        operations.put("requestReviews", r -> get("/api/reviews/request/" + request(r)));
+        // Отклик на случайный запрос: часть ответов — ожидаемые 400 (свой запрос, запрос уже закрыт)
+        operations.put("respond", r -> authorized(request("/api/requests/" + request(r) + "/help"), user(r))
+                .POST(HttpRequest.BodyPublishers.noBody()).build());
+        // Пользователи DataSeeder: user{id-1}@seed.local с общим паролем
+        operations.put("login", r -> request("/api/auth/login")
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"user" + (user(r) - 1)
+                        + "@seed.local\",\"password\":\"password\"}"))
+                .build());
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        Map<String, String> options = parseOptions(args);
+        LoadDriver driver = new LoadDriver(
+                options.getOrDefault("base-url", "http://localhost:8080"),
+                Long.parseLong(options.getOrDefault("users", "100000")),
+                Long.parseLong(options.getOrDefault("requests", "1000000")),
+                options.getOrDefault("jwt-secret", "your-256-bit-secret-your-256-bit-secret"));
+        driver.run(
+                driver.parseMix(options.getOrDefault("mix", DEFAULT_MIX)),
+                Integer.parseInt(options.getOrDefault("concurrency", "16")),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60"))),
+                Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "10"))),
+                Long.parseLong(options.getOrDefault("think-ms", "0")));
+    }
+
+    void run(Map<String, Integer> mix, int concurrency, Duration duration, Duration warmup, long thinkMs)
+            throws InterruptedException {
+        List<String> names = new ArrayList<>(mix.keySet());
+        int[] cumulative = new int[names.size()];
+        int totalWeight = 0;
+        for (int i = 0; i < names.size(); i++) {
+            totalWeight += mix.get(names.get(i));
+            cumulative[i] = totalWeight;
+        }
+        int weightSum = totalWeight;
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+
+        System.out.printf("Load: %d workers, %d s warmup + %d s measured against %s%n",
+                concurrency, warmup.toSeconds(), duration.toSeconds(), baseUrl);
+
+        List<Worker> workers = new ArrayList<>();
+        for (int w = 0; w < concurrency; w++) {
+            Worker worker = new Worker(names.size());
+            workers.add(worker);
+            Thread thread = new Thread(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                    int pick = random.nextInt(weightSum);
+                    int op = 0;
+                    while (cumulative[op] <= pick) {
+                        op++;
+                    }
+                    worker.call(client, operations.get(names.get(op)).apply(random), op, System.nanoTime() >= warmupEnd);
+                    if (thinkMs > 0) {
+                        try {
+                            Thread.sleep(thinkMs);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            }, "load-" + w);
+            worker.thread = thread;
+            thread.start();
+        }
+        for (Worker worker : workers) {
+            worker.thread.join();
+        }
+        report(names, workers, duration);
+    }
+
+    private void report(List<String> names, List<Worker> workers, Duration duration) {
+        double seconds = duration.toMillis() / 1000.0;
+        System.out.printf("%n%-16s %9s %8s %8s %9s %9s %9s %9s%n",
+                "operation", "requests", "non-2xx", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        long allCount = 0;
+        long allErrors = 0;
+        LongList all = new LongList();
+        for (int op = 0; op < names.size(); op++) {
+            LongList latencies = new LongList();
+            long errors = 0;
+            for (Worker worker : workers) {
+                latencies.addAll(worker.latencies[op]);
+                errors += worker.errors[op];
+            }
+            all.addAll(latencies);
+            allCount += latencies.size;
+            allErrors += errors;
+            print(names.get(op), latencies, errors, seconds);
+        }
+        print("TOTAL", all, allErrors, seconds);
+        long failures = workers.stream().mapToLong(worker -> worker.failures).sum();
+        if (failures > 0) {
+            System.out.printf("%d requests failed without a response (timeouts, refused connections)%n", failures);
+        }
+        if (allCount == 0) {
+            System.out.println("No responses recorded");
+        }
+    }
+
+    private static void print(String name, LongList latencies, long errors, double seconds) {
+        long[] sorted = latencies.sorted();
+        System.out.printf(Locale.ROOT, "%-16s %9d %8d %8.1f %9.2f %9.2f %9.2f %9.2f%n",
+                name, sorted.length, errors, sorted.length / seconds,
+                percentile(sorted, 50), percentile(sorted, 90), percentile(sorted, 99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0);
+    }
+
+    // Задержки хранятся в микросекундах, выводятся в миллисекундах (nearest-rank)
+    private static double percentile(long[] sorted, double percent) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000.0;
+    }
+
+    private Map<String, Integer> parseMix(String spec) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            if (!operations.containsKey(pair[0])) {
+                throw new IllegalArgumentException("Unknown operation '" + pair[0] + "', expected one of " + operations.keySet());
+            }
+            int weight = pair.length > 1 ? Integer.parseInt(pair[1]) : 1;
+            if (weight > 0) {
+                mix.put(pair[0], weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("Empty operation mix");
+        }
+        return mix;
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            }
+            options.put(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        return options;
+    }
+
+    private long user(ThreadLocalRandom random) {
+        return 1 + random.nextLong(users);
+    }
+
+    private long request(ThreadLocalRandom random) {
+        return 1 + random.nextLong(requests);
+    }
+
+    private HttpRequest get(String path) {
+        return request(path).GET().build();
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(Duration.ofSeconds(30));
+    }
+
+    // Пользователи DataSeeder: user{id-1}@seed.local
+    private HttpRequest.Builder authorized(HttpRequest.Builder builder, long user) {
+        return builder.header("Authorization", "Bearer " + jwtService.generateToken(user, "user" + (user - 1) + "@seed.local"));
+    }
+
+    // Счётчики одного потока: без общих структур на горячем пути
+    private static final class Worker {
+        final LongList[] latencies;
+        final long[] errors;
+        long failures;
+        Thread thread;
+
+        Worker(int operations) {
+            latencies = new LongList[operations];
+            for (int i = 0; i < operations; i++) {
+                latencies[i] = new LongList();
+            }
+            errors = new long[operations];
+        }
+
+        void call(HttpClient client, HttpRequest request, int op, boolean measured) {
+            long start = System.nanoTime();
+            int status;
+            try {
+                status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            } catch (Exception e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                if (measured) {
+                    failures++;
+                }
+                return;
+            }
+            if (measured) {
+                latencies[op].add((System.nanoTime() - start) / 1000);
+                if (status < 200 || status >= 300) {
+                    errors[op]++;
+                }
+            }
+        }
+    }
+
+    private static final class LongList {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void addAll(LongList other) {
+            for (int i = 0; i < other.size; i++) {
+                add(other.values[i]);
+            }
+        }
+
+        long[] sorted() {
+            long[] copy = Arrays.copyOf(values, size);
+            Arrays.sort(copy);
+            return copy;
+        }
+    }
+}
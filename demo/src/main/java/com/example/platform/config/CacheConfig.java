@@ -0,0 +1,67 @@
+package com.example.platform.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.support.SimpleCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+// Ограниченные кэши в памяти для горячих чтений. Значения — неизменяемые DTO, не сущности.
+// Кэши создаются сразу при старте, чтобы actuator привязал к ним метрики попаданий/промахов/вытеснений
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    public static final String USERS = "users";
+    public static final String USERS_BY_EMAIL = "usersByEmail";
+    public static final String REQUESTS = "requests";
+    public static final String HELPER_REVIEWS = "helperReviews";
+
+    @Value("${cache.users.maximum-size:10000}")
+    private long usersMaximumSize;
+
+    @Value("${cache.users.ttl-seconds:600}")
+    private long usersTtlSeconds;
+
+    @Value("${cache.requests.maximum-size:20000}")
+    private long requestsMaximumSize;
+
+    @Value("${cache.requests.ttl-seconds:60}")
+    private long requestsTtlSeconds;
+
+    @Value("${cache.reviews.maximum-size:5000}")
+    private long reviewsMaximumSize;
+
+    @Value("${cache.reviews.ttl-seconds:300}")
+    private long reviewsTtlSeconds;
+
+    @Bean
+    public CacheManager cacheManager() {
+        SimpleCacheManager cacheManager = new SimpleCacheManager();
+        cacheManager.setCaches(List.of(
+                cache(USERS, usersMaximumSize, usersTtlSeconds),
+                cache(USERS_BY_EMAIL, usersMaximumSize, usersTtlSeconds),
+                cache(REQUESTS, requestsMaximumSize, requestsTtlSeconds),
+                cache(HELPER_REVIEWS, reviewsMaximumSize, reviewsTtlSeconds)
+        ));
+        cacheManager.initializeCaches();
+        // Вытеснение внутри транзакции откладывается до коммита: иначе параллельное чтение
+        // успело бы положить в кэш ещё не изменённые данные
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+
+    private CaffeineCache cache(String name, long maximumSize, long ttlSeconds) {
+        return new CaffeineCache(name, Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build(), false);
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.platform.config;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.platform.service.NotificationStreamService;
+import com.example.platform.service.NotificationWriter;
+import com.example.platform.web.SqlStatementCounter;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+// Метрики поверх автоконфигурации actuator. Actuator сам публикует http.server.requests (эндпоинты),
+// spring.data.repository.invocations (репозитории), hikaricp.* (пул соединений), cache.* (Caffeine)
+// и hibernate.* (статистика Hibernate). Здесь добавляются таймеры сервисов (@Timed), счётчик SQL
+// на запрос и состояние очередей уведомлений
+@Configuration
+public class MetricsConfig {
+
+    // Обрабатывает @Timed на классах сервисов: метрика service.calls с тегами class, method и exception
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatementCounterCustomizer(SqlStatementCounter sqlStatementCounter) {
+        return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlStatementCounter);
+    }
+
+    @Bean
+    public MeterBinder notificationQueueMetrics(NotificationWriter notificationWriter,
+                                                NotificationStreamService notificationStreamService) {
+        return registry -> {
+            Gauge.builder("notifications.writer.queue", notificationWriter, NotificationWriter::queueSize)
+                    .description("Notifications waiting for the batch writer")
+                    .register(registry);
+            Gauge.builder("notifications.stream.connections", notificationStreamService,
+                            NotificationStreamService::connectionCount)
+                    .description("Open notification SSE connections")
+                    .register(registry);
+        };
+    }
+}
@@ -1,18 +1,37 @@
 package com.example.platform.config;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.example.platform.web.AvatarVariantResolver;
+import com.example.platform.web.IdempotencyInterceptor;
+
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
     @Value("${file.upload-dir}")
     private String uploadDir;
 
+    @Autowired
+    private IdempotencyInterceptor idempotencyInterceptor;
+
+    @Autowired
+    private AvatarVariantResolver avatarVariantResolver;
+
     @Override
     public void addResourceHandlers(ResourceHandlerRegistry registry) {
         registry.addResourceHandler("/uploads/**")
-                .addResourceLocations("file:" + uploadDir + "/");
+                .addResourceLocations("file:" + uploadDir + "/")
+                // Без кэша цепочки: отсутствующая копия аватара должна проверяться заново при каждом запросе
+                .resourceChain(false)
+                .addResolver(avatarVariantResolver);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(idempotencyInterceptor).addPathPatterns("/api/**").excludePathPatterns("/api/auth/**");
     }
-}
\ No newline at end of file
+}
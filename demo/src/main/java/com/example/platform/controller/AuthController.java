@@ -3,9 +3,15 @@ package com.example.platform.controller;
 import com.example.platform.model.User;
 import com.example.platform.service.AuthService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 @RestController
@@ -14,15 +20,53 @@ public class AuthController {
     @Autowired
     private AuthService authService;
 
+    // Хэширование пароля выполняется в отдельном пуле: поток сервлет-контейнера освобождается до его окончания
     @PostMapping("/register")
-    public Map<String, String> registerUser(@RequestBody User user) {
-        return authService.registerUser(user);
+    public CompletableFuture<ResponseEntity<Map<String, String>>> registerUser(@RequestBody User user) {
+        return authService.registerUser(user)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(AuthController::hashingFailed);
     }
 
     @PostMapping("/login")
-    public Map<String, String> loginUser(@RequestBody Map<String, String> credentials) {
+    public CompletableFuture<ResponseEntity<Map<String, String>>> loginUser(@RequestBody Map<String, String> credentials) {
         String email = credentials.get("email");
         String password = credentials.get("password");
-        return authService.loginUser(email, password);
+        return authService.loginUser(email, password)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(AuthController::hashingFailed);
     }
-}
\ No newline at end of file
+
+    // Очередь хэширования полна — 503 с Retry-After, клиент повторит вход позже
+    private static ResponseEntity<Map<String, String>> hashingFailed(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof RejectedExecutionException) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("message", cause.getMessage()));
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        throw new CompletionException(cause);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<Map<String, String>> refreshToken(@RequestBody Map<String, String> body) {
+        try {
+            return ResponseEntity.ok(authService.refreshToken(body.get("refreshToken")));
+        } catch (RuntimeException e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Токен доступа — из заголовка Authorization, refresh-токен — из тела запроса
+    @PostMapping("/logout")
+    public Map<String, String> logout(
+            @RequestHeader(name = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody(required = false) Map<String, String> body) {
+        String accessToken = authorization != null && authorization.startsWith("Bearer ")
+                ? authorization.substring("Bearer ".length()).trim() : null;
+        return authService.logout(accessToken, body != null ? body.get("refreshToken") : null);
+    }
+}
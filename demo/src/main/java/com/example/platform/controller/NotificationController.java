@@ -1,35 +1,129 @@
 package com.example.platform.controller;
 
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.example.platform.model.Notification;
+import com.example.platform.dto.NotificationDto;
 import com.example.platform.service.NotificationService;
+import com.example.platform.service.NotificationStreamService;
+import com.example.platform.web.AuthenticatedUser;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 @RestController
 @RequestMapping("/api/notifications")
 public class NotificationController {
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<Notification>> getUserNotifications(@PathVariable Long userId) {
+    public ResponseEntity<List<NotificationDto>> getUserNotifications(@PathVariable Long userId) {
         return ResponseEntity.ok(notificationService.getUserNotifications(userId));
     }
 
+    @GetMapping("/user/{userId}/inbox")
+    public ResponseEntity<?> getInbox(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "false") boolean unreadOnly,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return ResponseEntity.badRequest().body("Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE);
+        }
+        try {
+            return ResponseEntity.ok(notificationService.getInbox(userId, unreadOnly, cursor, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/user/{userId}/unread-count")
+    public ResponseEntity<?> getUnreadCount(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(Map.of("unread", notificationService.getUnreadCount(userId)));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Без курсора — все уведомления пользователя, с курсором — всё до этой позиции входящих включительно
+    @PutMapping("/user/{userId}/read")
+    public ResponseEntity<?> markRead(
+            @PathVariable Long userId,
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(required = false) String cursor) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, userId);
+        if (denied != null) {
+            return denied;
+        }
+        try {
+            int updated = cursor != null
+                    ? notificationService.markReadUpTo(userId, cursor)
+                    : notificationService.markAllRead(userId);
+            return ResponseEntity.ok(Map.of("updated", updated));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @PutMapping("/{notificationId}/read")
+    public ResponseEntity<?> markNotificationRead(
+            @PathVariable Long notificationId,
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(name = "userId", required = false) Long claimedUserId) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedUserId);
+        if (denied != null) {
+            return denied;
+        }
+        return ResponseEntity.ok(Map.of("updated", notificationService.markRead(caller.id(), notificationId)));
+    }
+
+    // Поток новых уведомлений только своему владельцу: токен передаётся в Authorization, как и для остальных
+    // эндпоинтов (клиенту нужен EventSource с заголовками). При переподключении клиент передаёт Last-Event-ID
+    @GetMapping(value = "/stream/{userId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamNotifications(
+            @PathVariable Long userId,
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        // Тип ответа — именно SseEmitter (иначе Spring не откроет поток), поэтому отказ уходит без текста
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, userId);
+        if (denied != null) {
+            return ResponseEntity.status(denied.getStatusCode()).build();
+        }
+        return ResponseEntity.ok(notificationStreamService.subscribe(caller.id(), lastEventId));
+    }
+
     @DeleteMapping("/{notificationId}")
-    public ResponseEntity<?> deleteNotification(@PathVariable Long notificationId) {
-        notificationService.deleteNotification(notificationId);
+    public ResponseEntity<?> deleteNotification(
+            @PathVariable Long notificationId,
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, null);
+        if (denied != null) {
+            return denied;
+        }
+        if (!notificationService.deleteNotification(caller.id(), notificationId)) {
+            return ResponseEntity.notFound().build();
+        }
         return ResponseEntity.ok().build();
     }
 }
\ No newline at end of file
@@ -1,12 +1,15 @@
 package com.example.platform.controller;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 import java.util.ArrayList;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -15,33 +18,48 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestAttribute;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.example.platform.dto.CursorPage;
+import com.example.platform.dto.RequestFilter;
+import com.example.platform.dto.RequestSummaryDto;
 import com.example.platform.model.Request;
+import com.example.platform.service.ConflictRetryService;
 import com.example.platform.service.RequestService;
+import com.example.platform.web.AuthenticatedUser;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 @RestController
 @RequestMapping("/api/requests")
 public class RequestController {
+    private static final Logger log = LoggerFactory.getLogger(RequestController.class);
+
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final String CONFLICT_MESSAGE = "Запрос одновременно изменён другим пользователем, повторите попытку";
+
     @Autowired
     private RequestService requestService;
 
+    // Переходы статусов повторяются при конфликте версий; исчерпав попытки, отвечаем 409
+    @Autowired
+    private ConflictRetryService conflictRetryService;
+
     @PostMapping
-    public ResponseEntity<?> createRequest(@RequestBody Map<String, Object> payload) {
+    public ResponseEntity<?> createRequest(
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestBody Map<String, Object> payload) {
         try {
-            System.out.println("Received payload: " + payload);
-
-            Long userId = null; // Инициализация с null
-            if (payload.containsKey("userId")) {
-                userId = Long.parseLong(payload.get("userId").toString());
-                System.out.println("Parsed userId: " + userId);
-            } else {
-                return ResponseEntity.badRequest().body("UserId is required");
+            // Запрос создаётся от имени владельца токена; userId в теле, если передан, должен с ним совпадать
+            Long claimedUserId = payload.get("userId") != null ? Long.parseLong(payload.get("userId").toString()) : null;
+            ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedUserId);
+            if (denied != null) {
+                return denied;
             }
+            Long userId = caller.id();
 
             String description = (String) payload.get("description");
             String category = (String) payload.get("category");
@@ -76,27 +94,32 @@ public class RequestController {
             request.setLongitude(longitude);
             request.setDeadlineDate(deadlineDate);
 
-            Request createdRequest = requestService.createRequest(userId, request);
+            RequestSummaryDto createdRequest = requestService.createRequest(userId, request);
             return ResponseEntity.ok(createdRequest);
         } catch (Exception e) {
-            System.err.println("Error in controller: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Failed to create request: {}", e.getMessage());
             return ResponseEntity.badRequest().body("Error creating request: " + e.getMessage());
         }
     }
 
     @GetMapping("/active")
-    public List<Request> getActiveRequests() {
+    public List<RequestSummaryDto> getActiveRequests() {
         return requestService.getActiveRequests();
     }
 
     @DeleteMapping("/{requestId}")
     public ResponseEntity<?> deleteRequest(
             @PathVariable Long requestId,
-            @RequestParam Long userId) {
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(name = "userId", required = false) Long claimedUserId) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedUserId);
+        if (denied != null) {
+            return denied;
+        }
+        Long userId = caller.id();
         try {
             // Проверяем, существует ли запрос (используем findById, который теперь фильтрует неархивированные)
-            Request request = requestService.getRequestById(requestId);
+            RequestSummaryDto request = requestService.getRequestById(requestId);
             if (request == null) {
                 return ResponseEntity
                         .status(HttpStatus.NOT_FOUND)
@@ -107,7 +130,7 @@ public class RequestController {
             }
 
             // Проверяем, является ли пользователь создателем запроса
-            if (request.getUser() == null || !request.getUser().getId().equals(userId)) {
+            if (request.user() == null || !request.user().id().equals(userId)) {
                 return ResponseEntity
                         .status(HttpStatus.FORBIDDEN)
                         .body(Map.of(
@@ -136,10 +159,18 @@ public class RequestController {
     public ResponseEntity<?> updateRequestStatus(
             @PathVariable Long requestId,
             @RequestParam String status,
-            @RequestParam Long userId) {
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(name = "userId", required = false) Long claimedUserId) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedUserId);
+        if (denied != null) {
+            return denied;
+        }
+        Long userId = caller.id();
         try {
-            Request updatedRequest = requestService.updateRequestStatus(requestId, status, userId);
+            RequestSummaryDto updatedRequest = conflictRetryService.execute(() -> requestService.updateRequestStatus(requestId, status, userId));
             return ResponseEntity.ok(updatedRequest);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CONFLICT_MESSAGE);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -148,10 +179,18 @@ public class RequestController {
     @PostMapping("/{requestId}/help")
     public ResponseEntity<?> respondToRequest(
             @PathVariable Long requestId,
-            @RequestParam Long userId) {
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(name = "userId", required = false) Long claimedUserId) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedUserId);
+        if (denied != null) {
+            return denied;
+        }
+        Long userId = caller.id();
         try {
-            requestService.respondToRequest(userId, requestId);
+            conflictRetryService.run(() -> requestService.respondToRequest(userId, requestId));
             return ResponseEntity.ok().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CONFLICT_MESSAGE);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -160,7 +199,7 @@ public class RequestController {
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getUserRequests(@PathVariable Long userId) {
         try {
-            List<Request> requests = requestService.getUserRequests(userId);
+            List<RequestSummaryDto> requests = requestService.getUserRequests(userId);
             return ResponseEntity.ok(requests);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -170,7 +209,7 @@ public class RequestController {
     @GetMapping("/user/{userId}/helped")
     public ResponseEntity<?> getHelpedRequestsByUser(@PathVariable Long userId) {
         try {
-            List<Request> requests = requestService.getHelpedRequestsByUser(userId);
+            List<RequestSummaryDto> requests = requestService.getHelpedRequestsByUser(userId);
             return ResponseEntity.ok(requests);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -185,7 +224,10 @@ public class RequestController {
             @RequestParam(required = false) Double userLat,
             @RequestParam(required = false) Double userLon,
             @RequestParam(required = false) Long userId,
-            @RequestParam(required = false) String tab) {
+            @RequestParam(required = false) Long helperId,
+            @RequestParam(required = false) String tab,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
         try {
             // Валидация параметров
             if (maxDistance != null && maxDistance < 0) {
@@ -209,6 +251,12 @@ public class RequestController {
                 ));
             }
 
+            if (limit < 1 || limit > MAX_PAGE_SIZE) {
+                return ResponseEntity.badRequest().body(Map.of(
+                        "success", false,
+                        "message", "Размер страницы должен быть от 1 до " + MAX_PAGE_SIZE
+                ));
+            }
 
             if (userLat != null && userLon != null && maxDistance == null) {
                 maxDistance = 1000.0;
@@ -229,36 +277,37 @@ public class RequestController {
                 targetStatuses.add(status);
             }
 
-            List<Request> requests = requestService.filterRequests(
-                    category, targetStatuses, maxDistance, userLat, userLon);
-
-            // Дополнительная фильтрация на основе вкладки
-            if (tab != null && userId != null) {
-                switch (tab) {
-                    case "my":
-                        // Для вкладки "Мои запросы" фильтруем только по пользователю, статус любой
-                        requests = requestService.getUserRequests(userId);
-                        break;
-                    case "responses":
-                        requests = requests.stream()
-                                .filter(request -> request.getHelpHistory() != null &&
-                                        request.getHelpHistory().stream()
-                                                .anyMatch(h -> h.getStatus().equals("IN_PROGRESS") &&
-                                                        h.getHelper() != null &&
-                                                        h.getHelper().getId().equals(userId)))
-                                .collect(Collectors.toList());
-                        break;
+            // Вкладки превращаются в условия того же SQL-запроса: "responses" — пользователь сейчас помогает,
+            // "my" (или userId без вкладки) — все запросы владельца, статус и категория любые
+            Long ownerId = null;
+            if (userId != null) {
+                if ("responses".equals(tab)) {
+                    helperId = userId;
+                } else if (tab == null || "my".equals(tab)) {
+                    ownerId = userId;
+                    category = null;
+                    targetStatuses = null;
                 }
-            } else if (userId != null) {
-                // Если tab не указан, но указан userId, предполагаем, что нужны все запросы пользователя
-                requests = requestService.getUserRequests(userId);
             }
 
-            return ResponseEntity.ok(Map.of(
-                    "success", true,
-                    "data", requests,
-                    "total", requests.size()
-            ));
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("success", true);
+            if (maxDistance != null && maxDistance > 0 && ownerId == null && helperId == null) {
+                List<RequestSummaryDto> requests = requestService.findNearbyRequests(
+                        category, targetStatuses, maxDistance, userLat, userLon, limit);
+                response.put("data", requests);
+                response.put("total", requests.size());
+            } else {
+                // Вкладки "my"/"responses" с координатами: радиус — ещё одно условие того же запроса
+                RequestFilter filter = new RequestFilter(category, targetStatuses, ownerId, helperId,
+                        userLat, userLon, maxDistance);
+                CursorPage<RequestSummaryDto> page = requestService.filterRequests(filter, cursor, limit);
+                response.put("data", page.items());
+                // Все подходящие запросы, а не только текущая страница
+                response.put("total", requestService.countRequests(filter));
+                response.put("nextCursor", page.nextCursor());
+            }
+            return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
                     "success", false,
@@ -270,7 +319,7 @@ public class RequestController {
     @GetMapping("/user/{userId}/active-helps")
     public ResponseEntity<?> getActiveHelpRequests(@PathVariable Long userId) {
         try {
-            List<Request> requests = requestService.getActiveHelpRequests(userId);
+            List<RequestSummaryDto> requests = requestService.getActiveHelpRequests(userId);
             return ResponseEntity.ok(requests);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -280,7 +329,7 @@ public class RequestController {
     @GetMapping("/user/{userId}/completed-helps")
     public ResponseEntity<?> getCompletedHelpRequests(@PathVariable Long userId) {
         try {
-            List<Request> requests = requestService.getCompletedHelpRequests(userId);
+            List<RequestSummaryDto> requests = requestService.getCompletedHelpRequests(userId);
             return ResponseEntity.ok(requests);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
@@ -290,10 +339,18 @@ public class RequestController {
     @PutMapping("/{requestId}/complete-help")
     public ResponseEntity<?> completeHelp(
             @PathVariable Long requestId,
-            @RequestParam Long helperId) {
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(name = "helperId", required = false) Long claimedHelperId) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedHelperId);
+        if (denied != null) {
+            return denied;
+        }
+        Long helperId = caller.id();
         try {
-            Request updatedRequest = requestService.completeHelp(requestId, helperId);
+            RequestSummaryDto updatedRequest = conflictRetryService.execute(() -> requestService.completeHelp(requestId, helperId));
             return ResponseEntity.ok(updatedRequest);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CONFLICT_MESSAGE);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -302,10 +359,18 @@ public class RequestController {
     @PutMapping("/{requestId}/cancel-help")
     public ResponseEntity<?> cancelHelp(
             @PathVariable Long requestId,
-            @RequestParam Long helperId) {
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(name = "helperId", required = false) Long claimedHelperId) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedHelperId);
+        if (denied != null) {
+            return denied;
+        }
+        Long helperId = caller.id();
         try {
-            Request updatedRequest = requestService.cancelHelp(requestId, helperId);
+            RequestSummaryDto updatedRequest = conflictRetryService.execute(() -> requestService.cancelHelp(requestId, helperId));
             return ResponseEntity.ok(updatedRequest);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CONFLICT_MESSAGE);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -314,10 +379,18 @@ public class RequestController {
     @PostMapping("/{requestId}/confirm-help")
     public ResponseEntity<?> confirmHelpCompletion(
             @PathVariable Long requestId,
-            @RequestParam Long userId) {
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(name = "userId", required = false) Long claimedUserId) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedUserId);
+        if (denied != null) {
+            return denied;
+        }
+        Long userId = caller.id();
         try {
-            Request request = requestService.confirmHelpCompletion(requestId, userId);
+            RequestSummaryDto request = conflictRetryService.execute(() -> requestService.confirmHelpCompletion(requestId, userId));
             return ResponseEntity.ok(request);
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CONFLICT_MESSAGE);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
@@ -326,10 +399,18 @@ public class RequestController {
     @PostMapping("/{requestId}/reject-help")
     public ResponseEntity<?> rejectHelpCompletion(
             @PathVariable Long requestId,
-            @RequestParam Long userId) {
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestParam(name = "userId", required = false) Long claimedUserId) {
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, claimedUserId);
+        if (denied != null) {
+            return denied;
+        }
+        Long userId = caller.id();
         try {
-            requestService.rejectHelpCompletion(requestId, userId);
+            conflictRetryService.run(() -> requestService.rejectHelpCompletion(requestId, userId));
             return ResponseEntity.ok().build();
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(CONFLICT_MESSAGE);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
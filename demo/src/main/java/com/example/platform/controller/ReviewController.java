@@ -1,7 +1,8 @@
 package com.example.platform.controller;
 
-import com.example.platform.model.Review;
+import com.example.platform.dto.ReviewDto;
 import com.example.platform.service.ReviewService;
+import com.example.platform.web.AuthenticatedUser;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -16,11 +17,18 @@ public class ReviewController {
     private ReviewService reviewService;
 
     @PostMapping
-    public ResponseEntity<?> addReview(@RequestBody ReviewRequest request) {
+    public ResponseEntity<?> addReview(
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser caller,
+            @RequestBody ReviewRequest request) {
+        // Автор отзыва — владелец токена; authorId в теле, если передан, должен с ним совпадать
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(caller, request.authorId);
+        if (denied != null) {
+            return denied;
+        }
         try {
-            Review review = reviewService.addReview(
+            ReviewDto review = reviewService.addReview(
                     request.helperId,
-                    request.authorId,
+                    caller.id(),
                     request.requestId,
                     request.rating,
                     request.text
@@ -34,7 +42,7 @@ public class ReviewController {
     @GetMapping("/helper/{helperId}")
     public ResponseEntity<?> getReviewsForHelper(@PathVariable Long helperId) {
         try {
-            List<Review> reviews = reviewService.getReviewsForHelper(helperId);
+            List<ReviewDto> reviews = reviewService.getReviewsForHelper(helperId);
             return ResponseEntity.ok(reviews);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Ошибка при получении отзывов: " + e.getMessage());
@@ -44,7 +52,7 @@ public class ReviewController {
     @GetMapping("/request/{requestId}")
     public ResponseEntity<?> getReviewsForRequest(@PathVariable Long requestId) {
         try {
-            List<Review> reviews = reviewService.getReviewsForRequest(requestId);
+            List<ReviewDto> reviews = reviewService.getReviewsForRequest(requestId);
             return ResponseEntity.ok(reviews);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Ошибка при получении отзывов: " + e.getMessage());
@@ -54,7 +62,7 @@ public class ReviewController {
     @GetMapping("/author/{authorId}")
     public ResponseEntity<?> getReviewsByAuthor(@PathVariable Long authorId) {
         try {
-            List<Review> reviews = reviewService.getReviewsByAuthor(authorId);
+            List<ReviewDto> reviews = reviewService.getReviewsByAuthor(authorId);
             return ResponseEntity.ok(reviews);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body("Ошибка при получении отзывов: " + e.getMessage());
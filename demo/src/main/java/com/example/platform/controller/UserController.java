@@ -1,69 +1,86 @@
 package com.example.platform.controller;
 
+import com.example.platform.dto.LeaderboardEntryDto;
+import com.example.platform.dto.UserDto;
+import com.example.platform.dto.UserStatisticsDto;
 import com.example.platform.model.User;
+import com.example.platform.service.AvatarStorageService;
+import com.example.platform.service.LeaderboardService;
 import com.example.platform.service.UserService;
+import com.example.platform.service.UserStatisticsService;
+import com.example.platform.web.AuthenticatedUser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
-import org.springframework.beans.factory.annotation.Value;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
-import java.util.UUID;
 import org.springframework.http.HttpStatus;
 
-import java.util.List;
-import java.util.Map;
 
 @CrossOrigin(origins = "http://localhost:3000", allowCredentials = "true")
 @RestController
 @RequestMapping("/api/users")
 public class UserController {
+    private static final Logger log = LoggerFactory.getLogger(UserController.class);
+
     @Autowired
     private UserService userService;
 
-    @Value("${file.upload-dir}")
-    private String uploadDir;
+    @Autowired
+    private LeaderboardService leaderboardService;
+
+    @Autowired
+    private UserStatisticsService userStatisticsService;
+
+    @Autowired
+    private AvatarStorageService avatarStorageService;
 
+    // С bearer-токеном пользователь уже определён фильтром аутентификации; email — для клиентов без токена
     @GetMapping("/current")
-    public ResponseEntity<?> getCurrentUser(@RequestParam String email) {
+    public ResponseEntity<?> getCurrentUser(
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser principal,
+            @RequestParam(required = false) String email) {
         try {
-            System.out.println("Getting current user for email: " + email);
-            User user = userService.findByEmail(email);
-            System.out.println("Found user: " + user.getId() + ", " + user.getEmail());
-
-            // Убеждаемся, что у пользователя есть имя
-            if (user.getName() == null || user.getName().trim().isEmpty()) {
-                user.setName("Пользователь");
+            if (principal == null && email == null) {
+                return ResponseEntity.badRequest().body("Error: email is required");
             }
-
+            UserDto user = principal != null ? userService.getUser(principal.id()) : userService.getCurrentUser(email);
             return ResponseEntity.ok(user);
         } catch (Exception e) {
-            System.err.println("Error getting current user: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Failed to load current user: {}", e.getMessage());
             return ResponseEntity.badRequest().body("Error: " + e.getMessage());
         }
     }
 
-    @GetMapping("/{userId}/statistics")
-    public Map<String, Object> getStatistics(@PathVariable Long userId) {
-        return userService.getStatistics(userId);
+    @GetMapping("/{userId}")
+    public ResponseEntity<?> getUser(@PathVariable Long userId) {
+        try {
+            return ResponseEntity.ok(userService.getUser(userId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body("Error: " + e.getMessage());
+        }
     }
 
-    @PutMapping("/{userId}/rating")
-    public User updateRating(@PathVariable Long userId, @RequestParam Integer rating) {
-        return userService.updateRating(userId, rating);
+    @GetMapping("/{userId}/statistics")
+    public UserStatisticsDto getStatistics(@PathVariable Long userId) {
+        return userStatisticsService.getStatistics(userId);
     }
 
     @PutMapping("/{id}")
     public ResponseEntity<?> updateUser(
             @PathVariable Long id,
+            @RequestAttribute(name = AuthenticatedUser.ATTRIBUTE, required = false) AuthenticatedUser principal,
             @RequestParam(required = false) String name,
             @RequestParam(required = false) String birthDate,
             @RequestParam(required = false) MultipartFile avatar) {
+        // Профиль меняет только его владелец
+        ResponseEntity<String> denied = AuthenticatedUser.denyUnlessCaller(principal, id);
+        if (denied != null) {
+            return denied;
+        }
+        AvatarStorageService.StagedAvatar staged = null;
         try {
             User user = userService.getUserById(id);
             if (user == null) {
@@ -93,31 +110,39 @@ public class UserController {
 
                 user.setBirthDate(parsedDate);
             }
+            // Файл пишется потоком во временный и в хранилище по содержимому переносится в транзакции обновления
             if (avatar != null && !avatar.isEmpty()) {
-                String fileName = UUID.randomUUID().toString() +
-                        getFileExtension(avatar.getOriginalFilename());
-                Path filePath = Paths.get(uploadDir, fileName);
-                Files.copy(avatar.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-                user.setAvatarUrl("/uploads/" + fileName);
+                staged = avatarStorageService.stage(avatar.getInputStream(), avatar.getOriginalFilename());
             }
 
-            User updatedUser = userService.updateUser(user);
+            UserDto updatedUser = userService.updateUser(user, staged);
             return ResponseEntity.ok(updatedUser);
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body("Ошибка при обновлении пользователя: " + e.getMessage());
+        } finally {
+            // После успешного обновления временного файла уже нет
+            if (staged != null) {
+                avatarStorageService.discard(staged);
+            }
         }
     }
 
-    private String getFileExtension(String fileName) {
-        if (fileName == null) return "";
-        int lastIndexOf = fileName.lastIndexOf(".");
-        if (lastIndexOf == -1) return "";
-        return fileName.substring(lastIndexOf);
+    @GetMapping("/rating")
+    public ResponseEntity<?> getUsersRating(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "100") int size) {
+        if (page < 0 || size < 1 || size > 500) {
+            return ResponseEntity.badRequest().body("Некорректные параметры страницы");
+        }
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(leaderboardService.size()))
+                .body(leaderboardService.getPage(page, size));
     }
 
-    @GetMapping("/rating")
-    public ResponseEntity<List<Map<String, Object>>> getUsersRating() {
-        return ResponseEntity.ok(userService.getUsersRating());
+    @GetMapping("/{userId}/rank")
+    public ResponseEntity<LeaderboardEntryDto> getUserRank(@PathVariable Long userId) {
+        LeaderboardEntryDto entry = leaderboardService.getRank(userId);
+        return entry != null ? ResponseEntity.ok(entry) : ResponseEntity.notFound().build();
     }
 }
\ No newline at end of file
@@ -0,0 +1,10 @@
+package com.example.platform.dto;
+
+import java.util.List;
+
+// Страница результатов keyset-пагинации: элементы и курсор следующей страницы (null, если страниц больше нет)
+public record CursorPage<T>(
+        List<T> items,
+        String nextCursor
+) {
+}
@@ -0,0 +1,9 @@
+package com.example.platform.dto;
+
+// Агрегаты по help_history одного помощника
+public record HelpStatisticsDto(
+        Long activeHelps,
+        Long completedHelps,
+        Double averageCompletionSeconds
+) {
+}
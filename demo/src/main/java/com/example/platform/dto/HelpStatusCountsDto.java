@@ -0,0 +1,11 @@
+package com.example.platform.dto;
+
+// Число незавершённых записей help_history одного запроса по статусам
+public record HelpStatusCountsDto(
+        long inProgress,
+        long pendingConfirmation
+) {
+    public boolean hasOpenHelps() {
+        return inProgress > 0 || pendingConfirmation > 0;
+    }
+}
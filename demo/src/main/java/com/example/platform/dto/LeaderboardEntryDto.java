@@ -0,0 +1,18 @@
+package com.example.platform.dto;
+
+import com.example.platform.model.AvatarVariant;
+
+// Строка рейтинга помощников: место (с 1), средняя оценка и число отзывов
+public record LeaderboardEntryDto(
+        int rank,
+        Long id,
+        String name,
+        String avatarUrl,
+        String avatarThumbnailUrl,
+        double rating,
+        int helpedCount
+) {
+    public LeaderboardEntryDto(int rank, Long id, String name, String avatarUrl, double rating, int helpedCount) {
+        this(rank, id, name, avatarUrl, AvatarVariant.thumbnailUrlOf(avatarUrl), rating, helpedCount);
+    }
+}
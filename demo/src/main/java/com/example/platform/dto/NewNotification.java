@@ -0,0 +1,16 @@
+package com.example.platform.dto;
+
+import java.time.LocalDateTime;
+
+// Уведомление, поставленное в очередь на запись (см. NotificationWriter): только ключи и текст
+public record NewNotification(
+        Long userId,
+        Long requestId,
+        String message,
+        String type,
+        boolean actionNeeded,
+        String actionUrl,
+        Long fromUserId,
+        LocalDateTime createdAt
+) {
+}
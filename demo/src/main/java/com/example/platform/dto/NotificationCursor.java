@@ -0,0 +1,37 @@
+package com.example.platform.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Позиция во входящих для keyset-пагинации: сначала непрочитанные, внутри — по (created_at, id) от новых к старым
+public record NotificationCursor(
+        boolean read,
+        LocalDateTime createdAt,
+        Long id
+) {
+    private static final String SEPARATOR = "|";
+
+    public static NotificationCursor of(NotificationDto notification) {
+        return new NotificationCursor(notification.read(), notification.createdAt(), notification.id());
+    }
+
+    public String encode() {
+        String raw = read + SEPARATOR + createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static NotificationCursor decode(String token) {
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+                    .split("\\|", 3);
+            return new NotificationCursor(
+                    Boolean.parseBoolean(parts[0]),
+                    LocalDateTime.parse(parts[1]),
+                    Long.parseLong(parts[2])
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Некорректный курсор: " + token);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.platform.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.platform.model.Notification;
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+
+// Уведомление для входящих: только поля, которые показывает клиент
+public record NotificationDto(
+        Long id,
+        String message,
+        String type,
+        String status,
+        boolean read,
+        String actionUrl,
+        LocalDateTime createdAt,
+        boolean actionNeeded,
+        RequestRefDto request,
+        UserRefDto fromUser
+) {
+    // Плоский конструктор для JPQL-проекции
+    public NotificationDto(Long id, String message, String type, String status, boolean read, String actionUrl,
+                           LocalDateTime createdAt, boolean actionNeeded,
+                           Long requestId, String requestDescription, String requestStatus,
+                           Long fromUserId, String fromUserName, String fromUserAvatarUrl) {
+        this(id, message, type, status, read, actionUrl, createdAt, actionNeeded,
+                RequestRefDto.of(requestId, requestDescription, requestStatus),
+                UserRefDto.of(fromUserId, fromUserName, fromUserAvatarUrl));
+    }
+
+    public static NotificationDto from(Notification notification) {
+        Request request = notification.getRequest();
+        User fromUser = notification.getFromUser();
+        return new NotificationDto(
+                notification.getId(),
+                notification.getMessage(),
+                notification.getType(),
+                notification.getStatus(),
+                notification.isRead(),
+                notification.getActionUrl(),
+                notification.getCreatedAt(),
+                notification.isActionNeeded(),
+                request != null ? new RequestRefDto(request.getId(), request.getDescription(), request.getStatus()) : null,
+                fromUser != null ? new UserRefDto(fromUser.getId(), fromUser.getName(), fromUser.getAvatarUrl()) : null
+        );
+    }
+}
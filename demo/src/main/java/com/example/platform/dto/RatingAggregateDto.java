@@ -0,0 +1,9 @@
+package com.example.platform.dto;
+
+// Значения агрегата рейтинга пользователя после обновления
+public record RatingAggregateDto(
+        Long userId,
+        long ratingSum,
+        int ratingCount
+) {
+}
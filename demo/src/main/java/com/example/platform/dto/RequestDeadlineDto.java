@@ -0,0 +1,10 @@
+package com.example.platform.dto;
+
+import java.time.LocalDateTime;
+
+// Срок открытого запроса, по которому ещё не отправлено напоминание
+public record RequestDeadlineDto(
+        Long id,
+        LocalDateTime deadlineDate
+) {
+}
@@ -0,0 +1,23 @@
+package com.example.platform.dto;
+
+import java.util.List;
+
+// Критерии фильтрации запросов: категория, набор статусов, владелец и активный помощник;
+// при заданных координатах и maxDistance (метры) — только запросы в этом радиусе
+public record RequestFilter(
+        String category,
+        List<String> statuses,
+        Long ownerId,
+        Long helperId,
+        Double latitude,
+        Double longitude,
+        Double maxDistance
+) {
+    public RequestFilter(String category, List<String> statuses, Long ownerId, Long helperId) {
+        this(category, statuses, ownerId, helperId, null, null, null);
+    }
+
+    public boolean hasRadius() {
+        return latitude != null && longitude != null && maxDistance != null && maxDistance > 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.platform.dto;
+
+// Координаты и атрибуты фильтрации запроса без загрузки сущности
+public record RequestLocationDto(
+        Long id,
+        double latitude,
+        double longitude,
+        String category,
+        String status
+) {
+}
@@ -0,0 +1,12 @@
+package com.example.platform.dto;
+
+// Ссылка на запрос внутри уведомлений и отзывов
+public record RequestRefDto(
+        Long id,
+        String description,
+        String status
+) {
+    public static RequestRefDto of(Long id, String description, String status) {
+        return id != null ? new RequestRefDto(id, description, status) : null;
+    }
+}
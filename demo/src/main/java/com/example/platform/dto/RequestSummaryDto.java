@@ -0,0 +1,55 @@
+package com.example.platform.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+
+// Запрос без ленивых коллекций (helpers, helpHistory) для ленты, карты и списков
+public record RequestSummaryDto(
+        Long id,
+        String description,
+        double latitude,
+        double longitude,
+        String status,
+        String category,
+        LocalDateTime deadlineDate,
+        LocalDateTime creationDate,
+        String userName,
+        UserSummaryDto user
+) {
+    // Плоский конструктор для JPQL-проекций: выбираются только сериализуемые колонки запроса и создателя
+    public RequestSummaryDto(Long id, String description, double latitude, double longitude, String status,
+                             String category, LocalDateTime deadlineDate, LocalDateTime creationDate,
+                             Long userId, String userName, String userAvatarUrl,
+                             Integer userRating, Integer userRatingCount) {
+        this(id, description, latitude, longitude, status, category, deadlineDate, creationDate,
+                UserSummaryDto.of(userId, userName, userAvatarUrl, userRating, userRatingCount));
+    }
+
+    private RequestSummaryDto(Long id, String description, double latitude, double longitude, String status,
+                              String category, LocalDateTime deadlineDate, LocalDateTime creationDate,
+                              UserSummaryDto user) {
+        this(id, description, latitude, longitude, status, category, deadlineDate, creationDate,
+                user != null ? user.name() : "Аноним", user);
+    }
+
+    public static RequestSummaryDto from(Request request) {
+        User user = request.getUser();
+        return new RequestSummaryDto(
+                request.getId(),
+                request.getDescription(),
+                request.getLatitude(),
+                request.getLongitude(),
+                request.getStatus(),
+                request.getCategory(),
+                request.getDeadlineDate(),
+                request.getCreationDate(),
+                user != null ? user.getId() : null,
+                user != null ? user.getName() : null,
+                user != null ? user.getAvatarUrl() : null,
+                user != null ? user.getRating() : null,
+                user != null ? user.getRatingCount() : null
+        );
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.platform.dto;
+
+import java.time.LocalDateTime;
+
+import com.example.platform.model.Review;
+
+// Отзыв с краткими данными помощника, автора и запроса
+public record ReviewDto(
+        Long id,
+        int rating,
+        String text,
+        LocalDateTime createdAt,
+        UserRefDto helper,
+        UserRefDto author,
+        RequestRefDto request
+) {
+    // Плоский конструктор для JPQL-проекции
+    public ReviewDto(Long id, int rating, String text, LocalDateTime createdAt,
+                     Long helperId, String helperName, String helperAvatarUrl,
+                     Long authorId, String authorName, String authorAvatarUrl,
+                     Long requestId, String requestDescription, String requestStatus) {
+        this(id, rating, text, createdAt,
+                UserRefDto.of(helperId, helperName, helperAvatarUrl),
+                UserRefDto.of(authorId, authorName, authorAvatarUrl),
+                RequestRefDto.of(requestId, requestDescription, requestStatus));
+    }
+
+    public static ReviewDto from(Review review) {
+        return new ReviewDto(
+                review.getId(),
+                review.getRating(),
+                review.getText(),
+                review.getCreatedAt(),
+                new UserRefDto(review.getHelper().getId(), review.getHelper().getName(), review.getHelper().getAvatarUrl()),
+                new UserRefDto(review.getAuthor().getId(), review.getAuthor().getName(), review.getAuthor().getAvatarUrl()),
+                new RequestRefDto(review.getRequest().getId(), review.getRequest().getDescription(), review.getRequest().getStatus())
+        );
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.platform.dto;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.example.platform.model.AvatarVariant;
+import com.example.platform.model.User;
+
+// Профиль пользователя без пароля и ленивых коллекций
+public record UserDto(
+        Long id,
+        String name,
+        String email,
+        String avatarUrl,
+        LocalDate birthDate,
+        Integer rating,
+        int ratingCount,
+        int helpedCount,
+        // Размер в пикселях → адрес уменьшенной копии аватара
+        Map<Integer, String> avatarVariants
+) {
+    // Конструктор для JPQL-проекций: адреса копий вычисляются из avatarUrl
+    public UserDto(Long id, String name, String email, String avatarUrl, LocalDate birthDate,
+                   Integer rating, int ratingCount, int helpedCount) {
+        this(id, name, email, avatarUrl, birthDate, rating, ratingCount, helpedCount,
+                AvatarVariant.urlsOf(avatarUrl));
+    }
+
+    public static UserDto from(User user) {
+        return new UserDto(
+                user.getId(),
+                user.getName(),
+                user.getEmail(),
+                user.getAvatarUrl(),
+                user.getBirthDate(),
+                user.getRating(),
+                user.getRatingCount(),
+                user.getHelpedCount()
+        );
+    }
+
+    // Убеждаемся, что у пользователя есть имя
+    public UserDto withDisplayName() {
+        if (name != null && !name.trim().isEmpty()) {
+            return this;
+        }
+        return new UserDto(id, "Пользователь", email, avatarUrl, birthDate, rating, ratingCount, helpedCount);
+    }
+}
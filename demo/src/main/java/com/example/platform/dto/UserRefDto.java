@@ -0,0 +1,19 @@
+package com.example.platform.dto;
+
+import com.example.platform.model.AvatarVariant;
+
+// Ссылка на пользователя внутри уведомлений и отзывов
+public record UserRefDto(
+        Long id,
+        String name,
+        String avatarUrl,
+        String avatarThumbnailUrl
+) {
+    public UserRefDto(Long id, String name, String avatarUrl) {
+        this(id, name, avatarUrl, AvatarVariant.thumbnailUrlOf(avatarUrl));
+    }
+
+    public static UserRefDto of(Long id, String name, String avatarUrl) {
+        return id != null ? new UserRefDto(id, name, avatarUrl) : null;
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.platform.dto;
+
+// Счётчики связей пользователя без загрузки коллекций createdRequests/helpedRequests
+public record UserRequestCountsDto(
+        Integer rating,
+        Integer createdRequests,
+        Integer helpedRequests
+) {
+}
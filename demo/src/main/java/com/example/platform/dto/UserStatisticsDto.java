@@ -0,0 +1,12 @@
+package com.example.platform.dto;
+
+// Статистика профиля: счётчики запросов и помощи, средняя длительность завершённой помощи в минутах
+public record UserStatisticsDto(
+        long createdRequests,
+        long helpedRequests,
+        Integer rating,
+        long activeHelps,
+        long completedHelps,
+        Double averageCompletionMinutes
+) {
+}
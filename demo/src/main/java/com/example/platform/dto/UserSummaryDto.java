@@ -0,0 +1,25 @@
+package com.example.platform.dto;
+
+import com.example.platform.model.AvatarVariant;
+
+// Краткие данные пользователя для списков и карточек запросов
+public record UserSummaryDto(
+        Long id,
+        String name,
+        String avatarUrl,
+        String avatarThumbnailUrl,
+        Integer rating,
+        long reviewCount
+) {
+    // null, если пользователя нет (LEFT JOIN не нашёл строку)
+    public static UserSummaryDto of(Long id, String name, String avatarUrl, Integer rating, Integer reviewCount) {
+        if (id == null) {
+            return null;
+        }
+        // Убеждаемся, что имя пользователя установлено
+        String displayName = name == null || name.trim().isEmpty() ? "Пользователь" : name;
+        return new UserSummaryDto(id, displayName, avatarUrl, AvatarVariant.thumbnailUrlOf(avatarUrl),
+                rating != null ? rating : 0,
+                reviewCount != null ? reviewCount : 0);
+    }
+}
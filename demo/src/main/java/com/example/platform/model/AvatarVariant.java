@@ -0,0 +1,84 @@
+package com.example.platform.model;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Уменьшенные копии аватара из хранилища по содержимому: квадрат size×size в JPEG рядом с оригиналом,
+// /uploads/ab/<sha256>.png → /uploads/ab/<sha256>-128.jpg. Адрес вычисляется из адреса оригинала, поэтому
+// в базе не хранится; пока копия не построена, по её адресу отдаётся оригинал (см. AvatarVariantResolver)
+public enum AvatarVariant {
+    SMALL(48),
+    MEDIUM(128),
+    LARGE(512);
+
+    // Для списков (лента, рейтинг, отзывы): кружок ~48 px, резкий и на экранах с двойной плотностью
+    public static final AvatarVariant THUMBNAIL = MEDIUM;
+
+    // Группа 1 — путь оригинала без расширения
+    private static final Pattern STORED_URL = Pattern.compile("(/uploads/[0-9a-f]{2}/[0-9a-f]{64})(\\.[a-z0-9]{1,10})?");
+    // Группа 1 — хэш содержимого, группа 2 — размер
+    private static final Pattern VARIANT_FILE = Pattern.compile("([0-9a-f]{64})-([0-9]{1,4})\\.jpg");
+
+    private final int size;
+
+    AvatarVariant(int size) {
+        this.size = size;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Оригинал в хранилище по содержимому (не копия и не старый /uploads/<uuid>)
+    public static boolean isStored(String url) {
+        return url != null && STORED_URL.matcher(url).matches();
+    }
+
+    // null — у аватара нет копий (нет аватара или он загружен до хранилища)
+    public String urlOf(String avatarUrl) {
+        if (avatarUrl == null) {
+            return null;
+        }
+        Matcher matcher = STORED_URL.matcher(avatarUrl);
+        return matcher.matches() ? matcher.group(1) + "-" + size + ".jpg" : null;
+    }
+
+    public static Map<Integer, String> urlsOf(String avatarUrl) {
+        if (!isStored(avatarUrl)) {
+            return null;
+        }
+        Map<Integer, String> urls = new LinkedHashMap<>();
+        for (AvatarVariant variant : values()) {
+            urls.put(variant.size, variant.urlOf(avatarUrl));
+        }
+        return urls;
+    }
+
+    // Миниатюра для списков; если копий нет — сам аватар
+    public static String thumbnailUrlOf(String avatarUrl) {
+        String thumbnail = THUMBNAIL.urlOf(avatarUrl);
+        return thumbnail != null ? thumbnail : avatarUrl;
+    }
+
+    // Копия по имени файла (<sha256>-<size>.jpg) или null
+    public static AvatarVariant ofFileName(String fileName) {
+        Matcher matcher = VARIANT_FILE.matcher(fileName);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int size = Integer.parseInt(matcher.group(2));
+        for (AvatarVariant variant : values()) {
+            if (variant.size == size) {
+                return variant;
+            }
+        }
+        return null;
+    }
+
+    // Хэш содержимого из имени файла оригинала или копии
+    public static String hashOfFileName(String fileName) {
+        return fileName.length() >= 64 ? fileName.substring(0, 64) : fileName;
+    }
+}
@@ -2,6 +2,7 @@ package com.example.platform.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import java.time.LocalDateTime;
 
 @Entity
@@ -30,6 +31,11 @@ public class HelpHistory {
     @Column(name = "end_date")
     private LocalDateTime endDate;
 
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     // Геттеры и сеттеры
     public Long getId() {
         return id;
@@ -78,4 +84,12 @@ public class HelpHistory {
     public void setEndDate(LocalDateTime endDate) {
         this.endDate = endDate;
     }
-}
\ No newline at end of file
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.platform.model;
 
 import java.time.LocalDateTime;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
@@ -39,6 +41,11 @@ public class Notification {
     @Column(nullable = false)
     private String status;
 
+    // Дублирует status = 'READ' в виде флага для составного индекса (user_id, is_read, created_at)
+    @ColumnDefault("false")
+    @Column(name = "is_read", nullable = false)
+    private boolean read;
+
     @Column(name = "action_url")
     private String actionUrl;
 
@@ -103,6 +110,14 @@ public class Notification {
         this.status = status;
     }
 
+    public boolean isRead() {
+        return read;
+    }
+
+    public void setRead(boolean read) {
+        this.read = read;
+    }
+
     public String getActionUrl() {
         return actionUrl;
     }
@@ -4,6 +4,8 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.Column;
@@ -20,6 +22,7 @@ import jakarta.persistence.OneToMany;
 import jakarta.persistence.PrePersist;
 import jakarta.persistence.PreUpdate;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.EnumType;
 import lombok.Data;
@@ -67,9 +70,26 @@ public class Request {
     @JsonIgnoreProperties({"helpedRequests", "createdRequests", "password"})
     private List<User> helpers = new ArrayList<>();
 
+    // Оптимистическая блокировка: параллельные переходы статуса не затирают друг друга (см. HelpLifecycle).
+    // Значение по умолчанию — для уже существующих строк при добавлении колонки (см. V8)
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     @Column(name = "is_archived")
     private boolean isArchived = false;
 
+    // Запрос отменён автоматически по истечении срока (см. RequestExpiryService)
+    @Column(name = "is_expired")
+    private boolean isExpired = false;
+
+    // Напоминание о сроке уже отправлено (см. DeadlineReminderService). Меняется только условным UPDATE,
+    // чтобы сохранение загруженной раньше сущности не сбросило флаг и напоминание не ушло повторно
+    @ColumnDefault("false")
+    @Column(name = "reminder_sent", nullable = false, updatable = false)
+    private boolean reminderSent = false;
+
     @OneToMany(mappedBy = "request", fetch = FetchType.LAZY)
     @JsonIgnoreProperties({"request"})
     private List<HelpHistory> helpHistory;
@@ -167,6 +187,14 @@ public class Request {
         isArchived = archived;
     }
 
+    public boolean isExpired() {
+        return isExpired;
+    }
+
+    public void setExpired(boolean expired) {
+        isExpired = expired;
+    }
+
     public List<HelpHistory> getHelpHistory() {
         return helpHistory;
     }
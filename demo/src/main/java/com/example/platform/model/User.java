@@ -2,10 +2,13 @@ package com.example.platform.model;
 
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 
 import jakarta.persistence.*;
 
+import org.hibernate.annotations.ColumnDefault;
+
 import jakarta.validation.constraints.Email;
 
 import jakarta.validation.constraints.NotBlank;
@@ -75,10 +78,38 @@ public class User {
 
 
 
+    // Округлённое среднее, пересчитывается тем же UPDATE, что и агрегат (UserRepository.addRating);
+    // updatable = false по той же причине, что и у счётчиков ниже
+    @Column(name = "rating", updatable = false)
     private Integer rating;
 
 
 
+    // Агрегат отзывов и завершённых помощей, обновляется атомарно (см. RatingAggregateService).
+    // updatable = false: сохранение профиля не перезапишет счётчики значениями, прочитанными до чужого UPDATE
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "rating_sum", nullable = false, updatable = false)
+    private long ratingSum;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "rating_count", nullable = false, updatable = false)
+    private int ratingCount;
+
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "helped_count", nullable = false, updatable = false)
+    private int helpedCount;
+
+    // Счётчик непрочитанных уведомлений для значка, меняется вместе с уведомлениями
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(name = "unread_notification_count", nullable = false, updatable = false)
+    private int unreadNotificationCount;
+
+
+
     @Column(name = "avatar_url")
     private String avatarUrl;
 
@@ -201,6 +232,44 @@ public class User {
 
 
 
+    public long getRatingSum() {
+        return ratingSum;
+    }
+
+    public void setRatingSum(long ratingSum) {
+        this.ratingSum = ratingSum;
+    }
+
+    public int getRatingCount() {
+        return ratingCount;
+    }
+
+    public void setRatingCount(int ratingCount) {
+        this.ratingCount = ratingCount;
+    }
+
+    public int getHelpedCount() {
+        return helpedCount;
+    }
+
+    public void setHelpedCount(int helpedCount) {
+        this.helpedCount = helpedCount;
+    }
+
+    public int getUnreadNotificationCount() {
+        return unreadNotificationCount;
+    }
+
+    public void setUnreadNotificationCount(int unreadNotificationCount) {
+        this.unreadNotificationCount = unreadNotificationCount;
+    }
+
+    // Средняя оценка по агрегату (без округления)
+    @JsonIgnore
+    public double getAverageRating() {
+        return ratingCount > 0 ? (double) ratingSum / ratingCount : 0;
+    }
+
     public String getAvatarUrl() {
         return avatarUrl;
     }
@@ -0,0 +1,49 @@
+package com.example.platform.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.platform.model.AvatarFile;
+
+import jakarta.persistence.LockModeType;
+
+@Repository
+public interface AvatarFileRepository extends JpaRepository<AvatarFile, String> {
+    // Новая ссылка на файл; строка остаётся заблокированной до конца транзакции, поэтому сборщик мусора её не удалит
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AvatarFile a SET a.refCount = a.refCount + 1, a.releasedAt = null WHERE a.url = :url")
+    int retain(@Param("url") String url);
+
+    // Первая ссылка на файл. Параллельная вставка того же файла не падает, а возвращает 0 — тогда повторяется retain
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO avatar_files (url, size_bytes, ref_count, created_at) VALUES (:url, :size, 1, :now) " +
+            "ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insert(@Param("url") String url, @Param("size") long size, @Param("now") LocalDateTime now);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE AvatarFile a SET a.refCount = a.refCount - 1, " +
+            "a.releasedAt = CASE WHEN a.refCount = 1 THEN :now ELSE a.releasedAt END " +
+            "WHERE a.url = :url AND a.refCount > 0")
+    int release(@Param("url") String url, @Param("now") LocalDateTime now);
+
+    // Кандидаты на удаление — по частичному индексу idx_avatar_files_released
+    @Query("SELECT a.url FROM AvatarFile a WHERE a.refCount = 0 AND a.releasedAt < :before ORDER BY a.releasedAt")
+    List<String> findUnreferencedBefore(@Param("before") LocalDateTime before, Pageable pageable);
+
+    // Есть ли оригинал с тем же содержимым (под любым расширением): по префиксу /uploads/<xx>/<sha256>
+    boolean existsByUrlStartingWith(String prefix);
+
+    // Блокирует строку, пока файл удаляется с диска: параллельный retain дождётся и вставит строку заново
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM AvatarFile a WHERE a.url = :url AND a.refCount = 0")
+    Optional<AvatarFile> lockUnreferenced(@Param("url") String url);
+}
@@ -1,13 +1,19 @@
 package com.example.platform.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.platform.dto.HelpStatisticsDto;
+import com.example.platform.dto.HelpStatusCountsDto;
 import com.example.platform.model.HelpHistory;
+import com.example.platform.model.User;
 
 @Repository
 public interface HelpHistoryRepository extends JpaRepository<HelpHistory, Long> {
@@ -22,12 +28,56 @@ public interface HelpHistoryRepository extends JpaRepository<HelpHistory, Long>
     @Query("SELECT COUNT(h) > 0 FROM HelpHistory h WHERE h.request.id = :requestId AND h.helper.id = :helperId AND h.status = 'IN_PROGRESS'")
     boolean existsByRequestIdAndHelperId(@Param("requestId") Long requestId, @Param("helperId") Long helperId);
 
-    @Query("SELECT h FROM HelpHistory h WHERE h.request.id = :requestId AND h.helper.id = :helperId AND h.status = 'IN_PROGRESS'")
+    // Незавершённая помощь (IN_PROGRESS или PENDING_CONFIRMATION): не больше одной на пару запрос-помощник, см. uq_help_history_open
+    @Query("SELECT COUNT(h) > 0 FROM HelpHistory h WHERE h.request.id = :requestId AND h.helper.id = :helperId " +
+            "AND h.status IN ('IN_PROGRESS', 'PENDING_CONFIRMATION')")
+    boolean existsOpenHelp(@Param("requestId") Long requestId, @Param("helperId") Long helperId);
+
+    // Запрос и помощник подтягиваются тем же SELECT, иначе EAGER-связи догружаются отдельными запросами
+    @Query("SELECT h FROM HelpHistory h JOIN FETCH h.request JOIN FETCH h.helper " +
+            "WHERE h.request.id = :requestId AND h.helper.id = :helperId AND h.status = 'IN_PROGRESS'")
     List<HelpHistory> findActiveHelpsByRequestAndHelper(@Param("requestId") Long requestId, @Param("helperId") Long helperId);
 
     @Query("SELECT h FROM HelpHistory h WHERE h.request.id = :requestId AND h.helper.id = :helperId ORDER BY h.startDate DESC")
     List<HelpHistory> findByRequestIdAndHelperIdOrderByStartDateDesc(@Param("requestId") Long requestId, @Param("helperId") Long helperId);
 
+    @Query("SELECT h.status FROM HelpHistory h WHERE h.request.id = :requestId AND h.helper.id = :helperId " +
+            "ORDER BY h.startDate DESC, h.id DESC")
+    List<String> findLatestStatuses(@Param("requestId") Long requestId, @Param("helperId") Long helperId, Pageable pageable);
+
     @Query("SELECT h FROM HelpHistory h WHERE h.request.id = :requestId AND h.status = :status")
     List<HelpHistory> findByRequestIdAndStatus(@Param("requestId") Long requestId, @Param("status") String status);
+
+    @Query("SELECT DISTINCT h.helper.id FROM HelpHistory h WHERE h.request.id = :requestId AND h.status = 'IN_PROGRESS'")
+    List<Long> findActiveHelperIds(@Param("requestId") Long requestId);
+
+    // Незавершённая помощь по запросу одним агрегатом вместо выборки записей по каждому статусу
+    @Query("SELECT new com.example.platform.dto.HelpStatusCountsDto(" +
+            "COALESCE(SUM(CASE WHEN h.status = 'IN_PROGRESS' THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN h.status = 'PENDING_CONFIRMATION' THEN 1 ELSE 0 END), 0)) " +
+            "FROM HelpHistory h WHERE h.request.id = :requestId")
+    HelpStatusCountsDto countOpenHelps(@Param("requestId") Long requestId);
+
+    @Query("SELECT h.helper FROM HelpHistory h WHERE h.request.id = :requestId AND h.status = 'PENDING_CONFIRMATION'")
+    List<User> findPendingHelpers(@Param("requestId") Long requestId);
+
+    // Переходы PENDING_CONFIRMATION -> COMPLETED/CANCELLED для всех помощников запроса одним UPDATE
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE HelpHistory h SET h.status = 'COMPLETED', h.version = h.version + 1 " +
+            "WHERE h.request.id = :requestId AND h.status = 'PENDING_CONFIRMATION'")
+    int completePending(@Param("requestId") Long requestId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE HelpHistory h SET h.status = 'CANCELLED', h.endDate = :now, h.version = h.version + 1 " +
+            "WHERE h.request.id = :requestId AND h.status = 'PENDING_CONFIRMATION'")
+    int cancelPending(@Param("requestId") Long requestId, @Param("now") LocalDateTime now);
+
+    // Все показатели помощника одним проходом по индексу (helper_id, status)
+    @Query("SELECT new com.example.platform.dto.HelpStatisticsDto(" +
+            "SUM(CASE WHEN h.status = 'IN_PROGRESS' THEN 1 ELSE 0 END), " +
+            "SUM(CASE WHEN h.status = 'COMPLETED' THEN 1 ELSE 0 END), " +
+            "AVG(CASE WHEN h.status = 'COMPLETED' AND h.endDate IS NOT NULL AND h.startDate IS NOT NULL " +
+            "THEN (h.endDate - h.startDate) BY SECOND ELSE NULL END)) " +
+            "FROM HelpHistory h WHERE h.helper.id = :helperId")
+    HelpStatisticsDto findHelpStatistics(@Param("helperId") Long helperId);
 }
\ No newline at end of file
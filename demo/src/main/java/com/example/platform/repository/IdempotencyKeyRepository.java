@@ -0,0 +1,37 @@
+package com.example.platform.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.platform.model.IdempotencyKey;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, String> {
+    // Захват ключа: вставка падает на первичном ключе, если ключ уже занят (save() сделал бы merge)
+    @Modifying
+    @Query(value = "INSERT INTO idempotency_keys (idempotency_key, fingerprint, created_at) " +
+            "VALUES (:key, :fingerprint, :now)", nativeQuery = true)
+    int insert(@Param("key") String key, @Param("fingerprint") String fingerprint, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE IdempotencyKey k SET k.responseStatus = :status, k.responseContentType = :contentType, " +
+            "k.responseBody = :body WHERE k.key = :key AND k.responseStatus IS NULL")
+    int complete(@Param("key") String key, @Param("status") int status,
+                 @Param("contentType") String contentType, @Param("body") String body);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.key = :key AND k.responseStatus IS NULL")
+    int release(@Param("key") String key);
+
+    // Завершённые ключи живут ttl, незавершённые (узел упал посреди запроса) — до таймаута выполнения
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.createdAt < :completedBefore " +
+            "OR (k.responseStatus IS NULL AND k.createdAt < :pendingBefore)")
+    int deleteExpired(@Param("completedBefore") LocalDateTime completedBefore,
+                      @Param("pendingBefore") LocalDateTime pendingBefore);
+}
@@ -1,23 +1,96 @@
 package com.example.platform.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.data.jpa.repository.Modifying;
 
+import com.example.platform.dto.NotificationDto;
 import com.example.platform.model.Notification;
 
 @Repository
 public interface NotificationRepository extends JpaRepository<Notification, Long> {
     List<Notification> findByUserIdOrderByCreatedAtDesc(Long userId);
 
+    boolean existsByIdAndUserId(Long id, Long userId);
+
+    String DTO_SELECT = "SELECT new com.example.platform.dto.NotificationDto(n.id, n.message, n.type, n.status, n.read, " +
+            "n.actionUrl, n.createdAt, n.actionNeeded, r.id, r.description, r.status, f.id, f.name, f.avatarUrl) " +
+            "FROM Notification n LEFT JOIN n.request r LEFT JOIN n.fromUser f ";
+
+    // Порядок входящих совпадает с индексом idx_notifications_inbox: непрочитанные первыми, затем от новых к старым
+    String INBOX_ORDER = " ORDER BY n.read ASC, n.createdAt DESC, n.id DESC";
+
+    @Query(DTO_SELECT + "WHERE n.user.id = :userId ORDER BY n.createdAt DESC")
+    List<NotificationDto> findDtosByUserId(@Param("userId") Long userId);
+
+    // Догрузка пропущенных уведомлений при переподключении потока (Last-Event-ID)
+    @Query(DTO_SELECT + "WHERE n.user.id = :userId AND n.id > :afterId ORDER BY n.id ASC")
+    List<NotificationDto> findDtosByUserIdAfter(@Param("userId") Long userId, @Param("afterId") Long afterId, Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE n.id IN :ids ORDER BY n.id")
+    List<NotificationDto> findDtosByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query(DTO_SELECT + "WHERE n.user.id = :userId" + INBOX_ORDER)
+    List<NotificationDto> findInbox(@Param("userId") Long userId, Pageable pageable);
+
+    // Строки строго после курсора в порядке (is_read, created_at DESC, id DESC)
+    @Query(DTO_SELECT + "WHERE n.user.id = :userId AND (" +
+            "(n.read = true AND :read = false) OR " +
+            "(n.read = :read AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id))))" +
+            INBOX_ORDER)
+    List<NotificationDto> findInboxAfter(@Param("userId") Long userId, @Param("read") boolean read,
+                                         @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                         Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE n.user.id = :userId AND n.read = false" + INBOX_ORDER)
+    List<NotificationDto> findUnread(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE n.user.id = :userId AND n.read = false " +
+            "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id))" + INBOX_ORDER)
+    List<NotificationDto> findUnreadAfter(@Param("userId") Long userId,
+                                          @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id,
+                                          Pageable pageable);
+
+    @Query(DTO_SELECT + "WHERE r.id IN :requestIds AND n.type = :type ORDER BY n.id")
+    List<NotificationDto> findDtosByRequestIdInAndType(@Param("requestIds") Collection<Long> requestIds,
+                                                       @Param("type") String type);
+
     @Query("SELECT n FROM Notification n WHERE n.user.id = :userId AND n.actionNeeded = true")
     List<Notification> findActionNeededByUserId(@Param("userId") Long userId);
 
+    // Уведомления владельцам о просроченных запросах одним INSERT ... SELECT по уже отменённой пачке
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO notifications (user_id, request_id, message, type, status, is_read, created_at, action_needed) " +
+            "SELECT r.user_id, r.id, " +
+            "'Ваш запрос ''' || SUBSTRING(r.description FROM 1 FOR 150) || ''' был автоматически отменен из-за истечения срока', " +
+            "'REQUEST_EXPIRED', 'UNREAD', false, :now, false " +
+            "FROM requests r WHERE r.id IN (:requestIds) AND r.is_expired = true",
+            nativeQuery = true)
+    int insertExpiredNotifications(@Param("requestIds") Collection<Long> requestIds, @Param("now") LocalDateTime now);
+
     @Modifying
     @Query("DELETE FROM Notification n WHERE n.request.id = :requestId AND n.type = :type")
     void deleteByRequestIdAndType(@Param("requestId") Long requestId, @Param("type") String type);
-}
\ No newline at end of file
+
+    // Отметки о прочтении — одним UPDATE; число изменённых строк идёт в счётчик пользователя
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true, n.status = 'READ' WHERE n.user.id = :userId AND n.read = false")
+    int markAllRead(@Param("userId") Long userId);
+
+    // Всё, что клиент уже пролистал: непрочитанные не старше позиции курсора
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true, n.status = 'READ' WHERE n.user.id = :userId AND n.read = false " +
+            "AND (n.createdAt > :createdAt OR (n.createdAt = :createdAt AND n.id >= :id))")
+    int markReadUpTo(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Notification n SET n.read = true, n.status = 'READ' WHERE n.id = :id AND n.user.id = :userId AND n.read = false")
+    int markRead(@Param("id") Long id, @Param("userId") Long userId);
+}
@@ -1,23 +1,50 @@
 package com.example.platform.repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.platform.dto.RequestDeadlineDto;
+import com.example.platform.dto.RequestLocationDto;
+import com.example.platform.dto.RequestSummaryDto;
 import com.example.platform.model.Request;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
 @Repository
-public interface RequestRepository extends JpaRepository<Request, Long> {
+public interface RequestRepository extends JpaRepository<Request, Long>, RequestSummaryQueries {
+
+    // Проекция запроса с создателем: только колонки, которые сериализуются в RequestSummaryDto
+    String SUMMARY_SELECT = "SELECT new com.example.platform.dto.RequestSummaryDto(" +
+            "r.id, r.description, r.latitude, r.longitude, r.status, r.category, r.deadlineDate, r.creationDate, " +
+            "u.id, u.name, u.avatarUrl, u.rating, u.ratingCount) ";
+    String SUMMARY_DISTINCT_SELECT = "SELECT DISTINCT new com.example.platform.dto.RequestSummaryDto(" +
+            "r.id, r.description, r.latitude, r.longitude, r.status, r.category, r.deadlineDate, r.creationDate, " +
+            "u.id, u.name, u.avatarUrl, u.rating, u.ratingCount) ";
 
     // Переопределяем стандартный метод findById для фильтрации по isArchived
     @Query("SELECT r FROM Request r WHERE r.id = :id AND r.isArchived = false")
     Optional<Request> findById(@Param("id") Long id);
 
+    // Загрузка запроса для перехода помощи: версия запроса увеличивается при коммите, даже если менялись
+    // только записи help_history, поэтому любые два параллельных перехода по одному запросу конфликтуют
+    @Lock(LockModeType.OPTIMISTIC_FORCE_INCREMENT)
+    @Query("SELECT r FROM Request r WHERE r.id = :id AND r.isArchived = false")
+    Optional<Request> findForTransition(@Param("id") Long id);
+
     // Переопределяем стандартный метод findAll для фильтрации по isArchived
     @Query("SELECT r FROM Request r WHERE r.isArchived = false")
     List<Request> findAll();
@@ -28,6 +55,15 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     @Query("SELECT r FROM Request r WHERE r.status = :status AND r.isArchived = false")
     List<Request> findByStatus(String status);
 
+    // Лента открытых запросов вместе с создателем, без отдельного запроса на каждого пользователя
+    @Query(SUMMARY_SELECT + "FROM Request r LEFT JOIN r.user u " +
+            "WHERE r.status IN :statuses AND r.isArchived = false " +
+            "ORDER BY r.status, r.creationDate DESC")
+    List<RequestSummaryDto> findFeedByStatuses(@Param("statuses") Collection<String> statuses);
+
+    @Query(SUMMARY_SELECT + "FROM Request r LEFT JOIN r.user u WHERE r.id = :id AND r.isArchived = false")
+    Optional<RequestSummaryDto> findSummaryById(@Param("id") Long id);
+
     @Query("SELECT r FROM Request r WHERE r.category = :category AND r.isArchived = false")
     List<Request> findByCategory(@Param("category") String category);
 
@@ -37,8 +73,9 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
     @Query("SELECT r FROM Request r WHERE r.user.id = :userId AND r.status = :status AND r.isArchived = false")
     List<Request> findByUserIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
 
-    @Query("SELECT r FROM Request r WHERE r.user.id = :userId AND r.isArchived = false ORDER BY r.creationDate DESC")
-    List<Request> findAllUserRequests(@Param("userId") Long userId);
+    @Query(SUMMARY_SELECT + "FROM Request r LEFT JOIN r.user u " +
+            "WHERE u.id = :userId AND r.isArchived = false ORDER BY r.creationDate DESC")
+    List<RequestSummaryDto> findAllUserRequests(@Param("userId") Long userId);
 
     @Query("SELECT DISTINCT r FROM Request r " +
             "JOIN HelpHistory h ON r.id = h.request.id " +
@@ -46,35 +83,90 @@ public interface RequestRepository extends JpaRepository<Request, Long> {
             "ORDER BY h.startDate DESC")
     List<Request> findActiveHelpRequests(@Param("userId") Long userId);
 
-    @Query("SELECT DISTINCT r FROM Request r " +
+    @Query(SUMMARY_DISTINCT_SELECT + "FROM Request r LEFT JOIN r.user u " +
             "JOIN HelpHistory h ON r.id = h.request.id " +
             "WHERE h.helper.id = :userId AND h.status = :status AND r.isArchived = false")
-    List<Request> findByHelperIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
+    List<RequestSummaryDto> findByHelperIdAndStatus(@Param("userId") Long userId, @Param("status") String status);
 
-    @Query("SELECT DISTINCT r FROM Request r " +
+    @Query(SUMMARY_DISTINCT_SELECT + "FROM Request r LEFT JOIN r.user u " +
             "JOIN HelpHistory h ON r.id = h.request.id " +
             "WHERE h.helper.id = :userId AND r.isArchived = false")
-    List<Request> findAllHelpedRequests(@Param("userId") Long userId);
+    List<RequestSummaryDto> findAllHelpedRequests(@Param("userId") Long userId);
 
-    @Query("SELECT r FROM Request r WHERE r.user.id = :userId AND r.isArchived = true")
-    List<Request> findArchivedRequests(@Param("userId") Long userId);
+    @Query(SUMMARY_SELECT + "FROM Request r LEFT JOIN r.user u WHERE u.id = :userId AND r.isArchived = true")
+    List<RequestSummaryDto> findArchivedRequests(@Param("userId") Long userId);
 
-    @Query("SELECT r FROM Request r WHERE r.user.id = :userId AND r.status = 'COMPLETED' AND r.isArchived = false")
-    List<Request> findCompletedRequests(@Param("userId") Long userId);
+    @Query(SUMMARY_SELECT + "FROM Request r LEFT JOIN r.user u " +
+            "WHERE u.id = :userId AND r.status = 'COMPLETED' AND r.isArchived = false")
+    List<RequestSummaryDto> findCompletedRequests(@Param("userId") Long userId);
 
-    @Query("SELECT DISTINCT r FROM Request r " +
+    @Query(SUMMARY_DISTINCT_SELECT + "FROM Request r LEFT JOIN r.user u " +
             "JOIN HelpHistory h ON r.id = h.request.id " +
             "WHERE h.helper.id = :userId AND h.status = 'COMPLETED' AND r.isArchived = false")
-    List<Request> findCompletedHelpRequests(@Param("userId") Long userId);
-
-    @Query(value = "SELECT * FROM requests r " +
-            "WHERE ST_Distance(" +
-            "    ST_SetSRID(ST_MakePoint(r.longitude, r.latitude), 4326)::geography, " +
-            "    ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography" +
-            ") <= :distance AND r.is_archived = false",
+    List<RequestSummaryDto> findCompletedHelpRequests(@Param("userId") Long userId);
+
+    // Использует GiST-индекс по requests.location (см. V3__Request_location_index.sql), радиус в метрах
+    @Query(value = "SELECT r.id FROM requests r " +
+            "WHERE r.is_archived = false " +
+            "AND ST_DWithin(r.location, ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography, :distance) " +
+            "AND (CAST(:category AS VARCHAR) IS NULL OR r.category = :category) " +
+            "AND (:anyStatus = true OR r.status IN (:statuses)) " +
+            "ORDER BY r.location <-> ST_SetSRID(ST_MakePoint(:lon, :lat), 4326)::geography " +
+            "LIMIT :limit",
             nativeQuery = true)
-    List<Request> findNearbyRequests(@Param("lat") double lat,
-                                     @Param("lon") double lon,
-                                     @Param("distance") double distance);
-
-}
\ No newline at end of file
+    List<Long> findNearbyRequestIds(@Param("lat") double lat,
+                                    @Param("lon") double lon,
+                                    @Param("distance") double distance,
+                                    @Param("category") String category,
+                                    @Param("anyStatus") boolean anyStatus,
+                                    @Param("statuses") Collection<String> statuses,
+                                    @Param("limit") int limit);
+
+    @Query("SELECT new com.example.platform.dto.RequestLocationDto(r.id, r.latitude, r.longitude, r.category, r.status) " +
+            "FROM Request r WHERE r.isArchived = false")
+    List<RequestLocationDto> findAllLocations();
+
+    // Открытые запросы с данными создателя и его рейтингом одним запросом (для индекса в памяти)
+    @Query(SUMMARY_SELECT + "FROM Request r LEFT JOIN r.user u " +
+            "WHERE r.status IN ('ACTIVE', 'IN_PROGRESS') AND r.isArchived = false")
+    List<RequestSummaryDto> findOpenRequestSummaries();
+
+    @Query(SUMMARY_SELECT + "FROM Request r LEFT JOIN r.user u WHERE r.id IN :ids")
+    List<RequestSummaryDto> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+
+
+    // Просроченные открытые запросы — по индексу idx_requests_expiry (status, deadline_date)
+    @Query("SELECT r.id FROM Request r WHERE r.status = 'ACTIVE' AND r.isArchived = false " +
+            "AND r.deadlineDate < :now ORDER BY r.deadlineDate, r.id")
+    List<Long> findExpiredActiveRequestIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Повторная проверка статуса отсекает запросы, на которые откликнулись после выборки
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Request r SET r.status = 'CANCELLED', r.isExpired = true, r.isArchived = true, r.version = r.version + 1 " +
+            "WHERE r.id IN :ids AND r.status = 'ACTIVE' AND r.isArchived = false")
+    int expireRequests(@Param("ids") Collection<Long> ids);
+
+    // Помощники с подтверждённой помощью добавляются в user_helped_requests одним INSERT без загрузки коллекции helpers
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO user_helped_requests (request_id, user_id) " +
+            "SELECT :requestId, u.id FROM users u WHERE u.id IN (:helperIds) " +
+            "AND NOT EXISTS (SELECT 1 FROM user_helped_requests x WHERE x.request_id = :requestId AND x.user_id = u.id)",
+            nativeQuery = true)
+    int addHelpers(@Param("requestId") Long requestId, @Param("helperIds") Collection<Long> helperIds);
+
+    // Сроки для колеса напоминаний читаются потоком, без материализации всего списка — по индексу idx_requests_reminder
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT new com.example.platform.dto.RequestDeadlineDto(r.id, r.deadlineDate) FROM Request r " +
+            "WHERE r.status IN ('ACTIVE', 'IN_PROGRESS') AND r.isArchived = false AND r.reminderSent = false " +
+            "AND r.deadlineDate > :from AND r.deadlineDate <= :until")
+    Stream<RequestDeadlineDto> streamPendingReminders(@Param("from") LocalDateTime from,
+                                                      @Param("until") LocalDateTime until);
+
+    // Захват напоминания: отправляет тот узел, чей UPDATE изменил строку, поэтому повторов нет ни при рестарте, ни на нескольких узлах
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Request r SET r.reminderSent = true WHERE r.id = :id AND r.reminderSent = false " +
+            "AND r.status IN ('ACTIVE', 'IN_PROGRESS') AND r.isArchived = false " +
+            "AND r.deadlineDate > :now AND r.deadlineDate <= :remindUntil")
+    int claimDeadlineReminder(@Param("id") Long id, @Param("now") LocalDateTime now,
+                              @Param("remindUntil") LocalDateTime remindUntil);
+}
@@ -0,0 +1,87 @@
+package com.example.platform.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.platform.dto.RequestCursor;
+import com.example.platform.dto.RequestFilter;
+import com.example.platform.model.HelpHistory;
+import com.example.platform.model.Request;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+
+// Условия для динамической фильтрации запросов, собираемые в один SQL-запрос (см. RequestSummaryQueries)
+public final class RequestSpecifications {
+    private static final double METERS_PER_DEGREE_LAT = 111_320.0;
+
+    private RequestSpecifications() {
+    }
+
+    public static Specification<Request> matching(RequestFilter filter, RequestCursor cursor) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isFalse(root.get("isArchived")));
+
+            if (filter.category() != null && !filter.category().equals("all")) {
+                predicates.add(cb.equal(root.get("category"), filter.category()));
+            }
+            if (filter.statuses() != null && !filter.statuses().isEmpty()) {
+                predicates.add(root.get("status").in(filter.statuses()));
+            }
+            if (filter.ownerId() != null) {
+                predicates.add(cb.equal(root.get("user").get("id"), filter.ownerId()));
+            }
+            if (filter.helperId() != null) {
+                // Пользователь сейчас помогает по запросу (есть запись IN_PROGRESS в help_history)
+                Subquery<Long> activeHelp = query.subquery(Long.class);
+                var history = activeHelp.from(HelpHistory.class);
+                activeHelp.select(history.get("id")).where(
+                        cb.equal(history.get("request"), root),
+                        cb.equal(history.get("helper").get("id"), filter.helperId()),
+                        cb.equal(history.get("status"), "IN_PROGRESS")
+                );
+                predicates.add(cb.exists(activeHelp));
+            }
+            if (filter.hasRadius()) {
+                predicates.add(withinRadius(root, cb, filter.latitude(), filter.longitude(), filter.maxDistance()));
+            }
+            if (cursor != null) {
+                // Следующая страница: строки строго после курсора в порядке (creation_date DESC, id DESC)
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("creationDate"), cursor.creationDate()),
+                        cb.and(
+                                cb.equal(root.get("creationDate"), cursor.creationDate()),
+                                cb.lessThan(root.get("id"), cursor.id())
+                        )
+                ));
+            }
+
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    // Ограничивающий прямоугольник (отсекает по индексу) и расстояние в равнопромежуточной проекции:
+    // для радиусов поиска рядом (до десятков км) расхождение с гаверсинусом из GeoGridIndex меньше 0,1%
+    private static Predicate withinRadius(Root<Request> root, CriteriaBuilder cb,
+                                          double latitude, double longitude, double radiusMeters) {
+        double latDelta = radiusMeters / METERS_PER_DEGREE_LAT;
+        double cosLat = Math.max(Math.cos(Math.toRadians(latitude)), 1e-6);
+        double lonDelta = latDelta / cosLat;
+
+        Expression<Double> lat = root.get("latitude");
+        Expression<Double> lon = root.get("longitude");
+        Expression<Double> dy = cb.diff(lat, latitude);
+        Expression<Double> dx = cb.prod(cb.diff(lon, longitude), cosLat);
+        return cb.and(
+                cb.between(lat, latitude - latDelta, latitude + latDelta),
+                cb.between(lon, longitude - lonDelta, longitude + lonDelta),
+                cb.le(cb.sum(cb.prod(dy, dy), cb.prod(dx, dx)), latDelta * latDelta)
+        );
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.platform.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.platform.dto.RequestSummaryDto;
+import com.example.platform.model.Request;
+
+// Выборка RequestSummaryDto по динамическим условиям (Specification) без загрузки сущностей
+public interface RequestSummaryQueries {
+    // Порядок: creation_date DESC, id DESC — совпадает с keyset-курсором
+    List<RequestSummaryDto> findSummaries(Specification<Request> specification, int limit);
+
+    long countMatching(Specification<Request> specification);
+}
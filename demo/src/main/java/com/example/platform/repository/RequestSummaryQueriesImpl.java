@@ -0,0 +1,51 @@
+package com.example.platform.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import com.example.platform.dto.RequestSummaryDto;
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Root;
+
+class RequestSummaryQueriesImpl implements RequestSummaryQueries {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<RequestSummaryDto> findSummaries(Specification<Request> specification, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<RequestSummaryDto> query = cb.createQuery(RequestSummaryDto.class);
+        Root<Request> root = query.from(Request.class);
+        Join<Request, User> user = root.join("user", JoinType.LEFT);
+
+        query.select(cb.construct(RequestSummaryDto.class,
+                root.get("id"), root.get("description"), root.get("latitude"), root.get("longitude"),
+                root.get("status"), root.get("category"), root.get("deadlineDate"), root.get("creationDate"),
+                user.get("id"), user.get("name"), user.get("avatarUrl"), user.get("rating"), user.get("ratingCount")));
+        query.where(specification.toPredicate(root, query, cb));
+        query.orderBy(cb.desc(root.get("creationDate")), cb.desc(root.get("id")));
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public long countMatching(Specification<Request> specification) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Request> root = query.from(Request.class);
+        query.select(cb.count(root));
+        query.where(specification.toPredicate(root, query, cb));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
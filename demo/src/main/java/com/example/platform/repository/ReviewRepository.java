@@ -1,7 +1,10 @@
 package com.example.platform.repository;
 
+import com.example.platform.dto.ReviewDto;
 import com.example.platform.model.Review;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,4 +14,20 @@ public interface ReviewRepository extends JpaRepository<Review, Long> {
     List<Review> findByHelperId(Long helperId);
     List<Review> findByRequestId(Long requestId);
     List<Review> findByAuthorId(Long authorId);
-}
\ No newline at end of file
+
+    String DTO_SELECT = "SELECT new com.example.platform.dto.ReviewDto(rv.id, rv.rating, rv.text, rv.createdAt, " +
+            "h.id, h.name, h.avatarUrl, a.id, a.name, a.avatarUrl, r.id, r.description, r.status) " +
+            "FROM Review rv JOIN rv.helper h JOIN rv.author a JOIN rv.request r ";
+
+    @Query(DTO_SELECT + "WHERE h.id = :helperId ORDER BY rv.createdAt DESC")
+    List<ReviewDto> findDtosByHelperId(@Param("helperId") Long helperId);
+
+    @Query(DTO_SELECT + "WHERE r.id = :requestId ORDER BY rv.createdAt DESC")
+    List<ReviewDto> findDtosByRequestId(@Param("requestId") Long requestId);
+
+    @Query(DTO_SELECT + "WHERE a.id = :authorId ORDER BY rv.createdAt DESC")
+    List<ReviewDto> findDtosByAuthorId(@Param("authorId") Long authorId);
+
+    @Query("SELECT COUNT(rv) > 0 FROM Review rv WHERE rv.request.id = :requestId AND rv.author.id = :authorId")
+    boolean existsByRequestIdAndAuthorId(@Param("requestId") Long requestId, @Param("authorId") Long authorId);
+}
@@ -1,10 +1,131 @@
 package com.example.platform.repository;
 
+import com.example.platform.dto.RatingAggregateDto;
+import com.example.platform.dto.UserDto;
+import com.example.platform.dto.UserRequestCountsDto;
 import com.example.platform.model.User;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
-}
\ No newline at end of file
+
+    String DTO_SELECT = "SELECT new com.example.platform.dto.UserDto(u.id, u.name, u.email, u.avatarUrl, u.birthDate, " +
+            "u.rating, u.ratingCount, u.helpedCount) FROM User u ";
+
+    @Query(DTO_SELECT + "WHERE u.email = :email")
+    Optional<UserDto> findDtoByEmail(@Param("email") String email);
+
+    @Query(DTO_SELECT + "WHERE u.id = :id")
+    Optional<UserDto> findDtoById(@Param("id") Long id);
+
+    // Аватары, загруженные до хранилища по содержимому: /uploads/<uuid>.<ext> без подкаталога
+    @Query("SELECT u.id FROM User u WHERE u.id > :afterId AND u.avatarUrl LIKE '/uploads/%' " +
+            "AND u.avatarUrl NOT LIKE '/uploads/%/%' ORDER BY u.id")
+    List<Long> findIdsWithLegacyAvatar(@Param("afterId") Long afterId, Pageable pageable);
+
+    boolean existsByAvatarUrl(String avatarUrl);
+
+    // Пароли, сохранённые открытым текстом до перехода на BCrypt (см. LegacyPasswordHashingService)
+    @Query("SELECT u FROM User u WHERE u.id > :afterId " +
+            "AND NOT (u.password LIKE '$2%' AND LENGTH(u.password) = 60) ORDER BY u.id")
+    List<User> findWithPlaintextPassword(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Замена хэша пароля при входе: только если пароль не сменили после его проверки
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :newPassword WHERE u.id = :id AND u.password = :oldPassword")
+    int updatePassword(@Param("id") Long id, @Param("oldPassword") String oldPassword,
+                       @Param("newPassword") String newPassword);
+
+    // Атомарно добавляет оценку в агрегат и пересчитывает округлённый рейтинг по старым значениям колонок
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.ratingSum = u.ratingSum + :rating, u.ratingCount = u.ratingCount + 1, " +
+            "u.rating = CAST(ROUND((u.ratingSum + :rating) * 1.0 / (u.ratingCount + 1), 0) AS Integer) " +
+            "WHERE u.id = :userId")
+    int addRating(@Param("userId") Long userId, @Param("rating") int rating);
+
+    @Query("SELECT new com.example.platform.dto.RatingAggregateDto(u.id, u.ratingSum, u.ratingCount) " +
+            "FROM User u WHERE u.id = :userId")
+    RatingAggregateDto findRatingAggregate(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.helpedCount = u.helpedCount + 1 WHERE u.id IN :userIds")
+    int incrementHelpedCounts(@Param("userIds") Collection<Long> userIds);
+
+    @Query("SELECT u.unreadNotificationCount FROM User u WHERE u.id = :userId")
+    Optional<Integer> findUnreadNotificationCount(@Param("userId") Long userId);
+
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.unreadNotificationCount = " +
+            "CASE WHEN u.unreadNotificationCount > :count THEN u.unreadNotificationCount - :count ELSE 0 END " +
+            "WHERE u.id = :userId")
+    int decrementUnreadNotifications(@Param("userId") Long userId, @Param("count") int count);
+
+    // Счётчики владельцев запросов, истёкших в этой пачке (по одному уведомлению на запрос)
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.unreadNotificationCount = u.unreadNotificationCount + " +
+            "(SELECT COUNT(r) FROM Request r WHERE r.user = u AND r.id IN :requestIds AND r.isExpired = true) " +
+            "WHERE u.id IN (SELECT r.user.id FROM Request r WHERE r.id IN :requestIds AND r.isExpired = true)")
+    int incrementUnreadForExpiredRequests(@Param("requestIds") Collection<Long> requestIds);
+
+    // Вызывается перед удалением уведомления: если оно не прочитано, уменьшает счётчик владельца
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.unreadNotificationCount = u.unreadNotificationCount - 1 " +
+            "WHERE u.unreadNotificationCount > 0 AND u.id IN " +
+            "(SELECT n.user.id FROM Notification n WHERE n.id = :notificationId AND n.read = false)")
+    int decrementUnreadForNotification(@Param("notificationId") Long notificationId);
+
+    // То же для массового удаления уведомлений по запросу и типу
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE User u SET u.unreadNotificationCount = u.unreadNotificationCount - " +
+            "(SELECT COUNT(n) FROM Notification n WHERE n.user = u AND n.request.id = :requestId " +
+            "AND n.type = :type AND n.read = false) " +
+            "WHERE u.id IN (SELECT n.user.id FROM Notification n WHERE n.request.id = :requestId " +
+            "AND n.type = :type AND n.read = false)")
+    int decrementUnreadForRequestAndType(@Param("requestId") Long requestId, @Param("type") String type);
+
+    // Сверка счётчика с таблицей уведомлений (удаления каскадом в БД его не обновляют)
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.unreadNotificationCount = " +
+            "(SELECT COUNT(n) FROM Notification n WHERE n.user = u AND n.read = false) " +
+            "WHERE u.unreadNotificationCount <> (SELECT COUNT(n) FROM Notification n WHERE n.user = u AND n.read = false)")
+    int recomputeUnreadNotificationCounts();
+
+    // SIZE() превращается в COUNT-подзапросы по индексам, коллекции не загружаются
+    @Query("SELECT new com.example.platform.dto.UserRequestCountsDto(u.rating, SIZE(u.createdRequests), SIZE(u.helpedRequests)) " +
+            "FROM User u WHERE u.id = :userId")
+    Optional<UserRequestCountsDto> findRequestCounts(@Param("userId") Long userId);
+
+    @Query("SELECT u FROM User u WHERE u.ratingCount > 0")
+    List<User> findRatedUsers();
+
+    // Пользователи, у которых агрегат расходится с таблицами reviews и help_history
+    @Query("SELECT u.id FROM User u WHERE " +
+            "u.ratingSum <> (SELECT COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.helper = u) " +
+            "OR u.ratingCount <> (SELECT COUNT(r) FROM Review r WHERE r.helper = u) " +
+            "OR u.helpedCount <> (SELECT COUNT(h) FROM HelpHistory h WHERE h.helper = u AND h.status = 'COMPLETED')")
+    List<Long> findUsersWithAggregateDrift();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET " +
+            "u.ratingSum = (SELECT COALESCE(SUM(r.rating), 0) FROM Review r WHERE r.helper = u), " +
+            "u.ratingCount = (SELECT COUNT(r) FROM Review r WHERE r.helper = u), " +
+            "u.helpedCount = (SELECT COUNT(h) FROM HelpHistory h WHERE h.helper = u AND h.status = 'COMPLETED') " +
+            "WHERE u.id IN :userIds")
+    int recomputeAggregates(@Param("userIds") Collection<Long> userIds);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.rating = CASE WHEN u.ratingCount > 0 " +
+            "THEN CAST(ROUND(u.ratingSum * 1.0 / u.ratingCount, 0) AS Integer) ELSE 0 END " +
+            "WHERE u.id IN :userIds")
+    int recomputeRoundedRatings(@Param("userIds") Collection<Long> userIds);
+}
@@ -0,0 +1,317 @@
+package com.example.platform.seed;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.platform.service.PasswordHashingService;
+
+// Засев базы синтетическими данными в масштабе продакшена (профиль seed):
+//   mvn spring-boot:run -Dspring-boot.run.profiles=seed
+// Пишет пачками JDBC в таблицы сущностей, минуя JPA; агрегаты пользователей пересчитываются в конце
+// теми же запросами, что и в V4/V5. Запускается до ApplicationReadyEvent, поэтому индексы в памяти
+// строятся уже по засеянным данным, и приложение сразу готово принимать нагрузку (см. LoadDriver)
+@Component
+@Profile("seed")
+public class DataSeeder implements ApplicationRunner {
+    private static final Logger log = LoggerFactory.getLogger(DataSeeder.class);
+
+    private static final String[] CATEGORIES = {"SHOPPING", "TRANSPORT", "REPAIR", "MEDICINE", "PETS", "OTHER"};
+    private static final String[] NOTIFICATION_TYPES = {"NEW_RESPONSE", "HELP_COMPLETION", "REQUEST_EXPIRED", "DEADLINE_REMINDER"};
+    // Города-центры: запросы распределены вокруг них нормально, с разбросом CITY_SPREAD градусов
+    private static final double[][] CITIES = {
+            {55.751, 37.618}, {59.939, 30.316}, {55.030, 82.920}, {56.838, 60.597},
+            {55.796, 49.106}, {56.327, 44.006}, {54.989, 73.368}, {53.195, 50.100}
+    };
+    private static final double[] CITY_WEIGHTS = {0.35, 0.2, 0.08, 0.08, 0.08, 0.08, 0.07, 0.06};
+    private static final double CITY_SPREAD = 0.12;
+
+    private static final byte ACTIVE = 0;
+    private static final byte IN_PROGRESS = 1;
+    private static final byte COMPLETED = 2;
+    private static final byte CANCELLED = 3;
+    private static final String[] STATUSES = {"ACTIVE", "IN_PROGRESS", "COMPLETED", "CANCELLED"};
+    // Пароль всех засеянных пользователей (LoadDriver входит с ним): хэш BCrypt считается один раз на весь засев
+    static final String PASSWORD = "password";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Value("${seed.users:100000}")
+    private int userCount;
+
+    @Value("${seed.requests:1000000}")
+    private int requestCount;
+
+    @Value("${seed.notifications-per-user:10}")
+    private int notificationsPerUser;
+
+    @Value("${seed.review-share:0.7}")
+    private double reviewShare;
+
+    @Value("${seed.batch-size:5000}")
+    private int batchSize;
+
+    @Value("${seed.random-seed:42}")
+    private long randomSeed;
+
+    private TransactionTemplate transactionTemplate;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Long existing = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Long.class);
+        if (existing != null && existing > 0) {
+            log.warn("Seeding skipped: users table already has {} rows", existing);
+            return;
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Random random = new Random(randomSeed);
+        LocalDateTime now = LocalDateTime.now();
+        long started = System.currentTimeMillis();
+
+        long[] userIds = seedUsers();
+        Requests requests = seedRequests(random, now, userIds);
+        int helps = seedHelpHistory(random, now, userIds, requests);
+        int reviews = seedReviews(random, now, userIds, requests);
+        int notifications = seedNotifications(random, now, userIds, requests);
+        recomputeAggregates();
+
+        log.info("Seeded {} users, {} requests, {} help records, {} reviews, {} notifications in {} s",
+                userIds.length, requests.ids.length, helps, reviews, notifications,
+                (System.currentTimeMillis() - started) / 1000);
+    }
+
+    // Состояние сгенерированных запросов, нужное для зависимых таблиц
+    private static final class Requests {
+        long[] ids;
+        int[] owner;
+        byte[] status;
+        int[] createdMinutesAgo;
+        // Индекс помощника, чья помощь подтверждена (-1 — нет)
+        int[] completedHelper;
+    }
+
+    private long[] seedUsers() {
+        Batch batch = new Batch("INSERT INTO users (name, email, password, rating, rating_sum, rating_count, " +
+                "helped_count, unread_notification_count) VALUES (?, ?, ?, 0, 0, 0, 0, 0)");
+        String passwordHash = passwordHashingService.hash(PASSWORD).join();
+        for (int i = 0; i < userCount; i++) {
+            batch.add("Пользователь " + i, "user" + i + "@seed.local", passwordHash);
+        }
+        batch.flush();
+        return ids("users");
+    }
+
+    private Requests seedRequests(Random random, LocalDateTime now, long[] userIds) {
+        Requests requests = new Requests();
+        requests.owner = new int[requestCount];
+        requests.status = new byte[requestCount];
+        requests.createdMinutesAgo = new int[requestCount];
+        requests.completedHelper = new int[requestCount];
+
+        Batch batch = new Batch("INSERT INTO requests (description, latitude, longitude, status, category, deadline_date, " +
+                "user_id, creation_date, version, is_archived, is_expired, reminder_sent) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, 0, ?, ?, false)");
+        for (int i = 0; i < requestCount; i++) {
+            // Открытые запросы — в основном свежие, завершённые и отменённые — за последний год
+            int roll = random.nextInt(100);
+            byte status = roll < 30 ? ACTIVE : roll < 40 ? IN_PROGRESS : roll < 85 ? COMPLETED : CANCELLED;
+            int minutesAgo = status == ACTIVE || status == IN_PROGRESS
+                    ? random.nextInt(60 * 24 * 7)
+                    : random.nextInt(60 * 24 * 365);
+            LocalDateTime created = now.minusMinutes(minutesAgo);
+            LocalDateTime deadline = status == ACTIVE || status == IN_PROGRESS
+                    ? now.plusMinutes(60 + random.nextInt(60 * 24 * 14))
+                    : created.plusMinutes(60 + random.nextInt(60 * 24 * 14));
+            boolean expired = status == CANCELLED && random.nextBoolean();
+            boolean archived = expired || status == COMPLETED && random.nextInt(100) < 20;
+
+            double[] city = CITIES[pickCity(random)];
+            int owner = random.nextInt(userIds.length);
+            requests.owner[i] = owner;
+            requests.status[i] = status;
+            requests.createdMinutesAgo[i] = minutesAgo;
+            requests.completedHelper[i] = -1;
+
+            batch.add("Запрос " + i,
+                    city[0] + random.nextGaussian() * CITY_SPREAD,
+                    city[1] + random.nextGaussian() * CITY_SPREAD * 1.8,
+                    STATUSES[status], CATEGORIES[random.nextInt(CATEGORIES.length)],
+                    Timestamp.valueOf(deadline), userIds[owner], Timestamp.valueOf(created), archived, expired);
+        }
+        batch.flush();
+        requests.ids = ids("requests");
+        return requests;
+    }
+
+    // IN_PROGRESS: 1–3 открытые помощи (одна может ждать подтверждения); COMPLETED: подтверждённая помощь
+    // и иногда отменённая; ACTIVE и CANCELLED: изредка отменённая помощь. Помощники по запросу различны,
+    // поэтому uq_help_history_open не нарушается
+    private int seedHelpHistory(Random random, LocalDateTime now, long[] userIds, Requests requests) {
+        Batch helps = new Batch("INSERT INTO help_history (request_id, helper_id, status, start_date, end_date, version) " +
+                "VALUES (?, ?, ?, ?, ?, 0)");
+        Batch helped = new Batch("INSERT INTO user_helped_requests (request_id, user_id) VALUES (?, ?)");
+        int[] helpers = new int[4];
+        for (int i = 0; i < requests.ids.length; i++) {
+            byte status = requests.status[i];
+            int count = switch (status) {
+                case IN_PROGRESS -> 1 + random.nextInt(3);
+                case COMPLETED -> random.nextInt(100) < 15 ? 2 : 1;
+                default -> random.nextInt(100) < 20 ? 1 : 0;
+            };
+            pickHelpers(random, userIds.length, requests.owner[i], helpers, count);
+            LocalDateTime start = now.minusMinutes(requests.createdMinutesAgo[i]).plusMinutes(random.nextInt(120));
+
+            for (int h = 0; h < count; h++) {
+                String helpStatus;
+                LocalDateTime end = null;
+                if (status == IN_PROGRESS) {
+                    helpStatus = h == 0 && random.nextInt(100) < 25 ? "PENDING_CONFIRMATION" : "IN_PROGRESS";
+                    end = "PENDING_CONFIRMATION".equals(helpStatus) ? start.plusMinutes(30) : null;
+                } else if (status == COMPLETED && h == 0) {
+                    helpStatus = "COMPLETED";
+                    end = start.plusMinutes(30 + random.nextInt(600));
+                    requests.completedHelper[i] = helpers[h];
+                    helped.add(requests.ids[i], userIds[helpers[h]]);
+                } else {
+                    helpStatus = "CANCELLED";
+                    end = start.plusMinutes(random.nextInt(600));
+                }
+                helps.add(requests.ids[i], userIds[helpers[h]], helpStatus, Timestamp.valueOf(start),
+                        end != null ? Timestamp.valueOf(end) : null);
+            }
+        }
+        helps.flush();
+        helped.flush();
+        return helps.total;
+    }
+
+    // Отзывы создателей на подтверждённую помощь; оценки смещены к высоким, как в живых сервисах
+    private int seedReviews(Random random, LocalDateTime now, long[] userIds, Requests requests) {
+        Batch reviews = new Batch("INSERT INTO reviews (helper_id, author_id, request_id, rating, text, created_at) " +
+                "VALUES (?, ?, ?, ?, ?, ?)");
+        for (int i = 0; i < requests.ids.length; i++) {
+            if (requests.completedHelper[i] < 0 || random.nextDouble() >= reviewShare) {
+                continue;
+            }
+            int roll = random.nextInt(100);
+            int rating = roll < 50 ? 5 : roll < 80 ? 4 : roll < 92 ? 3 : roll < 97 ? 2 : 1;
+            reviews.add(userIds[requests.completedHelper[i]], userIds[requests.owner[i]], requests.ids[i], rating,
+                    "Отзыв " + i, Timestamp.valueOf(now.minusMinutes(requests.createdMinutesAgo[i]).plusDays(1)));
+        }
+        reviews.flush();
+        return reviews.total;
+    }
+
+    // Уведомления: 70% прочитаны; у части пользователей входящие длиннее среднего в 10 раз
+    private int seedNotifications(Random random, LocalDateTime now, long[] userIds, Requests requests) {
+        Batch notifications = new Batch("INSERT INTO notifications (user_id, request_id, message, type, status, is_read, " +
+                "action_url, created_at, action_needed) VALUES (?, ?, ?, ?, 'UNREAD', ?, ?, ?, ?)");
+        for (int u = 0; u < userIds.length; u++) {
+            int count = u % 100 == 0 ? notificationsPerUser * 10 : random.nextInt(notificationsPerUser * 2 + 1);
+            for (int n = 0; n < count; n++) {
+                int request = random.nextInt(requests.ids.length);
+                String type = NOTIFICATION_TYPES[random.nextInt(NOTIFICATION_TYPES.length)];
+                notifications.add(userIds[u], requests.ids[request], "Уведомление " + n, type,
+                        random.nextInt(100) < 70, "/requests/" + requests.ids[request],
+                        Timestamp.valueOf(now.minusMinutes(random.nextInt(60 * 24 * 90))),
+                        "HELP_COMPLETION".equals(type));
+            }
+        }
+        notifications.flush();
+        return notifications.total;
+    }
+
+    private void recomputeAggregates() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("UPDATE users u SET " +
+                    "rating_sum = COALESCE((SELECT SUM(r.rating) FROM reviews r WHERE r.helper_id = u.id), 0), " +
+                    "rating_count = (SELECT COUNT(*) FROM reviews r WHERE r.helper_id = u.id), " +
+                    "helped_count = (SELECT COUNT(*) FROM help_history h WHERE h.helper_id = u.id AND h.status = 'COMPLETED'), " +
+                    "unread_notification_count = (SELECT COUNT(*) FROM notifications n WHERE n.user_id = u.id AND n.is_read = false)");
+            jdbcTemplate.update("UPDATE users SET rating = CASE WHEN rating_count > 0 " +
+                    "THEN ROUND(rating_sum * 1.0 / rating_count) ELSE 0 END");
+        });
+    }
+
+    private static int pickCity(Random random) {
+        double roll = random.nextDouble();
+        for (int i = 0; i < CITY_WEIGHTS.length; i++) {
+            roll -= CITY_WEIGHTS[i];
+            if (roll < 0) {
+                return i;
+            }
+        }
+        return CITY_WEIGHTS.length - 1;
+    }
+
+    // count различных пользователей, отличных от создателя
+    private static void pickHelpers(Random random, int users, int owner, int[] helpers, int count) {
+        for (int h = 0; h < count; h++) {
+            int candidate;
+            boolean taken;
+            do {
+                candidate = random.nextInt(users);
+                taken = candidate == owner;
+                for (int k = 0; k < h && !taken; k++) {
+                    taken = helpers[k] == candidate;
+                }
+            } while (taken);
+            helpers[h] = candidate;
+        }
+    }
+
+    // Идентификаторы IDENTITY выдаются в порядке вставки, поэтому i-я строка пачек — i-й id
+    private long[] ids(String table) {
+        return jdbcTemplate.queryForList("SELECT id FROM " + table + " ORDER BY id", Long.class).stream()
+                .mapToLong(Long::longValue)
+                .toArray();
+    }
+
+    // Накопитель строк: каждые batchSize строк уходят одним executeBatch в своей транзакции
+    private final class Batch {
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>();
+        private int total;
+
+        Batch(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+            total += rows.size();
+            rows.clear();
+        }
+    }
+}
@@ -2,44 +2,118 @@ package com.example.platform.service;
 
 import com.example.platform.model.User;
 import com.example.platform.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.annotation.Timed;
 
 @Service
+@Timed("service.calls")
 public class AuthService {
+    private static final Logger log = LoggerFactory.getLogger(AuthService.class);
+
     @Autowired
     private UserRepository userRepository;
 
-    // Регистрация пользователя
-    public Map<String, String> registerUser(User user) {
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    // Регистрация пользователя: пароль хэшируется в пуле PasswordHashingService, не в потоке запроса
+    public CompletableFuture<Map<String, String>> registerUser(User user) {
         Map<String, String> response = new HashMap<>();
         if (userRepository.findByEmail(user.getEmail()).isPresent()) {
             response.put("message", "Пользователь с таким email уже существует");
-            return response;
+            return CompletableFuture.completedFuture(response);
         }
-        userRepository.save(user);
-        response.put("message", "Пользователь успешно зарегистрирован");
-        return response;
+        return passwordHashingService.hash(user.getPassword()).thenApply(hash -> {
+            user.setPassword(hash);
+            userRepository.save(user);
+            response.put("message", "Пользователь успешно зарегистрирован");
+            return response;
+        });
     }
 
     // Вход пользователя
     @Autowired
     private JwtService jwtService;
 
-    public Map<String, String> loginUser(String email, String password) {
-        Map<String, String> response = new HashMap<>();
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    public CompletableFuture<Map<String, String>> loginUser(String email, String password) {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
-        if (user.getPassword().equals(password)) {
-            String token = jwtService.generateToken(email); // Генерация JWT
+        String storedPassword = user.getPassword();
+        return passwordHashingService.matches(password, storedPassword).thenApply(matches -> {
+            Map<String, String> response = new HashMap<>();
+            if (!matches) {
+                response.put("message", "Неверный пароль");
+                return response;
+            }
+            if (passwordHashingService.needsRehash(storedPassword)) {
+                rehash(user.getId(), storedPassword, password);
+            }
+            String token = jwtService.generateToken(user.getId(), email); // Генерация JWT
             response.put("message", "Вход выполнен успешно");
             response.put("token", token); // Возвращаем реальный токен
-        } else {
-            response.put("message", "Неверный пароль");
+            response.put("refreshToken", jwtService.generateRefreshToken(user.getId(), email));
+            return response;
+        });
+    }
+
+    // Открытый текст или хэш со старой стоимостью заменяется после успешного входа, ответ его не ждёт.
+    // Не удалось (очередь полна, пароль успели сменить) — повторится при следующем входе
+    private void rehash(Long userId, String storedPassword, String password) {
+        passwordHashingService.hash(password)
+                .thenAccept(hash -> userRepository.updatePassword(userId, storedPassword, hash))
+                .exceptionally(e -> {
+                    log.debug("Password rehash for user {} skipped: {}", userId, e.getMessage());
+                    return null;
+                });
+    }
+
+    // Новый токен доступа по refresh-токену: без обращения к таблице users, отзыв проверяется по фильтру в памяти
+    public Map<String, String> refreshToken(String refreshToken) {
+        Claims claims = parseValid(refreshToken);
+        if (claims == null || !JwtService.REFRESH.equals(claims.get(JwtService.TOKEN_TYPE_CLAIM, String.class))
+                || tokenRevocationService.isRevoked(claims.getId())) {
+            throw new RuntimeException("Недействительный refresh-токен");
+        }
+        Map<String, String> response = new HashMap<>();
+        response.put("token", jwtService.generateToken(
+                claims.get(JwtService.USER_ID_CLAIM, Long.class), claims.getSubject()));
+        return response;
+    }
+
+    // Выход: отзываются оба токена сессии. Уже истёкшие или повреждённые токены пропускаются
+    public Map<String, String> logout(String accessToken, String refreshToken) {
+        for (String token : new String[]{accessToken, refreshToken}) {
+            Claims claims = parseValid(token);
+            if (claims != null) {
+                tokenRevocationService.revoke(claims.getId(), claims.getExpiration());
+            }
         }
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Выход выполнен");
         return response;
     }
+
+    private Claims parseValid(String token) {
+        if (token == null || token.isBlank()) {
+            return null;
+        }
+        try {
+            return jwtService.parseClaims(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
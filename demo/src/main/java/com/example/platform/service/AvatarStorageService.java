@@ -0,0 +1,280 @@
+package com.example.platform.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.platform.model.AvatarVariant;
+import com.example.platform.repository.AvatarFileRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// Хранилище аватаров по содержимому. Загрузка потоком проходит через SHA-256 во временный файл без буферизации
+// в памяти (stage), а в транзакции смены аватара (commit) атомарно переносится в /uploads/<xx>/<sha256>.<ext>:
+// одинаковые файлы хранятся один раз. Число ссылающихся пользователей ведётся в avatar_files; файл, на который
+// никто не ссылается дольше льготного периода, удаляет сборщик мусора. Он же убирает файлы без строки
+// (загрузка, чья транзакция откатилась), уменьшенные копии удалённых файлов (AvatarVariant) и брошенные временные файлы
+@Service
+public class AvatarStorageService {
+    private static final Logger log = LoggerFactory.getLogger(AvatarStorageService.class);
+
+    public static final String URL_PREFIX = "/uploads/";
+    private static final String TEMP_DIR = ".tmp";
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+    private static final int MAX_RETAIN_ATTEMPTS = 3;
+
+    @Autowired
+    private AvatarFileRepository avatarFileRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${file.upload-dir}")
+    private String uploadDir;
+
+    @Value("${avatars.gc-grace-minutes:60}")
+    private long graceMinutes;
+
+    @Value("${avatars.gc-batch-size:500}")
+    private int gcBatchSize;
+
+    private Path root;
+    private Path tempDir;
+    private TransactionTemplate transactionTemplate;
+
+    // Загруженный, но ещё не привязанный к пользователю файл
+    public record StagedAvatar(Path tempFile, String url, long size) {
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(uploadDir).toAbsolutePath().normalize();
+        tempDir = root.resolve(TEMP_DIR);
+        // Временные файлы в том же каталоге, что и хранилище: перенос — атомарное переименование
+        Files.createDirectories(tempDir);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public static boolean isStored(String url) {
+        return AvatarVariant.isStored(url);
+    }
+
+    // Поток пишется во временный файл блоками по мере чтения, хэш считается на лету
+    public StagedAvatar stage(InputStream content, String originalFilename) throws IOException {
+        MessageDigest digest = sha256();
+        Path tempFile = tempDir.resolve(UUID.randomUUID() + ".part");
+        long size;
+        try (InputStream in = new DigestInputStream(content, digest)) {
+            size = Files.copy(in, tempFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        String hash = HexFormat.of().formatHex(digest.digest());
+        String extension = extensionOf(originalFilename);
+        String url = URL_PREFIX + hash.substring(0, 2) + "/" + hash + (extension.isEmpty() ? "" : "." + extension);
+        return new StagedAvatar(tempFile, url, size);
+    }
+
+    // Вызывается в транзакции смены аватара: ссылка учитывается, файл переносится на место, если его ещё нет.
+    // Строка avatar_files заблокирована до коммита, поэтому сборщик мусора не удалит файл между переносом и коммитом
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String commit(StagedAvatar avatar) {
+        retain(avatar);
+        Path target = pathOf(avatar.url());
+        try {
+            if (Files.exists(target)) {
+                // Такой файл уже есть: временный не нужен, а свежая дата защищает файл от очистки файлов без строки
+                Files.setLastModifiedTime(target, FileTime.fromMillis(System.currentTimeMillis()));
+                Files.deleteIfExists(avatar.tempFile());
+            } else {
+                Files.createDirectories(target.getParent());
+                move(avatar.tempFile(), target);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось сохранить аватар", e);
+        }
+        return avatar.url();
+    }
+
+    // Временный файл загрузки, которая не дошла до commit
+    public void discard(StagedAvatar avatar) {
+        try {
+            Files.deleteIfExists(avatar.tempFile());
+        } catch (IOException e) {
+            log.warn("Failed to delete temporary avatar {}", avatar.tempFile(), e);
+        }
+    }
+
+    // Пользователь сменил аватар: ссылка на прежний файл снимается. Старые URL вне хранилища не учитываются
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void release(String url) {
+        if (isStored(url)) {
+            avatarFileRepository.release(url, LocalDateTime.now());
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${avatars.gc-interval-ms:3600000}",
+            initialDelayString = "${avatars.gc-interval-ms:3600000}")
+    public void collectGarbage() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(graceMinutes);
+        int deleted = 0;
+        List<String> candidates;
+        do {
+            candidates = avatarFileRepository.findUnreferencedBefore(before, PageRequest.of(0, gcBatchSize));
+            for (String url : candidates) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> deleteUnreferenced(url)))) {
+                    deleted++;
+                }
+            }
+        } while (candidates.size() == gcBatchSize);
+        int orphans = deleteOrphanFiles();
+        if (deleted > 0 || orphans > 0) {
+            log.info("Avatar GC removed {} unreferenced and {} untracked files", deleted, orphans);
+        }
+    }
+
+    // Строка удаляется вместе с файлом под блокировкой: ссылку, появившуюся за это время, retain вставит заново
+    private boolean deleteUnreferenced(String url) {
+        if (avatarFileRepository.lockUnreferenced(url).isEmpty()) {
+            return false;
+        }
+        Path file = pathOf(url);
+        try {
+            Files.deleteIfExists(file);
+            avatarFileRepository.deleteById(url);
+            // Те же байты могут храниться и под другим расширением — тогда копии ещё нужны
+            if (!avatarFileRepository.existsByUrlStartingWith(contentPrefixOf(file))) {
+                for (AvatarVariant variant : AvatarVariant.values()) {
+                    Files.deleteIfExists(file.resolveSibling(AvatarVariant.hashOfFileName(file.getFileName().toString())
+                            + "-" + variant.size() + ".jpg"));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete avatar " + url, e);
+        }
+        return true;
+    }
+
+    // Файлы хранилища без строки в avatar_files и временные файлы старше льготного периода
+    private int deleteOrphanFiles() {
+        long before = System.currentTimeMillis() - Duration.ofMinutes(graceMinutes).toMillis();
+        int deleted = 0;
+        try (DirectoryStream<Path> shards = Files.newDirectoryStream(root, "[0-9a-f][0-9a-f]")) {
+            for (Path shard : shards) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(shard)) {
+                    for (Path file : files) {
+                        String url = URL_PREFIX + shard.getFileName() + "/" + file.getFileName();
+                        boolean orphan;
+                        if (isStored(url)) {
+                            orphan = !avatarFileRepository.existsById(url);
+                        } else if (AvatarVariant.ofFileName(file.getFileName().toString()) != null) {
+                            orphan = !avatarFileRepository.existsByUrlStartingWith(contentPrefixOf(file));
+                        } else {
+                            continue;
+                        }
+                        if (orphan && olderThan(file, before) && Files.deleteIfExists(file)) {
+                            deleted++;
+                        }
+                    }
+                }
+            }
+            try (DirectoryStream<Path> temps = Files.newDirectoryStream(tempDir)) {
+                for (Path temp : temps) {
+                    if (olderThan(temp, before)) {
+                        Files.deleteIfExists(temp);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Avatar GC could not scan {}", root, e);
+        }
+        return deleted;
+    }
+
+    // Первая ссылка вставляет строку; при гонке двух первых загрузок проигравшая увеличивает счётчик
+    private void retain(StagedAvatar avatar) {
+        for (int attempt = 0; attempt < MAX_RETAIN_ATTEMPTS; attempt++) {
+            if (avatarFileRepository.retain(avatar.url()) == 1
+                    || avatarFileRepository.insert(avatar.url(), avatar.size(), LocalDateTime.now()) == 1) {
+                return;
+            }
+        }
+        throw new IllegalStateException("Could not reference avatar " + avatar.url());
+    }
+
+    // /uploads/<xx>/<sha256> — общее начало адресов оригиналов с этим содержимым
+    private static String contentPrefixOf(Path file) {
+        return URL_PREFIX + file.getParent().getFileName() + "/" + AvatarVariant.hashOfFileName(file.getFileName().toString());
+    }
+
+    // Путь внутри каталога загрузок; URL с выходом за его пределы (..) отклоняется
+    public Path pathOf(String url) {
+        Path path = root.resolve(url.substring(URL_PREFIX.length())).normalize();
+        if (!url.startsWith(URL_PREFIX) || !path.startsWith(root)) {
+            throw new IllegalArgumentException("Avatar URL outside of the upload directory: " + url);
+        }
+        return path;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // Тот же файл параллельно перенесла другая загрузка — содержимое совпадает
+            Files.deleteIfExists(source);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static boolean olderThan(Path file, long beforeMillis) throws IOException {
+        return Files.getLastModifiedTime(file).toMillis() < beforeMillis;
+    }
+
+    private static String extensionOf(String fileName) {
+        if (fileName == null) return "";
+        int lastIndexOf = fileName.lastIndexOf(".");
+        if (lastIndexOf == -1) return "";
+        String extension = fileName.substring(lastIndexOf + 1).toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
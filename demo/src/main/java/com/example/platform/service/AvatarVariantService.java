@@ -0,0 +1,269 @@
+package com.example.platform.service;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.platform.model.AvatarVariant;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Уменьшенные копии аватаров (AvatarVariant) строятся в фоне на ограниченном пуле после коммита смены аватара:
+// центральный квадрат оригинала масштабируется и перекодируется в JPEG. При полной очереди задача отбрасывается —
+// копия будет построена при первом запросе её адреса (AvatarVariantResolver), до тех пор отдаётся оригинал
+@Service
+public class AvatarVariantService {
+    private static final Logger log = LoggerFactory.getLogger(AvatarVariantService.class);
+
+    @Autowired
+    private AvatarStorageService avatarStorageService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${avatars.variants.threads:1}")
+    private int threads;
+
+    @Value("${avatars.variants.queue-capacity:200}")
+    private int queueCapacity;
+
+    @Value("${avatars.variants.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    // Больше — не декодируем: защита памяти от изображений огромного разрешения
+    @Value("${avatars.variants.max-source-pixels:40000000}")
+    private long maxSourcePixels;
+
+    // Адреса оригиналов, для которых копии уже в очереди или строятся
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private ThreadPoolExecutor executor;
+    private Counter generatedCounter;
+    private Counter rejectedCounter;
+    private Counter failedCounter;
+
+    @PostConstruct
+    public void init() {
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "avatar-variants-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "avatarVariants");
+        generatedCounter = Counter.builder("avatars.variants.generated")
+                .description("Avatars whose size variants were generated")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("avatars.variants.rejected")
+                .description("Variant tasks dropped because the queue was full")
+                .register(meterRegistry);
+        failedCounter = Counter.builder("avatars.variants.failed")
+                .description("Avatars that could not be decoded or resized")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Из транзакции смены аватара: файл оригинала на месте только после коммита
+    public void generateAfterCommit(String avatarUrl) {
+        if (!AvatarVariant.isStored(avatarUrl)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    generate(avatarUrl);
+                }
+            });
+        } else {
+            generate(avatarUrl);
+        }
+    }
+
+    // Ставит построение копий в очередь; повторный вызов для того же аватара, пока он в работе, ничего не делает
+    public void generate(String avatarUrl) {
+        if (!pending.add(avatarUrl)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generateNow(avatarUrl);
+                } finally {
+                    pending.remove(avatarUrl);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(avatarUrl);
+            rejectedCounter.increment();
+        }
+    }
+
+    // Запрошена ещё не построенная копия: ищем оригинал с тем же содержимым и ставим построение в очередь.
+    // Возвращает адрес оригинала, который отдаётся вместо копии, или null
+    public String onMissingVariant(String variantUrl) {
+        Path variantFile = avatarStorageService.pathOf(variantUrl);
+        String fileName = variantFile.getFileName().toString();
+        if (AvatarVariant.ofFileName(fileName) == null) {
+            return null;
+        }
+        String hash = AvatarVariant.hashOfFileName(fileName);
+        try (DirectoryStream<Path> candidates = Files.newDirectoryStream(variantFile.getParent(), hash + "*")) {
+            for (Path candidate : candidates) {
+                String url = AvatarStorageService.URL_PREFIX + candidate.getParent().getFileName() + "/" + candidate.getFileName();
+                if (AvatarVariant.isStored(url)) {
+                    generate(url);
+                    return url;
+                }
+            }
+        } catch (IOException e) {
+            log.debug("No original for avatar variant {}: {}", variantUrl, e.getMessage());
+        }
+        return null;
+    }
+
+    // Копии строятся от большей к меньшей: каждая следующая уменьшается из предыдущей, а не из оригинала
+    void generateNow(String avatarUrl) {
+        Path original = avatarStorageService.pathOf(avatarUrl);
+        AvatarVariant[] variants = AvatarVariant.values();
+        try {
+            BufferedImage source = null;
+            for (int i = variants.length - 1; i >= 0; i--) {
+                Path target = avatarStorageService.pathOf(variants[i].urlOf(avatarUrl));
+                if (source == null && Files.exists(target)) {
+                    continue;
+                }
+                if (source == null) {
+                    source = readCenterSquare(original, variants[variants.length - 1].size());
+                    if (source == null) {
+                        failedCounter.increment();
+                        log.debug("Avatar {} is not a decodable image, variants skipped", avatarUrl);
+                        return;
+                    }
+                }
+                source = resize(source, variants[i].size());
+                writeJpeg(source, target);
+            }
+            generatedCounter.increment();
+        } catch (IOException | RuntimeException e) {
+            failedCounter.increment();
+            log.warn("Failed to generate variants for avatar {}: {}", avatarUrl, e.getMessage());
+        }
+    }
+
+    // Центральный квадрат. Большие оригиналы читаются с прореживанием строк и столбцов — не меньше minSize,
+    // поэтому многомегапиксельное фото не разворачивается в память целиком
+    private BufferedImage readCenterSquare(Path file, int minSize) throws IOException {
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (ImageInputStream input = ImageIO.createImageInputStream(file.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxSourcePixels) {
+                    return null;
+                }
+                int side = Math.min(width, height);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceRegion(new Rectangle((width - side) / 2, (height - side) / 2, side, side));
+                int subsampling = Math.max(1, side / (minSize * 2));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Уменьшение шагами не больше чем вдвое: билинейная интерполяция за один шаг даёт заметные артефакты.
+    // Прозрачность заливается белым — JPEG её не хранит
+    private static BufferedImage resize(BufferedImage source, int size) {
+        BufferedImage current = source;
+        int side = source.getWidth();
+        do {
+            side = Math.max(size, side / 2);
+            BufferedImage next = new BufferedImage(side, side, BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = next.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.setColor(Color.WHITE);
+                graphics.fillRect(0, 0, side, side);
+                graphics.drawImage(current, 0, 0, side, side, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = next;
+        } while (side > size);
+        return current;
+    }
+
+    // Запись во временный файл и атомарное переименование: читатель не увидит недописанную копию
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Path temp = target.resolveSibling(".variant-" + UUID.randomUUID());
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+            writer.setOutput(output);
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(jpegQuality);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        } finally {
+            writer.dispose();
+        }
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+}
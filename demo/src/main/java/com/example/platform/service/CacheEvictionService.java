@@ -0,0 +1,48 @@
+package com.example.platform.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+import com.example.platform.config.CacheConfig;
+
+// Точечное вытеснение для путей записи, где ключ нельзя взять из аргументов метода
+// (например, email пользователя). В транзакции срабатывает после коммита
+@Service
+public class CacheEvictionService {
+    @Autowired
+    private CacheManager cacheManager;
+
+    public void evictUser(Long userId, String email) {
+        evict(CacheConfig.USERS, userId);
+        evict(CacheConfig.USERS_BY_EMAIL, email);
+    }
+
+    public void evictAllUsers() {
+        clear(CacheConfig.USERS);
+        clear(CacheConfig.USERS_BY_EMAIL);
+    }
+
+    public void evictRequest(Long requestId) {
+        evict(CacheConfig.REQUESTS, requestId);
+    }
+
+    public void evictHelperReviews(Long helperId) {
+        evict(CacheConfig.HELPER_REVIEWS, helperId);
+    }
+
+    private void evict(String cacheName, Object key) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null && key != null) {
+            cache.evict(key);
+        }
+    }
+
+    private void clear(String cacheName) {
+        Cache cache = cacheManager.getCache(cacheName);
+        if (cache != null) {
+            cache.clear();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.platform.service;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+// Ограниченный повтор транзакционной операции при конфликте параллельных изменений: устаревшая версия
+// (@Version) или нарушение уникального индекса. Каждая попытка — новая транзакция с чтением свежего состояния,
+// поэтому вызывать нужно снаружи транзакции, через прокси сервиса
+@Service
+public class ConflictRetryService {
+    private static final Logger log = LoggerFactory.getLogger(ConflictRetryService.class);
+
+    @Value("${requests.transitions.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${requests.transitions.backoff-ms:20}")
+    private long backoffMs;
+
+    public <T> T execute(Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Conflict retry must wrap the whole transaction");
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return action.get();
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.debug("Concurrent modification, retrying (attempt {} of {}): {}", attempt, maxAttempts, e.getMessage());
+                pause(attempt);
+            }
+        }
+    }
+
+    public void run(Runnable action) {
+        execute(() -> {
+            action.run();
+            return null;
+        });
+    }
+
+    // Растущая пауза со случайной добавкой, чтобы столкнувшиеся запросы не повторяли попытку одновременно
+    private void pause(int attempt) {
+        try {
+            Thread.sleep(backoffMs * attempt + ThreadLocalRandom.current().nextLong(backoffMs + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while retrying", e);
+        }
+    }
+}
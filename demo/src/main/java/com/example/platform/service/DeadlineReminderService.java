@@ -0,0 +1,251 @@
+package com.example.platform.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.platform.dto.RequestDeadlineDto;
+import com.example.platform.dto.RequestSummaryDto;
+import com.example.platform.model.Request;
+import com.example.platform.repository.HelpHistoryRepository;
+import com.example.platform.repository.RequestRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Напоминания создателю и активным помощникам незадолго до срока запроса.
+// Ближайшие сроки держатся в колесе таймеров в памяти: колесо заполняется потоковым запросом при старте
+// и раз в reload-interval, а между ними обновляется хуками RequestService после коммита.
+// Отправка защищена условным UPDATE флага reminder_sent, поэтому лишняя или устаревшая запись в колесе
+// (в том числе после рестарта или на другом узле) не приводит к повторному напоминанию.
+@Service
+public class DeadlineReminderService {
+    private static final Logger log = LoggerFactory.getLogger(DeadlineReminderService.class);
+
+    static final String NOTIFICATION_TYPE = "DEADLINE_REMINDER";
+    private static final int WHEEL_LEVELS = 4;
+    private static final DateTimeFormatter DEADLINE_FORMAT = DateTimeFormatter.ofPattern("dd.MM.yyyy HH:mm");
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private HelpHistoryRepository helpHistoryRepository;
+
+    @Autowired
+    private NotificationService notificationService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${requests.reminders.lead-minutes:60}")
+    private long leadMinutes;
+
+    @Value("${requests.reminders.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${requests.reminders.horizon-hours:24}")
+    private long horizonHours;
+
+    @Value("${requests.reminders.max-entries:100000}")
+    private int maxEntries;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private TimingWheel<LocalDateTime> wheel;
+    private ScheduledExecutorService ticker;
+    private TransactionTemplate transactionTemplate;
+    private Counter sentCounter;
+    private boolean overflowLogged;
+
+    @PostConstruct
+    public void init() {
+        wheel = new TimingWheel<>(tickMs, WHEEL_LEVELS, System.currentTimeMillis());
+        if (horizon().toMillis() > wheel.horizonMillis()) {
+            throw new IllegalStateException("requests.reminders.horizon-hours exceeds the timing wheel range");
+        }
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "deadline-reminders");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sentCounter = Counter.builder("requests.reminders.sent")
+                .description("Deadline reminders claimed and sent by this node")
+                .register(meterRegistry);
+        Gauge.builder("requests.reminders.scheduled", this, DeadlineReminderService::scheduledCount)
+                .description("Deadline reminders waiting in the timing wheel")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdownNow();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reload();
+        ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    // Подхватывает сроки, вошедшие в горизонт, и служит сверкой на случай пропущенных хуков.
+    // Интервал должен быть меньше горизонта, иначе часть напоминаний не успеет попасть в колесо
+    @Scheduled(fixedDelayString = "${requests.reminders.reload-interval-ms:3600000}",
+            initialDelayString = "${requests.reminders.reload-interval-ms:3600000}")
+    public void reload() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime until = now.plus(horizon()).plusMinutes(leadMinutes);
+        int loaded = transactionTemplate.execute(status -> {
+            int count = 0;
+            try (Stream<RequestDeadlineDto> deadlines = requestRepository.streamPendingReminders(now, until)) {
+                for (RequestDeadlineDto deadline : (Iterable<RequestDeadlineDto>) deadlines::iterator) {
+                    schedule(deadline.id(), deadline.deadlineDate());
+                    count++;
+                }
+            }
+            return count;
+        });
+        log.debug("Deadline reminder wheel reloaded: {} pending, {} scheduled", loaded, scheduledCount());
+    }
+
+    // Создание запроса или смена его статуса: снимок берётся в транзакции, колесо меняется после коммита
+    public void refreshAfterCommit(Request request) {
+        Long requestId = request.getId();
+        LocalDateTime deadline = request.getDeadlineDate();
+        boolean pending = OpenRequestIndex.OPEN_STATUSES.contains(request.getStatus())
+                && !request.isArchived() && !request.isReminderSent();
+        afterCommit(() -> {
+            if (pending) {
+                schedule(requestId, deadline);
+            } else {
+                cancel(requestId);
+            }
+        });
+    }
+
+    public void removeAfterCommit(Long requestId) {
+        afterCommit(() -> cancel(requestId));
+    }
+
+    public int scheduledCount() {
+        synchronized (wheel) {
+            return wheel.size();
+        }
+    }
+
+    private void schedule(Long requestId, LocalDateTime deadline) {
+        LocalDateTime remindAt = deadline.minusMinutes(leadMinutes);
+        synchronized (wheel) {
+            // Дальние сроки в памяти не держим: их подхватит следующая перезагрузка
+            if (remindAt.isAfter(LocalDateTime.now().plus(horizon()))) {
+                wheel.cancel(requestId);
+                return;
+            }
+            if (wheel.size() >= maxEntries && !wheel.contains(requestId)) {
+                if (!overflowLogged) {
+                    log.warn("Deadline reminder wheel is full ({} entries), postponing new reminders until reload", maxEntries);
+                    overflowLogged = true;
+                }
+                return;
+            }
+            wheel.schedule(requestId, toEpochMillis(remindAt), deadline);
+        }
+    }
+
+    private void cancel(Long requestId) {
+        synchronized (wheel) {
+            wheel.cancel(requestId);
+        }
+    }
+
+    // Выполняется в отдельном потоке; исключение не должно остановить периодическую задачу
+    private void tick() {
+        List<TimingWheel.Timeout<LocalDateTime>> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+            if (wheel.size() < maxEntries) {
+                overflowLogged = false;
+            }
+        }
+        for (TimingWheel.Timeout<LocalDateTime> timeout : due) {
+            try {
+                sendReminder(timeout.key());
+            } catch (RuntimeException e) {
+                log.error("Failed to send deadline reminder for request {}", timeout.key(), e);
+            }
+        }
+    }
+
+    private void sendReminder(Long requestId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            LocalDateTime now = LocalDateTime.now();
+            // Запас в один тик: колесо срабатывает с точностью до тика
+            LocalDateTime remindUntil = now.plusMinutes(leadMinutes).plus(Duration.ofMillis(tickMs));
+            if (requestRepository.claimDeadlineReminder(requestId, now, remindUntil) == 0) {
+                return;
+            }
+            RequestSummaryDto request = requestRepository.findSummaryById(requestId)
+                    .orElseThrow(() -> new RuntimeException("Request not found"));
+            String deadline = request.deadlineDate().format(DEADLINE_FORMAT);
+            String actionUrl = "/requests/" + requestId;
+
+            if (request.user() != null) {
+                notificationService.createNotification(request.user().id(), requestId,
+                        String.format("Срок вашего запроса '%s' истекает %s", request.description(), deadline),
+                        NOTIFICATION_TYPE, false, actionUrl, null);
+            }
+            for (Long helperId : helpHistoryRepository.findActiveHelperIds(requestId)) {
+                notificationService.createNotification(helperId, requestId,
+                        String.format("Срок запроса '%s', по которому вы помогаете, истекает %s", request.description(), deadline),
+                        NOTIFICATION_TYPE, false, actionUrl, null);
+            }
+            sentCounter.increment();
+        });
+    }
+
+    private Duration horizon() {
+        return Duration.ofHours(horizonHours);
+    }
+
+    private long toEpochMillis(LocalDateTime time) {
+        return time.atZone(zone).toInstant().toEpochMilli();
+    }
+
+    private void afterCommit(Runnable change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    change.run();
+                }
+            });
+        } else {
+            change.run();
+        }
+    }
+}
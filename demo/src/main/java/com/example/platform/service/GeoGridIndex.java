@@ -0,0 +1,190 @@
+package com.example.platform.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+// Равномерная сетка по широте/долготе для поиска точек в радиусе.
+// Координаты каждой ячейки хранятся в примитивных массивах, удаление — перестановкой с последним элементом.
+// Класс не потокобезопасен: синхронизацию обеспечивает владелец индекса.
+public class GeoGridIndex<T> {
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final double METERS_PER_DEGREE_LAT = 111_320.0;
+
+    private final double cellSizeDegrees;
+    private final int latCells;
+    private final int lonCells;
+    private final Map<Long, Cell<T>> cells = new HashMap<>();
+    private final Map<Long, Long> cellKeyById = new HashMap<>();
+
+    public GeoGridIndex(double cellSizeDegrees) {
+        if (cellSizeDegrees <= 0 || cellSizeDegrees > 90) {
+            throw new IllegalArgumentException("Размер ячейки должен быть в диапазоне (0, 90] градусов");
+        }
+        this.cellSizeDegrees = cellSizeDegrees;
+        this.latCells = (int) Math.ceil(180.0 / cellSizeDegrees);
+        this.lonCells = (int) Math.ceil(360.0 / cellSizeDegrees);
+    }
+
+    public record Hit<T>(long id, double distanceMeters, T value) {
+    }
+
+    public int size() {
+        return cellKeyById.size();
+    }
+
+    public boolean contains(long id) {
+        return cellKeyById.containsKey(id);
+    }
+
+    public T get(long id) {
+        Long key = cellKeyById.get(id);
+        return key == null ? null : cells.get(key).find(id);
+    }
+
+    public void put(long id, double latitude, double longitude, T value) {
+        remove(id);
+        long key = cellKey(latIndex(latitude), lonIndex(longitude));
+        cells.computeIfAbsent(key, k -> new Cell<>()).add(id, latitude, longitude, value);
+        cellKeyById.put(id, key);
+    }
+
+    public boolean remove(long id) {
+        Long key = cellKeyById.remove(id);
+        if (key == null) {
+            return false;
+        }
+        Cell<T> cell = cells.get(key);
+        cell.remove(id);
+        if (cell.size == 0) {
+            cells.remove(key);
+        }
+        return true;
+    }
+
+    // Точки в радиусе, отсортированные по расстоянию; limit <= 0 — без ограничения
+    public List<Hit<T>> within(double latitude, double longitude, double radiusMeters, Predicate<T> filter, int limit) {
+        List<Hit<T>> hits = new ArrayList<>();
+        double deltaLat = radiusMeters / METERS_PER_DEGREE_LAT;
+        int minLat = latIndex(Math.max(-90.0, latitude - deltaLat));
+        int maxLat = latIndex(Math.min(90.0, latitude + deltaLat));
+
+        double cosLat = Math.cos(Math.toRadians(Math.min(89.9, Math.abs(latitude) + deltaLat)));
+        double deltaLon = radiusMeters / (METERS_PER_DEGREE_LAT * Math.max(cosLat, 1e-6));
+        int lonSpan = deltaLon >= 180.0 ? lonCells : (int) Math.ceil(deltaLon / cellSizeDegrees) + 1;
+        // Круг накрывает полюс — нужны все долготы. Диапазон с обеих сторон длиннее круга долгот — тоже все:
+        // иначе через floorMod одни и те же ячейки обошлись бы дважды, а точки попали бы в результат повторно
+        boolean fullCircle = latitude + deltaLat >= 90.0 || latitude - deltaLat <= -90.0
+                || 2 * lonSpan + 1 >= lonCells;
+        int centerLon = lonIndex(longitude);
+        int firstLon = fullCircle ? 0 : centerLon - lonSpan;
+        int lastLon = fullCircle ? lonCells - 1 : centerLon + lonSpan;
+
+        // Радиус в тысячи километров даёт миллионы ячеек диапазона — тогда дешевле пройти только занятые
+        if ((long) (maxLat - minLat + 1) * (lastLon - firstLon + 1) > cells.size()) {
+            for (Map.Entry<Long, Cell<T>> entry : cells.entrySet()) {
+                long latIdx = entry.getKey() / lonCells;
+                if (latIdx >= minLat && latIdx <= maxLat) {
+                    collect(entry.getValue(), latitude, longitude, radiusMeters, filter, hits);
+                }
+            }
+        } else {
+            for (int latIdx = minLat; latIdx <= maxLat; latIdx++) {
+                for (int rawLon = firstLon; rawLon <= lastLon; rawLon++) {
+                    Cell<T> cell = cells.get(cellKey(latIdx, Math.floorMod(rawLon, lonCells)));
+                    if (cell != null) {
+                        collect(cell, latitude, longitude, radiusMeters, filter, hits);
+                    }
+                }
+            }
+        }
+        hits.sort(Comparator.comparingDouble(Hit::distanceMeters));
+        return limit > 0 && hits.size() > limit ? new ArrayList<>(hits.subList(0, limit)) : hits;
+    }
+
+    private static <T> void collect(Cell<T> cell, double latitude, double longitude, double radiusMeters,
+                                    Predicate<T> filter, List<Hit<T>> hits) {
+        for (int i = 0; i < cell.size; i++) {
+            double distance = distanceMeters(latitude, longitude, cell.lats[i], cell.lons[i]);
+            if (distance <= radiusMeters && (filter == null || filter.test(cell.value(i)))) {
+                hits.add(new Hit<>(cell.ids[i], distance, cell.value(i)));
+            }
+        }
+    }
+
+    public static double distanceMeters(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    private int latIndex(double latitude) {
+        return Math.min(latCells - 1, (int) Math.floor((latitude + 90.0) / cellSizeDegrees));
+    }
+
+    private int lonIndex(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180.0) / cellSizeDegrees), lonCells);
+    }
+
+    private long cellKey(int latIdx, int lonIdx) {
+        return (long) latIdx * lonCells + lonIdx;
+    }
+
+    private static final class Cell<T> {
+        private long[] ids = new long[4];
+        private double[] lats = new double[4];
+        private double[] lons = new double[4];
+        private Object[] values = new Object[4];
+        private int size;
+
+        void add(long id, double lat, double lon, T value) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                lats = Arrays.copyOf(lats, capacity);
+                lons = Arrays.copyOf(lons, capacity);
+                values = Arrays.copyOf(values, capacity);
+            }
+            ids[size] = id;
+            lats[size] = lat;
+            lons[size] = lon;
+            values[size] = value;
+            size++;
+        }
+
+        void remove(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    int last = --size;
+                    ids[i] = ids[last];
+                    lats[i] = lats[last];
+                    lons[i] = lons[last];
+                    values[i] = values[last];
+                    values[last] = null;
+                    return;
+                }
+            }
+        }
+
+        T find(long id) {
+            for (int i = 0; i < size; i++) {
+                if (ids[i] == id) {
+                    return value(i);
+                }
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        T value(int i) {
+            return (T) values[i];
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.platform.service;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.example.platform.model.HelpHistory;
+import com.example.platform.model.Request;
+
+// Допустимые переходы статусов запроса и записи истории помощи.
+// Переход в текущий статус разрешён и ничего не меняет: повтор операции не должен быть ошибкой
+public final class HelpLifecycle {
+    private static final Map<String, Set<String>> REQUEST_TRANSITIONS = Map.of(
+            "ACTIVE", Set.of("IN_PROGRESS", "COMPLETED", "CANCELLED"),
+            "IN_PROGRESS", Set.of("ACTIVE", "COMPLETED", "CANCELLED"),
+            "COMPLETED", Set.of(),
+            "CANCELLED", Set.of()
+    );
+
+    private static final Map<String, Set<String>> HELP_TRANSITIONS = Map.of(
+            "IN_PROGRESS", Set.of("PENDING_CONFIRMATION", "CANCELLED"),
+            "PENDING_CONFIRMATION", Set.of("COMPLETED", "CANCELLED"),
+            "COMPLETED", Set.of(),
+            "CANCELLED", Set.of()
+    );
+
+    private HelpLifecycle() {
+    }
+
+    public static void moveRequest(Request request, String target) {
+        request.setStatus(require(REQUEST_TRANSITIONS, "запроса", request.getStatus(), target));
+    }
+
+    public static void moveHelp(HelpHistory help, String target) {
+        help.setStatus(require(HELP_TRANSITIONS, "помощи", help.getStatus(), target));
+    }
+
+    // Проверка для массовых UPDATE, где исходный статус задаётся условием WHERE
+    public static void requireHelpTransition(String from, String to) {
+        require(HELP_TRANSITIONS, "помощи", from, to);
+    }
+
+    private static String require(Map<String, Set<String>> transitions, String subject, String from, String to) {
+        if (to == null || !transitions.containsKey(to)) {
+            throw new RuntimeException("Неизвестный статус " + subject + ": " + to);
+        }
+        if (!to.equals(from) && !transitions.getOrDefault(from, Set.of()).contains(to)) {
+            throw new RuntimeException("Недопустимый переход статуса " + subject + ": " + from + " -> " + to);
+        }
+        return to;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.platform.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.platform.model.IdempotencyKey;
+import com.example.platform.repository.IdempotencyKeyRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// Ключи идемпотентности изменяющих REST-запросов (заголовок Idempotency-Key).
+// Первый запрос с ключом захватывает его вставкой строки, повтор получает сохранённый ответ,
+// а параллельный дубль — отказ, пока первый не завершился. Ключи разных пользователей не пересекаются:
+// строка хранится под SHA-256 от пользователя и ключа клиента (scopedKey)
+@Service
+public class IdempotencyService {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.pending-timeout-ms:300000}")
+    private long pendingTimeoutMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    public enum State {
+        // Ключ захвачен этим запросом: выполнить и сохранить ответ
+        CLAIMED,
+        // Запрос с этим ключом уже выполнен: отдать сохранённый ответ
+        COMPLETED,
+        // Запрос с этим ключом ещё выполняется
+        IN_PROGRESS,
+        // Ключ уже использован для другого запроса
+        MISMATCH
+    }
+
+    public record Claim(State state, IdempotencyKey stored) {
+    }
+
+    @PostConstruct
+    public void init() {
+        // Ключ фиксируется в собственной транзакции, независимо от транзакции самого запроса
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Ключ клиента в пространстве пользователя; запросы без токена делят общее пространство,
+    // и от чужого ответа их защищает отпечаток тела
+    public String scopedKey(Long userId, String key) {
+        String scope = userId != null ? "user:" + userId : "anonymous";
+        return hex(sha256().digest((scope + "\n" + key).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    // key — результат scopedKey; bodyDigest — SHA-256 тела запроса (см. IdempotencyFilter)
+    public Claim claim(String key, String method, String uri, String bodyDigest) {
+        String fingerprint = fingerprint(method, uri, bodyDigest);
+        if (insert(key, fingerprint)) {
+            return new Claim(State.CLAIMED, null);
+        }
+        IdempotencyKey stored = transactionTemplate.execute(status -> idempotencyKeyRepository.findById(key).orElse(null));
+        if (stored == null) {
+            // Ключ успели освободить между вставкой и чтением — клиент повторит запрос
+            return new Claim(State.IN_PROGRESS, null);
+        }
+        if (!stored.getFingerprint().equals(fingerprint)) {
+            return new Claim(State.MISMATCH, stored);
+        }
+        return new Claim(stored.getResponseStatus() != null ? State.COMPLETED : State.IN_PROGRESS, stored);
+    }
+
+    public void complete(String key, int status, String contentType, String body) {
+        transactionTemplate.executeWithoutResult(tx -> idempotencyKeyRepository.complete(key, status, contentType, body));
+    }
+
+    // Неуспешный запрос не запоминается: клиент может повторить его с тем же ключом
+    public void release(String key) {
+        transactionTemplate.executeWithoutResult(tx -> idempotencyKeyRepository.release(key));
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval-ms:600000}")
+    public void deleteExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = transactionTemplate.execute(status -> idempotencyKeyRepository.deleteExpired(
+                now.minusHours(ttlHours), now.minus(Duration.ofMillis(pendingTimeoutMs))));
+        if (deleted > 0) {
+            log.debug("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private boolean insert(String key, String fingerprint) {
+        try {
+            return transactionTemplate.execute(status ->
+                    idempotencyKeyRepository.insert(key, fingerprint, LocalDateTime.now()) == 1);
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+
+    private static String fingerprint(String method, String uri, String bodyDigest) {
+        return hex(sha256().digest((method + " " + uri + "\n" + bodyDigest).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String hex(byte[] bytes) {
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    public static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.platform.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.platform.dto.RequestLocationDto;
+import com.example.platform.repository.RequestRepository;
+
+// Запасной вариант для баз без PostGIS (H2, локальный запуск): сетка в памяти,
+// периодически перестраиваемая по лёгкой проекции неархивных запросов
+@Service
+@ConditionalOnProperty(name = "geo.search.mode", havingValue = "memory")
+public class InMemoryNearbyRequestSearch implements NearbyRequestSearch {
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Value("${geo.search.cell-size-degrees:0.05}")
+    private double cellSizeDegrees;
+
+    private volatile GeoGridIndex<RequestLocationDto> index;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${geo.search.refresh-interval-ms:30000}",
+            initialDelayString = "${geo.search.refresh-interval-ms:30000}")
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        GeoGridIndex<RequestLocationDto> fresh = new GeoGridIndex<>(cellSizeDegrees);
+        for (RequestLocationDto location : requestRepository.findAllLocations()) {
+            fresh.put(location.id(), location.latitude(), location.longitude(), location);
+        }
+        // Готовый индекс публикуется целиком и дальше только читается
+        index = fresh;
+    }
+
+    @Override
+    public List<Long> findNearbyRequestIds(double latitude, double longitude, double radiusMeters,
+                                           String category, List<String> statuses, int limit) {
+        GeoGridIndex<RequestLocationDto> current = index;
+        if (current == null) {
+            rebuild();
+            current = index;
+        }
+        return current.within(latitude, longitude, radiusMeters,
+                        location -> (category == null || category.equals("all") || category.equals(location.category()))
+                                && (statuses == null || statuses.isEmpty() || statuses.contains(location.status())),
+                        limit)
+                .stream()
+                .map(GeoGridIndex.Hit::id)
+                .toList();
+    }
+}
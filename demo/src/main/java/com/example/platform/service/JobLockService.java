@@ -0,0 +1,62 @@
+package com.example.platform.service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.platform.repository.JobLockRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// Блокировка фоновых задач между узлами приложения через арендуемую строку в job_locks.
+// Узел, упавший посреди работы, не держит задачу дольше срока аренды
+@Service
+public class JobLockService {
+    // Имя узла: pid@host плюс случайный суффикс, чтобы два процесса на одной машине не совпали
+    private final String owner = ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID();
+
+    @Autowired
+    private JobLockRepository jobLockRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        // Каждая операция в своей короткой транзакции, чтобы строка аренды не оставалась заблокированной на время задачи
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // Захватывает аренду или продлевает свою; false — задачу сейчас выполняет другой узел
+    public boolean tryAcquire(String name, Duration lease) {
+        LocalDateTime now = LocalDateTime.now();
+        Boolean acquired = transactionTemplate.execute(status ->
+                jobLockRepository.tryAcquire(name, owner, now, now.plus(lease)) == 1
+                        || !jobLockRepository.existsById(name) && createLock(name, now.plus(lease)));
+        return Boolean.TRUE.equals(acquired);
+    }
+
+    public void release(String name) {
+        transactionTemplate.executeWithoutResult(status -> jobLockRepository.release(name, owner, LocalDateTime.now()));
+    }
+
+    // Первый запуск задачи: строки аренды ещё нет. При гонке двух узлов вставка удастся только одному
+    private boolean createLock(String name, LocalDateTime until) {
+        try {
+            return transactionTemplate.execute(status -> jobLockRepository.insert(name, owner, until) == 1);
+        } catch (DataIntegrityViolationException e) {
+            return false;
+        }
+    }
+}
@@ -1,7 +1,8 @@
 package com.example.platform.service;
 
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -9,32 +10,66 @@ import org.springframework.stereotype.Service;
 import java.nio.charset.StandardCharsets;
 import java.security.Key;
 import java.util.Date;
+import java.util.UUID;
 
 @Service
 public class JwtService {
+    // Идентификатор пользователя в токене: фильтр аутентификации получает его без запроса к базе
+    public static final String USER_ID_CLAIM = "uid";
+    // Тип токена: access — для запросов к API, refresh — только для /api/auth/refresh
+    public static final String TOKEN_TYPE_CLAIM = "type";
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
     private final Key key;
+    private final long expirationMs;
+    private final long refreshExpirationMs;
+    // Парсер неизменяем и потокобезопасен — строится один раз, а не на каждую проверку
+    private final JwtParser parser;
 
     // Внедряем значение из application.properties
-    public JwtService(@Value("${jwt.secret}") String secret) {
+    public JwtService(@Value("${jwt.secret}") String secret,
+                      @Value("${jwt.expiration:900000}") long expirationMs,
+                      @Value("${jwt.refresh-expiration:2592000000}") long refreshExpirationMs) {
         // Преобразуем строку в ключ
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.expirationMs = expirationMs;
+        this.refreshExpirationMs = refreshExpirationMs;
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
     }
 
-    public String generateToken(String email) {
+    // Короткоживущий токен доступа
+    public String generateToken(Long userId, String email) {
+        return generate(userId, email, ACCESS, expirationMs);
+    }
+
+    // Долгоживущий токен для получения новых токенов доступа без повторного входа
+    public String generateRefreshToken(Long userId, String email) {
+        return generate(userId, email, REFRESH, refreshExpirationMs);
+    }
+
+    // jti — уникальный идентификатор токена, по нему токен отзывается (см. TokenRevocationService)
+    private String generate(Long userId, String email, String type, long lifetimeMs) {
+        long now = System.currentTimeMillis();
         return Jwts.builder()
+                .setId(UUID.randomUUID().toString())
                 .setSubject(email)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60)) // 1 час
+                .claim(USER_ID_CLAIM, userId)
+                .claim(TOKEN_TYPE_CLAIM, type)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + lifetimeMs))
                 .signWith(key)
                 .compact();
     }
 
+    // Проверяет подпись и срок действия; при ошибке бросает JwtException
+    public Claims parseClaims(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public String validateToken(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parseClaims(token).getSubject();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,207 @@
+package com.example.platform.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.platform.dto.LeaderboardEntryDto;
+import com.example.platform.dto.RatingAggregateDto;
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+// Рейтинг помощников в памяти: список, отсортированный по средней оценке и числу отзывов,
+// и позиция каждого пользователя. Страница топа и "моё место" читаются без обращения к базе,
+// новый отзыв сдвигает только участок списка между старой и новой позицией.
+@Service
+@Timed("service.calls")
+public class LeaderboardService {
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingDouble(Entry::average).reversed()
+            .thenComparing(Comparator.comparingInt(Entry::ratingCount).reversed())
+            .thenComparingLong(Entry::id);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Entry> ranking = new ArrayList<>();
+    private final Map<Long, Integer> positionById = new HashMap<>();
+    // Изменения, зафиксированные во время перестройки, повторяются поверх нового списка
+    private List<Runnable> pendingDuringRebuild;
+
+    private record Entry(long id, String name, String avatarUrl, long ratingSum, int ratingCount) {
+        double average() {
+            return ratingCount > 0 ? (double) ratingSum / ratingCount : 0;
+        }
+
+        LeaderboardEntryDto toDto(int position) {
+            return new LeaderboardEntryDto(position + 1, id, name, avatarUrl, average(), ratingCount);
+        }
+    }
+
+    public List<LeaderboardEntryDto> getPage(int page, int size) {
+        lock.readLock().lock();
+        try {
+            int from = Math.min(page * size, ranking.size());
+            int to = Math.min(from + size, ranking.size());
+            List<LeaderboardEntryDto> result = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                result.add(ranking.get(i).toDto(i));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // null, если у пользователя ещё нет отзывов
+    public LeaderboardEntryDto getRank(Long userId) {
+        lock.readLock().lock();
+        try {
+            Integer position = positionById.get(userId);
+            return position != null ? ranking.get(position).toDto(position) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ranking.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Новая оценка помощника: итоговые значения агрегата применяются после коммита транзакции отзыва.
+    // Обработчики параллельных отзывов могут выполниться не в порядке коммитов, а число отзывов только растёт:
+    // запись с таким же или большим ratingCount уже новее, и более старый агрегат её не перезаписывает
+    public void ratingChangedAfterCommit(User helper, RatingAggregateDto aggregate) {
+        Entry updated = new Entry(helper.getId(), helper.getName(), helper.getAvatarUrl(),
+                aggregate.ratingSum(), aggregate.ratingCount());
+        afterCommit(() -> {
+            Integer position = positionById.get(updated.id());
+            if (position == null || ranking.get(position).ratingCount() < updated.ratingCount()) {
+                move(position, updated);
+            }
+        });
+    }
+
+    // Смена имени или аватара: позиция не меняется
+    public void profileChangedAfterCommit(User user) {
+        long id = user.getId();
+        String name = user.getName();
+        String avatarUrl = user.getAvatarUrl();
+        afterCommit(() -> {
+            Integer position = positionById.get(id);
+            if (position != null) {
+                Entry current = ranking.get(position);
+                ranking.set(position, new Entry(id, name, avatarUrl, current.ratingSum(), current.ratingCount()));
+            }
+        });
+    }
+
+    // Полная перестройка из агрегатов в таблице users (при старте и для страховки от расхождений)
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${leaderboard.rebuild-interval-ms:600000}",
+            initialDelayString = "${leaderboard.rebuild-interval-ms:600000}")
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringRebuild = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        try {
+            for (User user : userRepository.findRatedUsers()) {
+                entries.add(new Entry(user.getId(), user.getName(), user.getAvatarUrl(),
+                        user.getRatingSum(), user.getRatingCount()));
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+        entries.sort(ORDER);
+
+        lock.writeLock().lock();
+        try {
+            ranking.clear();
+            ranking.addAll(entries);
+            positionById.clear();
+            for (int i = 0; i < ranking.size(); i++) {
+                positionById.put(ranking.get(i).id(), i);
+            }
+            List<Runnable> pending = pendingDuringRebuild;
+            pendingDuringRebuild = null;
+            pending.forEach(Runnable::run);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Переставляет запись на новое место и обновляет позиции только в затронутом диапазоне
+    private void move(Integer oldPosition, Entry updated) {
+        int from;
+        if (oldPosition != null) {
+            ranking.remove((int) oldPosition);
+            from = oldPosition;
+        } else {
+            from = ranking.size();
+        }
+        int insertAt = Collections.binarySearch(ranking, updated, ORDER);
+        insertAt = insertAt < 0 ? -insertAt - 1 : insertAt;
+        ranking.add(insertAt, updated);
+
+        int lo = Math.min(from, insertAt);
+        int hi = Math.min(Math.max(from, insertAt), ranking.size() - 1);
+        for (int i = lo; i <= hi; i++) {
+            positionById.put(ranking.get(i).id(), i);
+        }
+    }
+
+    private void afterCommit(Runnable change) {
+        Runnable locked = () -> {
+            lock.writeLock().lock();
+            try {
+                change.run();
+                if (pendingDuringRebuild != null) {
+                    pendingDuringRebuild.add(change);
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    locked.run();
+                }
+            });
+        } else {
+            locked.run();
+        }
+    }
+}
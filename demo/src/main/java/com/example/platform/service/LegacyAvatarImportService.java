@@ -0,0 +1,117 @@
+package com.example.platform.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+
+// Переносит аватары, сохранённые до хранилища по содержимому (/uploads/<uuid>.<ext>), в AvatarStorageService:
+// одинаковые файлы схлопываются в один, у пользователя меняется avatarUrl, старый файл удаляется, когда
+// на него больше никто не ссылается. Выполняется после старта на одном узле (аренда в job_locks), иначе узлы
+// дважды увеличили бы ref_count и удаляли бы старые файлы друг у друга; повторный запуск продолжает с оставшихся
+@Service
+public class LegacyAvatarImportService {
+    private static final Logger log = LoggerFactory.getLogger(LegacyAvatarImportService.class);
+
+    static final String JOB_NAME = "legacy-avatar-import";
+    private static final int PAGE_SIZE = 200;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private AvatarStorageService avatarStorageService;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Value("${avatars.import-legacy:true}")
+    private boolean enabled;
+
+    @Value("${avatars.import-legacy-lease-ms:300000}")
+    private long leaseMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void importOnStartup() {
+        if (enabled) {
+            importLegacyAvatars();
+        }
+    }
+
+    // Без аренды — перенос уже идёт на другом узле, оставшееся подхватит следующий запуск
+    public int importLegacyAvatars() {
+        Duration lease = Duration.ofMillis(leaseMs);
+        if (!jobLockService.tryAcquire(JOB_NAME, lease)) {
+            log.info("Legacy avatar import is running on another node, skipped");
+            return 0;
+        }
+        try {
+            return importPages(lease);
+        } finally {
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    private int importPages(Duration lease) {
+        int imported = 0;
+        long afterId = 0;
+        List<Long> userIds;
+        // Перед каждой следующей страницей аренда продлевается; потеряна — продолжать нельзя
+        do {
+            userIds = userRepository.findIdsWithLegacyAvatar(afterId, PageRequest.of(0, PAGE_SIZE));
+            for (Long userId : userIds) {
+                afterId = userId;
+                try {
+                    if (importAvatar(userId)) {
+                        imported++;
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Legacy avatar of user {} not imported: {}", userId, e.getMessage());
+                }
+            }
+        } while (userIds.size() == PAGE_SIZE && jobLockService.tryAcquire(JOB_NAME, lease));
+        if (imported > 0) {
+            log.info("Imported {} legacy avatars into the content-addressed store", imported);
+        }
+        return imported;
+    }
+
+    private boolean importAvatar(Long userId) throws IOException {
+        User user = userService.getUserById(userId);
+        String legacyUrl = user.getAvatarUrl();
+        Path legacyFile = avatarStorageService.pathOf(legacyUrl);
+        if (!Files.isRegularFile(legacyFile)) {
+            return false;
+        }
+        AvatarStorageService.StagedAvatar staged;
+        try (InputStream in = Files.newInputStream(legacyFile)) {
+            staged = avatarStorageService.stage(in, legacyFile.getFileName().toString());
+        }
+        try {
+            userService.updateUser(user, staged);
+        } finally {
+            avatarStorageService.discard(staged);
+        }
+        if (!userRepository.existsByAvatarUrl(legacyUrl)) {
+            Files.deleteIfExists(legacyFile);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.platform.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+
+// Хэширует пароли, оставшиеся открытым текстом с времён до BCrypt, не дожидаясь входа их владельцев:
+// без этого пароль неактивного пользователя хранился бы открытым навсегда. Выполняется после старта на одном
+// узле (аренда в job_locks); хэши считаются в пуле PasswordHashingService, UPDATE условный — пароль,
+// сменённый тем временем, не перезаписывается. Не захэшированное (очередь пула полна) подхватит следующий
+// запуск или вход пользователя. Когда открытых паролей не останется, сравнение открытым текстом
+// в PasswordHashingService.matches больше не срабатывает
+@Service
+public class LegacyPasswordHashingService {
+    private static final Logger log = LoggerFactory.getLogger(LegacyPasswordHashingService.class);
+
+    static final String JOB_NAME = "legacy-password-hashing";
+    // Не больше очереди пула хэширования, чтобы страница не вытесняла входы пользователей
+    private static final int PAGE_SIZE = 32;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Value("${auth.password.hash-legacy:true}")
+    private boolean enabled;
+
+    @Value("${auth.password.hash-legacy-lease-ms:300000}")
+    private long leaseMs;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void hashOnStartup() {
+        if (enabled) {
+            hashPlaintextPasswords();
+        }
+    }
+
+    public int hashPlaintextPasswords() {
+        Duration lease = Duration.ofMillis(leaseMs);
+        if (!jobLockService.tryAcquire(JOB_NAME, lease)) {
+            log.info("Legacy password hashing is running on another node, skipped");
+            return 0;
+        }
+        try {
+            return hashPages(lease);
+        } finally {
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    private int hashPages(Duration lease) {
+        int hashed = 0;
+        long afterId = 0;
+        List<User> users;
+        // Перед каждой следующей страницей аренда продлевается; потеряна — продолжать нельзя
+        do {
+            users = userRepository.findWithPlaintextPassword(afterId, PageRequest.of(0, PAGE_SIZE));
+            List<CompletableFuture<String>> hashes = new ArrayList<>();
+            for (User user : users) {
+                hashes.add(passwordHashingService.hash(user.getPassword()));
+            }
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                afterId = user.getId();
+                try {
+                    if (userRepository.updatePassword(user.getId(), user.getPassword(), hashes.get(i).join()) == 1) {
+                        hashed++;
+                    }
+                } catch (RuntimeException e) {
+                    log.debug("Password of user {} not hashed: {}", user.getId(), e.getMessage());
+                }
+            }
+        } while (users.size() == PAGE_SIZE && jobLockService.tryAcquire(JOB_NAME, lease));
+        if (hashed > 0) {
+            log.info("Hashed {} passwords stored in plaintext", hashed);
+        }
+        return hashed;
+    }
+}
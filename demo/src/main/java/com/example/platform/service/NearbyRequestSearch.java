@@ -0,0 +1,9 @@
+package com.example.platform.service;
+
+import java.util.List;
+
+// Поиск неархивных запросов в радиусе (в метрах), результат — id в порядке возрастания расстояния
+public interface NearbyRequestSearch {
+    List<Long> findNearbyRequestIds(double latitude, double longitude, double radiusMeters,
+                                    String category, List<String> statuses, int limit);
+}
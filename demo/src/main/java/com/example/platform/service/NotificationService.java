@@ -3,20 +3,32 @@ package com.example.platform.service;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.platform.model.Notification;
+import com.example.platform.dto.CursorPage;
+import com.example.platform.dto.NewNotification;
+import com.example.platform.dto.NotificationCursor;
+import com.example.platform.dto.NotificationDto;
 import com.example.platform.model.Request;
 import com.example.platform.model.User;
 import com.example.platform.repository.NotificationRepository;
-import com.example.platform.repository.RequestRepository;
 import com.example.platform.repository.UserRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("service.calls")
 @Transactional
 public class NotificationService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationService.class);
+
     @Autowired
     private NotificationRepository notificationRepository;
 
@@ -24,77 +36,124 @@ public class NotificationService {
     private UserRepository userRepository;
 
     @Autowired
-    private RequestRepository requestRepository;
-
-    public void createHelpCompletionNotification(Long requestId, Long helperId) {
-        Request request = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-
-        User helper = userRepository.findById(helperId)
-                .orElseThrow(() -> new RuntimeException("Helper not found"));
+    private NotificationWriter notificationWriter;
 
+    // Запрос и помощник уже загружены вызывающей транзакцией (RequestService.completeHelp) — без повторных SELECT
+    public void createHelpCompletionNotification(Request request, User helper) {
+        Long requestId = request.getId();
         String message = String.format(
                 " %s сообщает, что оказал помощь по вашему запросу '%s'. Пожалуйста, подтвердите получение помощи.",
                 helper.getName(),
                 request.getDescription()
         );
 
-        Notification notification = new Notification();
-        notification.setUser(request.getUser());
-        notification.setRequest(request);
-        notification.setMessage(message);
-        notification.setType("HELP_COMPLETION");
-        notification.setStatus("UNREAD");
-        notification.setCreatedAt(LocalDateTime.now());
-        notification.setActionUrl("/requests/" + requestId + "/confirm-help");
-        notification.setActionNeeded(true);
-        notification.setFromUser(helper);
-
-        notificationRepository.save(notification);
+        notificationWriter.enqueueAfterCommit(new NewNotification(
+                request.getUser().getId(),
+                requestId,
+                message,
+                "HELP_COMPLETION",
+                true,
+                "/requests/" + requestId + "/confirm-help",
+                helper.getId(),
+                LocalDateTime.now()
+        ));
     }
 
-    // Общий метод для создания уведомлений
+    // Общий метод для создания уведомлений. Сущности не загружаются: в запись уходят только ключи,
+    // сама вставка выполняется пачкой после коммита вызывающей транзакции (см. NotificationWriter)
     public void createNotification(Long userId, Long requestId, String message, String type, boolean actionNeeded, String actionUrl, Long fromUserId) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        if (userId == null) {
+            throw new RuntimeException("User not found");
+        }
+        notificationWriter.enqueueAfterCommit(new NewNotification(
+                userId, requestId, message, type, actionNeeded, actionUrl, fromUserId, LocalDateTime.now()));
+    }
+
+    @Transactional(readOnly = true)
+    public List<NotificationDto> getUserNotifications(Long userId) {
+        return notificationRepository.findDtosByUserId(userId);
+    }
 
-        Request request = null;
-        if (requestId != null) {
-            request = requestRepository.findById(requestId)
-                    .orElseThrow(() -> new RuntimeException("Request not found"));
+    // Страница входящих: непрочитанные первыми, затем от новых к старым
+    @Transactional(readOnly = true)
+    public CursorPage<NotificationDto> getInbox(Long userId, boolean unreadOnly, String cursor, int limit) {
+        NotificationCursor position = cursor != null && !cursor.isBlank() ? NotificationCursor.decode(cursor) : null;
+        // Берём на одну строку больше, чтобы понять, есть ли следующая страница
+        Pageable page = PageRequest.of(0, limit + 1);
+
+        List<NotificationDto> rows;
+        if (unreadOnly) {
+            rows = position == null
+                    ? notificationRepository.findUnread(userId, page)
+                    : notificationRepository.findUnreadAfter(userId, position.createdAt(), position.id(), page);
+        } else {
+            rows = position == null
+                    ? notificationRepository.findInbox(userId, page)
+                    : notificationRepository.findInboxAfter(userId, position.read(), position.createdAt(), position.id(), page);
         }
 
-        User fromUser = null;
-        if (fromUserId != null) {
-            fromUser = userRepository.findById(fromUserId)
-                    .orElseThrow(() -> new RuntimeException("From User not found"));
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            nextCursor = NotificationCursor.of(rows.get(limit - 1)).encode();
         }
+        return new CursorPage<>(rows, nextCursor);
+    }
 
-        Notification notification = new Notification();
-        notification.setUser(user);
-        notification.setRequest(request);
-        notification.setMessage(message);
-        notification.setType(type);
-        notification.setStatus("UNREAD"); // Новые уведомления всегда UNREAD
-        notification.setCreatedAt(LocalDateTime.now());
-        notification.setActionNeeded(actionNeeded);
-        notification.setActionUrl(actionUrl);
-        notification.setFromUser(fromUser);
-
-        notificationRepository.save(notification);
+    @Transactional(readOnly = true)
+    public int getUnreadCount(Long userId) {
+        return userRepository.findUnreadNotificationCount(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    public List<Notification> getUserNotifications(Long userId) {
-        return notificationRepository.findByUserIdOrderByCreatedAtDesc(userId);
+    public int markAllRead(Long userId) {
+        return applyReadCount(userId, notificationRepository.markAllRead(userId));
     }
 
-    public void deleteNotification(Long notificationId) {
+    // Отмечает прочитанным всё от начала входящих до позиции курсора включительно. Непрочитанные идут первыми:
+    // курсор в разделе прочитанных означает, что пролистаны все непрочитанные, в том числе старше курсора
+    public int markReadUpTo(Long userId, String cursor) {
+        NotificationCursor position = NotificationCursor.decode(cursor);
+        if (position.read()) {
+            return markAllRead(userId);
+        }
+        return applyReadCount(userId, notificationRepository.markReadUpTo(userId, position.createdAt(), position.id()));
+    }
+
+    public int markRead(Long userId, Long notificationId) {
+        return applyReadCount(userId, notificationRepository.markRead(notificationId, userId));
+    }
+
+    // UPDATE возвращает число реально изменённых строк, поэтому параллельные отметки не уменьшат счётчик дважды
+    private int applyReadCount(Long userId, int markedRead) {
+        if (markedRead > 0) {
+            userRepository.decrementUnreadNotifications(userId, markedRead);
+        }
+        return markedRead;
+    }
+
+    // Удаляет только уведомление самого пользователя; false — такого уведомления у него нет
+    public boolean deleteNotification(Long userId, Long notificationId) {
+        if (!notificationRepository.existsByIdAndUserId(notificationId, userId)) {
+            return false;
+        }
+        userRepository.decrementUnreadForNotification(notificationId);
         notificationRepository.deleteById(notificationId);
+        return true;
     }
 
     @Transactional
     public void deleteNotificationForRequestAndType(Long requestId, String type) {
-        System.out.println("Deleting notification for request: " + requestId + " and type: " + type);
+        log.debug("Deleting {} notifications for request {}", type, requestId);
+        userRepository.decrementUnreadForRequestAndType(requestId, type);
         notificationRepository.deleteByRequestIdAndType(requestId, type);
     }
-}
\ No newline at end of file
+
+    @Scheduled(cron = "${notifications.unread-count.check-cron:0 45 3 * * *}")
+    public void repairUnreadCounts() {
+        int repaired = userRepository.recomputeUnreadNotificationCounts();
+        if (repaired > 0) {
+            log.warn("Unread notification counters corrected for {} users", repaired);
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package com.example.platform.service;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.platform.dto.NotificationDto;
+import com.example.platform.repository.NotificationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Доставка уведомлений по Server-Sent Events вместо опроса /api/notifications/user/{userId}.
+// Открытое соединение не держит поток: отправкой занимается небольшой общий пул,
+// у каждого соединения своя ограниченная очередь
+@Service
+public class NotificationStreamService {
+    private static final Logger log = LoggerFactory.getLogger(NotificationStreamService.class);
+
+    private static final String NOTIFICATION_EVENT = "notification";
+    // Клиент пропустил больше, чем помещается в догрузку, — ему нужно перечитать список целиком
+    private static final String RESYNC_EVENT = "resync";
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notifications.stream.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${notifications.stream.reconnect-ms:3000}")
+    private long reconnectMs;
+
+    @Value("${notifications.stream.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${notifications.stream.max-connections-per-user:5}")
+    private int maxConnectionsPerUser;
+
+    @Value("${notifications.stream.sender-threads:2}")
+    private int senderThreads;
+
+    private final Map<Long, List<Connection>> connections = new ConcurrentHashMap<>();
+    private final AtomicInteger connectionCount = new AtomicInteger();
+    private ExecutorService sender;
+    private Counter overflowCounter;
+
+    @PostConstruct
+    public void init() {
+        overflowCounter = Counter.builder("notifications.stream.overflow")
+                .description("Stream connections closed because the client fell behind")
+                .register(meterRegistry);
+        AtomicInteger threadNumber = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-stream-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Закрываем потоки до плавной остановки веб-сервера, иначе он ждёт их завершения
+    @EventListener(ContextClosedEvent.class)
+    public void closeAll() {
+        connections.values().forEach(list -> list.forEach(Connection::close));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+    }
+
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Connection connection = new Connection(userId, emitter);
+        emitter.onCompletion(() -> unregister(connection));
+        emitter.onTimeout(connection::close);
+        emitter.onError(error -> unregister(connection));
+        register(connection);
+
+        // Соединение уже получает новые события в очередь; пропущенные за время разрыва
+        // догружаем из БД и отправляем перед ними, повторы отсекаются по id
+        List<NotificationDto> missed = lastEventId != null
+                ? notificationRepository.findDtosByUserIdAfter(userId, lastEventId, PageRequest.of(0, bufferSize))
+                : List.of();
+        connection.start(missed, missed.size() >= bufferSize);
+        return emitter;
+    }
+
+    public boolean isConnected(Long userId) {
+        return connections.containsKey(userId);
+    }
+
+    // Вызывается писателем уведомлений (NotificationWriter) после коммита пачки
+    public void publish(Long userId, NotificationDto notification) {
+        List<Connection> userConnections = connections.get(userId);
+        if (userConnections == null) {
+            return;
+        }
+        StreamEvent event = new StreamEvent(notification.id(), NOTIFICATION_EVENT, notification);
+        for (Connection connection : userConnections) {
+            if (!connection.offer(event)) {
+                // Клиент не успевает читать: закрываем, он переподключится с Last-Event-ID и догрузит пропущенное
+                log.debug("Notification stream buffer overflow for user {}, closing connection", userId);
+                overflowCounter.increment();
+                connection.close();
+            }
+        }
+    }
+
+    // Комментарий-пинг держит соединение открытым через прокси и выявляет отвалившихся клиентов
+    @Scheduled(fixedRateString = "${notifications.stream.heartbeat-interval-ms:15000}")
+    public void heartbeat() {
+        connections.values().forEach(list -> list.forEach(connection -> connection.offer(StreamEvent.HEARTBEAT)));
+    }
+
+    public int connectionCount() {
+        return connectionCount.get();
+    }
+
+    private void register(Connection connection) {
+        List<Connection> userConnections = connections.compute(connection.userId, (id, list) -> {
+            List<Connection> result = list != null ? list : new CopyOnWriteArrayList<>();
+            result.add(connection);
+            return result;
+        });
+        connectionCount.incrementAndGet();
+        // Ограничиваем число вкладок одного пользователя: закрываем самые старые
+        while (userConnections.size() > maxConnectionsPerUser) {
+            userConnections.get(0).close();
+        }
+    }
+
+    private void unregister(Connection connection) {
+        if (!connection.markClosed()) {
+            return;
+        }
+        connectionCount.decrementAndGet();
+        connections.computeIfPresent(connection.userId, (id, list) -> {
+            list.remove(connection);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private record StreamEvent(Long id, String name, Object data) {
+        static final StreamEvent HEARTBEAT = new StreamEvent(null, null, null);
+    }
+
+    private final class Connection {
+        private final Long userId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<StreamEvent> queue = new ArrayDeque<>();
+        private boolean started;
+        private boolean draining;
+        private boolean closed;
+        // Читается и пишется только потоком, который сейчас разбирает очередь
+        private long lastSentId;
+
+        Connection(Long userId, SseEmitter emitter) {
+            this.userId = userId;
+            this.emitter = emitter;
+        }
+
+        synchronized void start(List<NotificationDto> missed, boolean truncated) {
+            for (int i = missed.size() - 1; i >= 0; i--) {
+                NotificationDto notification = missed.get(i);
+                queue.addFirst(new StreamEvent(notification.id(), NOTIFICATION_EVENT, notification));
+            }
+            if (truncated) {
+                queue.addFirst(new StreamEvent(null, RESYNC_EVENT, "missed"));
+            }
+            started = true;
+            scheduleDrain();
+        }
+
+        synchronized boolean offer(StreamEvent event) {
+            if (closed) {
+                return true;
+            }
+            if (queue.size() >= bufferSize) {
+                // Пинг при полной очереди не нужен, а переполнение событиями — повод закрыть соединение
+                return event == StreamEvent.HEARTBEAT;
+            }
+            queue.add(event);
+            scheduleDrain();
+            return true;
+        }
+
+        private void scheduleDrain() {
+            if (started && !draining && !queue.isEmpty()) {
+                draining = true;
+                sender.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                StreamEvent event;
+                synchronized (this) {
+                    event = closed ? null : queue.poll();
+                    if (event == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                if (event.id() != null && event.id() <= lastSentId) {
+                    continue;
+                }
+                try {
+                    emitter.send(toSse(event));
+                    if (event.id() != null) {
+                        lastSentId = event.id();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    unregister(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+
+        private SseEmitter.SseEventBuilder toSse(StreamEvent event) {
+            if (event == StreamEvent.HEARTBEAT) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            SseEmitter.SseEventBuilder builder = SseEmitter.event()
+                    .name(event.name())
+                    .data(event.data())
+                    .reconnectTime(reconnectMs);
+            if (event.id() != null) {
+                builder.id(String.valueOf(event.id()));
+            }
+            return builder;
+        }
+
+        synchronized boolean markClosed() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            queue.clear();
+            return true;
+        }
+
+        void close() {
+            unregister(this);
+            try {
+                emitter.complete();
+            } catch (IllegalStateException ignored) {
+                // Соединение уже завершено контейнером
+            }
+        }
+    }
+}
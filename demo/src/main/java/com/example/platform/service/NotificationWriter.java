@@ -0,0 +1,235 @@
+package com.example.platform.service;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.platform.dto.NewNotification;
+import com.example.platform.dto.NotificationDto;
+import com.example.platform.repository.NotificationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Запись уведомлений вне бизнес-транзакций: после коммита уведомление попадает в ограниченную очередь,
+// фоновый поток вставляет их пачками одним JDBC batch и одним UPDATE счётчиков на пачку
+@Service
+public class NotificationWriter {
+    private static final Logger log = LoggerFactory.getLogger(NotificationWriter.class);
+
+    private static final String INSERT_SQL = "INSERT INTO notifications " +
+            "(user_id, request_id, message, type, status, is_read, action_url, created_at, action_needed, from_user_id) " +
+            "VALUES (?, ?, ?, ?, 'UNREAD', false, ?, ?, ?, ?)";
+
+    private static final String INCREMENT_UNREAD_SQL =
+            "UPDATE users SET unread_notification_count = unread_notification_count + ? WHERE id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${notifications.writer.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${notifications.writer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${notifications.writer.poll-timeout-ms:200}")
+    private long pollTimeoutMs;
+
+    private BlockingQueue<NewNotification> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread worker;
+    private volatile boolean running;
+    private Counter writtenCounter;
+    private Counter overflowCounter;
+    private Counter droppedCounter;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        writtenCounter = Counter.builder("notifications.writer.written")
+                .description("Notifications inserted by the batch writer")
+                .register(meterRegistry);
+        overflowCounter = Counter.builder("notifications.writer.overflow")
+                .description("Notifications written in the caller thread because the queue was full")
+                .register(meterRegistry);
+        droppedCounter = Counter.builder("notifications.writer.dropped")
+                .description("Notifications that could not be inserted")
+                .register(meterRegistry);
+        running = true;
+        worker = new Thread(this::run, "notification-writer");
+        worker.start();
+    }
+
+    // Остаток очереди дописывается при остановке, пока пул соединений ещё доступен
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        worker.join(TimeUnit.SECONDS.toMillis(30));
+        List<NewNotification> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    // Вызывается в бизнес-транзакции: уведомление уходит в очередь только после её коммита
+    public void enqueueAfterCommit(NewNotification notification) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(notification);
+                }
+            });
+        } else {
+            enqueue(notification);
+        }
+    }
+
+    public void enqueue(NewNotification notification) {
+        if (!running || !queue.offer(notification)) {
+            // Очередь переполнена или писатель остановлен: пишем сразу в потоке вызывающего,
+            // это медленнее, но уведомление не теряется
+            overflowCounter.increment();
+            write(List.of(notification));
+        }
+    }
+
+    public int queueSize() {
+        return queue.size();
+    }
+
+    private void run() {
+        List<NewNotification> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                NewNotification first = queue.poll(pollTimeoutMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Notification writer failed to write a batch of {}", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void write(List<NewNotification> batch) {
+        List<Long> ids;
+        try {
+            ids = transactionTemplate.execute(status -> insert(batch));
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                NewNotification notification = batch.get(0);
+                log.error("Dropping {} notification for user {}: {}",
+                        notification.type(), notification.userId(), e.getMessage());
+                droppedCounter.increment();
+                return;
+            }
+            // Одна некорректная строка (например, пользователь уже удалён) не должна терять всю пачку
+            log.warn("Notification batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+            batch.forEach(notification -> write(List.of(notification)));
+            return;
+        }
+        writtenCounter.increment(batch.size());
+        publish(batch, ids);
+    }
+
+    private List<Long> insert(List<NewNotification> batch) {
+        List<Long> ids = jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, new String[] {"id"})) {
+                for (NewNotification notification : batch) {
+                    statement.setLong(1, notification.userId());
+                    statement.setObject(2, notification.requestId(), Types.BIGINT);
+                    statement.setString(3, notification.message());
+                    statement.setString(4, notification.type());
+                    statement.setString(5, notification.actionUrl());
+                    statement.setTimestamp(6, Timestamp.valueOf(notification.createdAt()));
+                    statement.setBoolean(7, notification.actionNeeded());
+                    statement.setObject(8, notification.fromUserId(), Types.BIGINT);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> keys = new ArrayList<>(batch.size());
+                try (ResultSet generatedKeys = statement.getGeneratedKeys()) {
+                    while (generatedKeys.next()) {
+                        keys.add(generatedKeys.getLong(1));
+                    }
+                }
+                return keys;
+            }
+        });
+
+        // Счётчики непрочитанных — одна строка на получателя; по возрастанию id, чтобы параллельные пачки не взаимоблокировались
+        Map<Long, Integer> unreadByUser = new TreeMap<>();
+        batch.forEach(notification -> unreadByUser.merge(notification.userId(), 1, Integer::sum));
+        List<Object[]> increments = new ArrayList<>(unreadByUser.size());
+        unreadByUser.forEach((userId, count) -> increments.add(new Object[] {count, userId}));
+        jdbcTemplate.batchUpdate(INCREMENT_UNREAD_SQL, increments);
+        return ids;
+    }
+
+    // В поток отправляем только тем, кто сейчас подключён: DTO дочитываются одним запросом на пачку
+    private void publish(List<NewNotification> batch, List<Long> ids) {
+        if (ids == null || ids.size() != batch.size()) {
+            return;
+        }
+        Map<Long, Long> recipientById = new TreeMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            Long userId = batch.get(i).userId();
+            if (notificationStreamService.isConnected(userId)) {
+                recipientById.put(ids.get(i), userId);
+            }
+        }
+        if (recipientById.isEmpty()) {
+            return;
+        }
+        for (NotificationDto notification : notificationRepository.findDtosByIdIn(recipientById.keySet())) {
+            notificationStreamService.publish(recipientById.get(notification.id()), notification);
+        }
+    }
+}
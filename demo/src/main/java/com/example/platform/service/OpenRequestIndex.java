@@ -0,0 +1,175 @@
+package com.example.platform.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.platform.dto.RequestSummaryDto;
+import com.example.platform.model.Request;
+import com.example.platform.repository.RequestRepository;
+
+// Индекс открытых запросов (ACTIVE/IN_PROGRESS) в памяти для запросов карты "рядом со мной".
+// Обновляется хуками RequestService после коммита и периодически сверяется с базой.
+@Service
+public class OpenRequestIndex {
+    private static final Logger log = LoggerFactory.getLogger(OpenRequestIndex.class);
+
+    public static final Set<String> OPEN_STATUSES = Set.of("ACTIVE", "IN_PROGRESS");
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Value("${open-requests.index.cell-size-degrees:0.05}")
+    private double cellSizeDegrees;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private GeoGridIndex<RequestSummaryDto> index;
+    private volatile boolean ready;
+    // Изменения, пришедшие во время сверки, повторяются на новом индексе перед подменой
+    private List<Consumer<GeoGridIndex<RequestSummaryDto>>> pendingDuringReconcile;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Подходит ли набор статусов для ответа из памяти (только открытые статусы)
+    public boolean covers(List<String> statuses) {
+        return ready && statuses != null && !statuses.isEmpty() && OPEN_STATUSES.containsAll(statuses);
+    }
+
+    public List<RequestSummaryDto> findNearby(double latitude, double longitude, double radiusMeters,
+                                              String category, List<String> statuses, int limit) {
+        lock.readLock().lock();
+        try {
+            return index.within(latitude, longitude, radiusMeters,
+                            point -> (category == null || category.equals("all") || category.equals(point.category()))
+                                    && statuses.contains(point.status()),
+                            limit)
+                    .stream()
+                    .map(GeoGridIndex.Hit::value)
+                    .toList();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return index == null ? 0 : index.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Создание запроса или смена его статуса: открытые запросы добавляются/обновляются, закрытые удаляются.
+    // Снимок берётся внутри транзакции, а применяется к индексу только после успешного коммита.
+    public void refreshAfterCommit(Request request) {
+        RequestSummaryDto snapshot = RequestSummaryDto.from(request);
+        afterCommit(grid -> {
+            if (!OPEN_STATUSES.contains(snapshot.status())) {
+                grid.remove(snapshot.id());
+                return;
+            }
+            grid.put(snapshot.id(), snapshot.latitude(), snapshot.longitude(), snapshot);
+        });
+    }
+
+    public void removeAfterCommit(Long requestId) {
+        afterCommit(grid -> grid.remove(requestId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${open-requests.index.reconcile-interval-ms:60000}",
+            initialDelayString = "${open-requests.index.reconcile-interval-ms:60000}")
+    public void reconcile() {
+        lock.writeLock().lock();
+        try {
+            pendingDuringReconcile = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        GeoGridIndex<RequestSummaryDto> fresh = new GeoGridIndex<>(cellSizeDegrees);
+        Set<Long> freshIds = new HashSet<>();
+        try {
+            for (RequestSummaryDto point : requestRepository.findOpenRequestSummaries()) {
+                fresh.put(point.id(), point.latitude(), point.longitude(), point);
+                freshIds.add(point.id());
+            }
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pendingDuringReconcile = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Consumer<GeoGridIndex<RequestSummaryDto>> change : pendingDuringReconcile) {
+                change.accept(fresh);
+            }
+            pendingDuringReconcile = null;
+            if (index != null) {
+                int missing = 0;
+                for (Long id : freshIds) {
+                    if (!index.contains(id)) {
+                        missing++;
+                    }
+                }
+                int stale = index.size() - (freshIds.size() - missing);
+                if (missing > 0 || stale > 0) {
+                    log.warn("Open request index drift repaired: {} missing, {} stale entries", missing, stale);
+                }
+            }
+            index = fresh;
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void afterCommit(Consumer<GeoGridIndex<RequestSummaryDto>> change) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change);
+                }
+            });
+        } else {
+            apply(change);
+        }
+    }
+
+    private void apply(Consumer<GeoGridIndex<RequestSummaryDto>> change) {
+        lock.writeLock().lock();
+        try {
+            if (index != null) {
+                change.accept(index);
+            }
+            if (pendingDuringReconcile != null) {
+                pendingDuringReconcile.add(change);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.platform.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Хэширование и проверка паролей BCrypt на отдельном ограниченном пуле. Дорогая по CPU операция не занимает
+// потоки сервлет-контейнера, поэтому всплеск входов не отнимает их у остальных эндпоинтов. Очередь пула
+// ограничена: когда она полна, задача сразу отклоняется (RejectedExecutionException), и клиент получает 503,
+// а не ждёт в растущей очереди. Пароли, сохранённые открытым текстом до перехода на BCrypt, проверяются
+// сравнением строк и перехэшируются при входе так же, как хэши с устаревшей стоимостью; остальные хэширует
+// после старта LegacyPasswordHashingService
+@Service
+public class PasswordHashingService {
+    private static final String BCRYPT_PREFIX = "$2";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${auth.password.bcrypt-strength:10}")
+    private int strength;
+
+    // 0 — половина доступных процессоров: часть ядер всегда остаётся остальным запросам
+    @Value("${auth.password.hashing-threads:0}")
+    private int threads;
+
+    @Value("${auth.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    private BCryptPasswordEncoder encoder;
+    private ThreadPoolExecutor executor;
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void init() {
+        encoder = new BCryptPasswordEncoder(strength);
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        AtomicInteger threadNumber = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hashing-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing");
+        rejectedCounter = Counter.builder("auth.password.rejected")
+                .description("Password hashing tasks rejected because the hashing queue was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public CompletableFuture<String> hash(String rawPassword) {
+        return submit(() -> encoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String storedPassword) {
+        if (rawPassword == null || storedPassword == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (!isBcrypt(storedPassword)) {
+            // Открытый текст: сравнение за постоянное время, в пул отправлять нечего
+            return CompletableFuture.completedFuture(MessageDigest.isEqual(
+                    rawPassword.getBytes(StandardCharsets.UTF_8), storedPassword.getBytes(StandardCharsets.UTF_8)));
+        }
+        return submit(() -> encoder.matches(rawPassword, storedPassword));
+    }
+
+    // Открытый текст или стоимость хэша отличается от настроенной (в обе стороны)
+    public boolean needsRehash(String storedPassword) {
+        if (!isBcrypt(storedPassword)) {
+            return true;
+        }
+        // Формат: $2a$10$<соль и хэш>
+        try {
+            return Integer.parseInt(storedPassword.substring(4, 6)) != strength;
+        } catch (RuntimeException e) {
+            return true;
+        }
+    }
+
+    private static boolean isBcrypt(String storedPassword) {
+        return storedPassword.startsWith(BCRYPT_PREFIX) && storedPassword.length() == 60;
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            return CompletableFuture.failedFuture(
+                    new RejectedExecutionException("Сервер перегружен, повторите попытку позже"));
+        }
+    }
+}
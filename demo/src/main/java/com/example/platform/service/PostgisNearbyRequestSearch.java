@@ -0,0 +1,51 @@
+package com.example.platform.service;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.platform.repository.RequestRepository;
+
+import jakarta.annotation.PostConstruct;
+
+// Поиск через GiST-индекс по колонке requests.location (ST_DWithin + KNN-сортировка)
+@Service
+@ConditionalOnProperty(name = "geo.search.mode", havingValue = "postgis", matchIfMissing = true)
+public class PostgisNearbyRequestSearch implements NearbyRequestSearch {
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Колонку создаёт миграция V3, сущность Request её не описывает и validate Hibernate её не проверит.
+    // Без неё каждый поиск в радиусе падал бы уже на запросе пользователя — останавливаем старт
+    @PostConstruct
+    public void checkSchema() {
+        Integer columns = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.columns " +
+                        "WHERE table_schema = current_schema() AND table_name = 'requests' AND column_name = 'location'",
+                Integer.class);
+        if (columns == null || columns == 0) {
+            throw new IllegalStateException("Column requests.location is missing: apply migration V3 "
+                    + "(PostGIS) or set geo.search.mode=memory");
+        }
+    }
+
+    @Override
+    public List<Long> findNearbyRequestIds(double latitude, double longitude, double radiusMeters,
+                                           String category, List<String> statuses, int limit) {
+        boolean anyStatus = statuses == null || statuses.isEmpty();
+        return requestRepository.findNearbyRequestIds(
+                latitude,
+                longitude,
+                radiusMeters,
+                category == null || category.equals("all") ? null : category,
+                anyStatus,
+                anyStatus ? List.of("") : statuses,
+                limit);
+    }
+}
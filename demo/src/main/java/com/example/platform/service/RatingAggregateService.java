@@ -0,0 +1,59 @@
+package com.example.platform.service;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.platform.dto.RatingAggregateDto;
+import com.example.platform.repository.UserRepository;
+
+// Поддерживает агрегат рейтинга пользователя (rating_sum, rating_count, helped_count)
+// вместо пересчёта среднего по всем отзывам при каждом чтении
+@Service
+public class RatingAggregateService {
+    private static final Logger log = LoggerFactory.getLogger(RatingAggregateService.class);
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CacheEvictionService cacheEvictionService;
+
+    // Вызывается в транзакции добавления отзыва. Строка остаётся заблокированной до коммита,
+    // поэтому возвращённые значения — ровно то состояние, которое будет зафиксировано
+    @Transactional(propagation = Propagation.MANDATORY)
+    public RatingAggregateDto addRating(Long helperId, int rating) {
+        if (userRepository.addRating(helperId, rating) != 1) {
+            throw new RuntimeException("Помощник с ID " + helperId + " не найден");
+        }
+        return userRepository.findRatingAggregate(helperId);
+    }
+
+    // Вызывается в транзакции подтверждения помощи: один UPDATE на всех подтверждённых помощников
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void addCompletedHelps(Collection<Long> helperIds) {
+        userRepository.incrementHelpedCounts(helperIds);
+    }
+
+    // Проверка согласованности агрегата с исходными таблицами и исправление расхождений
+    @Scheduled(cron = "${rating.aggregate.check-cron:0 30 3 * * *}")
+    @Transactional
+    public int repairDrift() {
+        List<Long> driftedUserIds = userRepository.findUsersWithAggregateDrift();
+        if (driftedUserIds.isEmpty()) {
+            return 0;
+        }
+        log.warn("Rating aggregate drift detected for {} users, recomputing", driftedUserIds.size());
+        userRepository.recomputeAggregates(driftedUserIds);
+        userRepository.recomputeRoundedRatings(driftedUserIds);
+        cacheEvictionService.evictAllUsers();
+        return driftedUserIds.size();
+    }
+}
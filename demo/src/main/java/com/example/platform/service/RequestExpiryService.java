@@ -0,0 +1,177 @@
+package com.example.platform.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.platform.dto.NotificationDto;
+import com.example.platform.dto.RequestSummaryDto;
+import com.example.platform.repository.NotificationRepository;
+import com.example.platform.repository.RequestRepository;
+import com.example.platform.repository.UserRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+
+// Автоматическая отмена открытых запросов с истёкшим сроком. Работает пачками по id:
+// каждая пачка — одна короткая транзакция из нескольких UPDATE/INSERT ... SELECT без загрузки сущностей
+@Service
+public class RequestExpiryService {
+    private static final Logger log = LoggerFactory.getLogger(RequestExpiryService.class);
+
+    static final String JOB_NAME = "request-expiry";
+    static final String NOTIFICATION_TYPE = "REQUEST_EXPIRED";
+
+    @Autowired
+    private RequestRepository requestRepository;
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JobLockService jobLockService;
+
+    @Autowired
+    private OpenRequestIndex openRequestIndex;
+
+    @Autowired
+    private DeadlineReminderService deadlineReminderService;
+
+    @Autowired
+    private CacheEvictionService cacheEvictionService;
+
+    @Autowired
+    private NotificationStreamService notificationStreamService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${requests.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${requests.expiry.max-chunks-per-run:100}")
+    private int maxChunksPerRun;
+
+    @Value("${requests.expiry.lease-ms:300000}")
+    private long leaseMs;
+
+    private TransactionTemplate transactionTemplate;
+    private Counter expiredCounter;
+    private DistributionSummary rowsPerRun;
+    private Timer runTimer;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        expiredCounter = Counter.builder("requests.expiry.expired")
+                .description("Requests cancelled because their deadline passed")
+                .register(meterRegistry);
+        rowsPerRun = DistributionSummary.builder("requests.expiry.run.rows")
+                .description("Requests expired per scheduler run")
+                .register(meterRegistry);
+        runTimer = Timer.builder("requests.expiry.run")
+                .description("Duration of expiry scheduler runs that held the lock")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${requests.expiry.interval-ms:60000}",
+            initialDelayString = "${requests.expiry.initial-delay-ms:30000}")
+    public void expireOverdueRequests() {
+        Duration lease = Duration.ofMillis(leaseMs);
+        if (!jobLockService.tryAcquire(JOB_NAME, lease)) {
+            return;
+        }
+        try {
+            int expired = runTimer.record(() -> runChunks(lease));
+            rowsPerRun.record(expired);
+            if (expired > 0) {
+                log.info("Expired {} overdue requests", expired);
+            }
+        } finally {
+            jobLockService.release(JOB_NAME);
+        }
+    }
+
+    private int runChunks(Duration lease) {
+        int total = 0;
+        for (int chunk = 0; chunk < maxChunksPerRun; chunk++) {
+            LocalDateTime now = LocalDateTime.now();
+            Integer[] selected = new Integer[1];
+            Integer expired = transactionTemplate.execute(status -> {
+                List<Long> ids = requestRepository.findExpiredActiveRequestIds(now, PageRequest.of(0, chunkSize));
+                selected[0] = ids.size();
+                return ids.isEmpty() ? 0 : expireChunk(ids, now);
+            });
+            total += expired;
+            expiredCounter.increment(expired);
+            // Пачка неполная — просроченных больше нет; иначе продлеваем аренду перед следующей
+            if (selected[0] < chunkSize || !jobLockService.tryAcquire(JOB_NAME, lease)) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    private int expireChunk(List<Long> ids, LocalDateTime now) {
+        int expired = requestRepository.expireRequests(ids);
+        if (expired == 0) {
+            return 0;
+        }
+        notificationRepository.insertExpiredNotifications(ids, now);
+        userRepository.incrementUnreadForExpiredRequests(ids);
+
+        // Карта открытых запросов, колесо напоминаний и кэш карточек обновляются после коммита пачки
+        ids.forEach(id -> {
+            openRequestIndex.removeAfterCommit(id);
+            deadlineReminderService.removeAfterCommit(id);
+            cacheEvictionService.evictRequest(id);
+        });
+        publishAfterCommit(ids);
+        return expired;
+    }
+
+    // Подключённым владельцам отправляем новые уведомления в поток; при наличии слушателей — два запроса на пачку
+    private void publishAfterCommit(List<Long> ids) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                Map<Long, Long> ownerByRequestId = new HashMap<>();
+                for (RequestSummaryDto request : requestRepository.findSummariesByIdIn(ids)) {
+                    if (request.user() != null && notificationStreamService.isConnected(request.user().id())) {
+                        ownerByRequestId.put(request.id(), request.user().id());
+                    }
+                }
+                if (ownerByRequestId.isEmpty()) {
+                    return;
+                }
+                for (NotificationDto notification : notificationRepository.findDtosByRequestIdInAndType(
+                        ownerByRequestId.keySet(), NOTIFICATION_TYPE)) {
+                    notificationStreamService.publish(ownerByRequestId.get(notification.request().id()), notification);
+                }
+            }
+        });
+    }
+}
@@ -3,23 +3,43 @@ package com.example.platform.service;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.example.platform.config.CacheConfig;
+import com.example.platform.dto.CursorPage;
+import com.example.platform.dto.HelpStatusCountsDto;
+import com.example.platform.dto.RequestCursor;
+import com.example.platform.dto.RequestFilter;
+import com.example.platform.dto.RequestSummaryDto;
 import com.example.platform.model.HelpHistory;
 import com.example.platform.model.Request;
 import com.example.platform.model.User;
 import com.example.platform.repository.HelpHistoryRepository;
 import com.example.platform.repository.NotificationRepository;
 import com.example.platform.repository.RequestRepository;
+import com.example.platform.repository.RequestSpecifications;
 import com.example.platform.repository.ReviewRepository;
 import com.example.platform.repository.UserRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("service.calls")
 public class RequestService {
+    private static final Logger log = LoggerFactory.getLogger(RequestService.class);
+
     @Autowired
     private RequestRepository requestRepository;
 
@@ -38,22 +58,32 @@ public class RequestService {
     @Autowired
     private ReviewRepository reviewRepository;
 
+    @Autowired
+    private NearbyRequestSearch nearbyRequestSearch;
+
+    @Autowired
+    private OpenRequestIndex openRequestIndex;
+
+    @Autowired
+    private DeadlineReminderService deadlineReminderService;
+
+    @Autowired
+    private CacheEvictionService cacheEvictionService;
+
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+
     @Transactional
-    public Request createRequest(Long userId, Request request) {
+    public RequestSummaryDto createRequest(Long userId, Request request) {
         try {
-            System.out.println("Creating request for userId: " + userId);
+            log.debug("Creating request for user {}", userId);
 
             if (userId == null || userId == 0) {
                 throw new RuntimeException("Invalid userId: " + userId);
             }
 
             User user = userRepository.findById(userId)
-                    .orElseThrow(() -> {
-                        System.out.println("User not found for id: " + userId);
-                        return new RuntimeException("User not found for id: " + userId);
-                    });
-
-            System.out.println("Found user: " + user.getId() + ", " + user.getEmail());
+                    .orElseThrow(() -> new RuntimeException("User not found for id: " + userId));
 
             // Проверяем, что deadlineDate не в прошлом
             if (request.getDeadlineDate().isBefore(LocalDateTime.now())) {
@@ -73,46 +103,24 @@ public class RequestService {
             }
 
             Request savedRequest = requestRepository.save(request);
-            System.out.println("Request saved successfully with id: " + savedRequest.getId());
-            return savedRequest;
+            openRequestIndex.refreshAfterCommit(savedRequest);
+            deadlineReminderService.refreshAfterCommit(savedRequest);
+            log.debug("Request {} created by user {}", savedRequest.getId(), userId);
+            return RequestSummaryDto.from(savedRequest);
         } catch (Exception e) {
-            System.err.println("Error in createRequest: " + e.getMessage());
-            e.printStackTrace();
+            log.warn("Failed to create request for user {}: {}", userId, e.getMessage());
             throw new RuntimeException("Error creating request: " + e.getMessage());
         }
     }
 
-    public List<Request> getActiveRequests() {
-        List<Request> activeRequests = requestRepository.findByStatus("ACTIVE");
-        List<Request> inProgressRequests = requestRepository.findByStatus("IN_PROGRESS");
-        activeRequests.addAll(inProgressRequests);
-
-        // Добавляем рейтинг пользователя (создателя) в каждый Request
-        for (Request req : activeRequests) {
-            if (req.getUser() != null) {
-                // Вычисляем средний рейтинг из отзывов
-                double avgRating = 0;
-                var reviews = reviewRepository.findByHelperId(req.getUser().getId());
-                if (reviews != null && !reviews.isEmpty()) {
-                    avgRating = reviews.stream()
-                            .mapToInt(r -> r.getRating())
-                            .average()
-                            .orElse(0);
-                }
-
-                // Устанавливаем рейтинг пользователя
-                req.getUser().setRating((int)Math.round(avgRating));
-
-                // Убеждаемся, что имя пользователя установлено
-                if (req.getUser().getName() == null || req.getUser().getName().trim().isEmpty()) {
-                    req.getUser().setName("Пользователь");
-                }
-            }
-        }
-        return activeRequests;
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> getActiveRequests() {
+        // Один запрос на ленту вместе с создателями и их агрегированным рейтингом
+        return requestRepository.findFeedByStatuses(List.of("ACTIVE", "IN_PROGRESS"));
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.REQUESTS, key = "#requestId")
     public void deleteRequest(Long requestId, Long userId) {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
@@ -129,7 +137,8 @@ public class RequestService {
     }
 
     @Transactional
-    public Request updateRequestStatus(Long requestId, String status, Long userId) {
+    @CacheEvict(cacheNames = CacheConfig.REQUESTS, key = "#requestId")
+    public RequestSummaryDto updateRequestStatus(Long requestId, String status, Long userId) {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
 
@@ -137,16 +146,20 @@ public class RequestService {
             throw new RuntimeException("You can only update your own requests");
         }
 
-        request.setStatus(status);
+        HelpLifecycle.moveRequest(request, status);
         if ("COMPLETED".equals(status)) {
             // request.setCompletionDate(LocalDateTime.now()); // Удалено, так как поле удалено из Request
         }
-        return requestRepository.save(request);
+        Request savedRequest = requestRepository.save(request);
+        openRequestIndex.refreshAfterCommit(savedRequest);
+        deadlineReminderService.refreshAfterCommit(savedRequest);
+        return RequestSummaryDto.from(savedRequest);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.REQUESTS, key = "#requestId")
     public void respondToRequest(Long userId, Long requestId) {
-        Request request = requestRepository.findById(requestId)
+        Request request = requestRepository.findForTransition(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
 
         User helper = userRepository.findById(userId)
@@ -157,14 +170,11 @@ public class RequestService {
             throw new RuntimeException("Вы не можете откликнуться на свой собственный запрос");
         }
 
-        // Проверяем, не откликнулся ли уже этот пользователь
-        List<HelpHistory> existingHelps = helpHistoryRepository.findByRequestIdAndHelperIdOrderByStartDateDesc(requestId, userId);
-        if (!existingHelps.isEmpty()) {
-            HelpHistory lastHelp = existingHelps.get(0);
-            if ("IN_PROGRESS".equals(lastHelp.getStatus()) || "PENDING_CONFIRMATION".equals(lastHelp.getStatus())) {
-                throw new RuntimeException("Вы уже откликнулись на этот запрос");
-            }
+        // Повторный отклик (двойной клик, повтор после таймаута) ничего не меняет
+        if (helpHistoryRepository.existsOpenHelp(requestId, userId)) {
+            return;
         }
+        HelpLifecycle.moveRequest(request, "IN_PROGRESS");
 
         // Создаем новую запись в истории помощи
         HelpHistory helpHistory = new HelpHistory();
@@ -176,28 +186,33 @@ public class RequestService {
         // Сохраняем запись в истории
         helpHistoryRepository.save(helpHistory);
 
-        // Обновляем статус запроса
-        request.setStatus("IN_PROGRESS");
         requestRepository.save(request);
+        openRequestIndex.refreshAfterCommit(request);
+        deadlineReminderService.refreshAfterCommit(request);
     }
 
-    public List<Request> getUserRequests(Long userId) {
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> getUserRequests(Long userId) {
         return requestRepository.findAllUserRequests(userId);
     }
 
-    public List<Request> getHelpedRequestsByUser(Long userId) {
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> getHelpedRequestsByUser(Long userId) {
         return requestRepository.findAllHelpedRequests(userId);
     }
 
-    public List<Request> getArchivedRequests(Long userId) {
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> getArchivedRequests(Long userId) {
         return requestRepository.findArchivedRequests(userId);
     }
 
-    public List<Request> getCompletedRequests(Long userId) {
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> getCompletedRequests(Long userId) {
         return requestRepository.findCompletedRequests(userId);
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.REQUESTS, key = "#requestId")
     public void archiveRequest(Long requestId, Long userId) {
         Request request = requestRepository.findById(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
@@ -209,6 +224,8 @@ public class RequestService {
         // Вместо физического удаления, устанавливаем флаг isArchived в true
         request.setArchived(true);
         requestRepository.save(request);
+        openRequestIndex.removeAfterCommit(requestId);
+        deadlineReminderService.removeAfterCommit(requestId);
 
         // Удаление записей helpHistory теперь не нужно, т.к. связь ON DELETE CASCADE удалена в БД,
         // а при архивации мы не удаляем сам запрос, поэтому история сохраняется.
@@ -219,58 +236,69 @@ public class RequestService {
     }
 
     @Transactional
-    public Request completeHelp(Long requestId, Long helperId) {
+    public RequestSummaryDto completeHelp(Long requestId, Long helperId) {
+        Request request = requestRepository.findForTransition(requestId)
+                .orElseThrow(() -> new RuntimeException("Request not found"));
+
         // Находим запись в help_history для этого запроса и этого помощника со статусом IN_PROGRESS
         List<HelpHistory> activeHelps = helpHistoryRepository.findActiveHelpsByRequestAndHelper(requestId, helperId);
 
         if (activeHelps.isEmpty()) {
+            // Помощь уже отмечена выполненной этим же вызовом раньше — повтор не ошибка
+            if (isLatestHelpInStatus(requestId, helperId, "PENDING_CONFIRMATION")) {
+                return RequestSummaryDto.from(request);
+            }
             throw new RuntimeException("Активная запись истории помощи для этого запроса и помощника не найдена");
         }
 
-        // Предполагаем, что есть только одна активная запись IN_PROGRESS для данной пары запрос-помощник
+        // Уникальный индекс uq_help_history_open гарантирует одну активную запись для пары запрос-помощник
         HelpHistory helpHistory = activeHelps.get(0);
 
         // Обновляем запись в help_history
-        helpHistory.setStatus("PENDING_CONFIRMATION"); // Или сразу "COMPLETED" в зависимости от флоу
+        HelpLifecycle.moveHelp(helpHistory, "PENDING_CONFIRMATION");
         helpHistory.setEndDate(LocalDateTime.now());
         helpHistoryRepository.save(helpHistory);
 
-        // Создаем уведомление для создателя запроса
-        notificationService.createHelpCompletionNotification(requestId, helperId);
-
-        // Возвращаем обновленный запрос (статус запроса в таблице requests обновляется при подтверждении/отклонении)
-        Request request = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
+        // Создаем уведомление для создателя запроса из уже загруженных запроса и помощника
+        notificationService.createHelpCompletionNotification(request, helpHistory.getHelper());
 
-        return request; // Или requestRepository.save(request) если нужно сохранить изменения в запросе сразу
+        // Статус запроса в таблице requests обновляется при подтверждении/отклонении
+        return RequestSummaryDto.from(request);
     }
 
     @Transactional
-    public Request cancelHelp(Long requestId, Long helperId) {
+    @CacheEvict(cacheNames = CacheConfig.REQUESTS, key = "#requestId")
+    public RequestSummaryDto cancelHelp(Long requestId, Long helperId) {
+        Request request = requestRepository.findForTransition(requestId)
+                .orElseThrow(() -> new RuntimeException("Request not found"));
+
         // Находим запись в help_history для этого запроса и этого помощника со статусом IN_PROGRESS
         List<HelpHistory> activeHelps = helpHistoryRepository.findActiveHelpsByRequestAndHelper(requestId, helperId);
 
         if (activeHelps.isEmpty()) {
+            if (isLatestHelpInStatus(requestId, helperId, "CANCELLED")) {
+                return RequestSummaryDto.from(request);
+            }
             throw new RuntimeException("Активная запись истории помощи для этого запроса и помощника не найдена");
         }
 
-        // Предполагаем, что есть только одна активная запись IN_PROGRESS для данной пары запрос-помощник
+        // Уникальный индекс uq_help_history_open гарантирует одну активную запись для пары запрос-помощник
         HelpHistory helpHistory = activeHelps.get(0);
 
         // Обновляем запись в help_history
-        helpHistory.setStatus("CANCELLED");
+        HelpLifecycle.moveHelp(helpHistory, "CANCELLED");
         helpHistory.setEndDate(LocalDateTime.now());
         helpHistoryRepository.save(helpHistory);
 
         // Проверяем, остались ли еще активные помощники по этому запросу в help_history
-        List<HelpHistory> remainingActiveHelps = helpHistoryRepository.findByRequestIdAndStatus(requestId, "IN_PROGRESS");
+        HelpStatusCountsDto remaining = helpHistoryRepository.countOpenHelps(requestId);
 
         // Если активных помощников не осталось, меняем статус запроса на ACTIVE
-        if (remainingActiveHelps.isEmpty()) {
-            Request request = requestRepository.findById(requestId)
-                    .orElseThrow(() -> new RuntimeException("Request not found"));
-            request.setStatus("ACTIVE");
+        if (remaining.inProgress() == 0 && "IN_PROGRESS".equals(request.getStatus())) {
+            HelpLifecycle.moveRequest(request, "ACTIVE");
             requestRepository.save(request);
+            openRequestIndex.refreshAfterCommit(request);
+            deadlineReminderService.refreshAfterCommit(request);
         }
 
         // Удаляем сброс activeHelper, helpStartDate
@@ -278,191 +306,165 @@ public class RequestService {
         // request.setHelpStartDate(null); // Удалено
 
         // Возвращаем запрос (статус запроса мог измениться)
-        Request request = requestRepository.findById(requestId)
-                .orElseThrow(() -> new RuntimeException("Request not found"));
-        return request;
+        return RequestSummaryDto.from(request);
     }
 
-    public List<Request> getActiveHelpRequests(Long userId) {
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> getActiveHelpRequests(Long userId) {
         return requestRepository.findByHelperIdAndStatus(userId, "IN_PROGRESS");
     }
 
-    public List<Request> getAllHelpedRequests(Long userId) {
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> getAllHelpedRequests(Long userId) {
         return requestRepository.findAllHelpedRequests(userId);
     }
 
-    public List<Request> getCompletedHelpRequests(Long userId) {
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> getCompletedHelpRequests(Long userId) {
         return requestRepository.findCompletedHelpRequests(userId);
     }
 
-    public List<Request> filterRequests(String category, List<String> statuses, Double maxDistance,
-                                        Double userLat, Double userLon) {
-        // Если указаны координаты и расстояние, используем пространственный запрос
-        if (maxDistance != null && userLat != null && userLon != null && maxDistance > 0) {
-            // Конвертируем расстояние из метров в градусы (примерно)
-            double distanceInDegrees = maxDistance / 111000.0; // 1 градус ≈ 111 км
-            List<Request> nearbyRequests = requestRepository.findNearbyRequests(userLat, userLon, distanceInDegrees);
-
-            // Дополнительная фильтрация по категории и статусу
-            return nearbyRequests.stream()
-                    .filter(request -> {
-                        boolean matches = true;
-                        if (category != null && !category.equals("all")) {
-                            matches = matches && request.getCategory().equals(category);
-                        }
-                        if (statuses != null && !statuses.isEmpty()) {
-                            matches = matches && statuses.contains(request.getStatus());
-                        }
-                        return matches;
-                    })
-                    .collect(Collectors.toList());
+    // Поиск в радиусе (в метрах) с сортировкой по расстоянию
+    @Transactional(readOnly = true)
+    public List<RequestSummaryDto> findNearbyRequests(String category, List<String> statuses, double maxDistance,
+                                                      double userLat, double userLon, int limit) {
+        // Карта открытых запросов обслуживается из индекса в памяти без обращения к базе
+        if (openRequestIndex.covers(statuses)) {
+            return openRequestIndex.findNearby(userLat, userLon, maxDistance, category, statuses, limit);
+        }
+
+        List<Long> ids = nearbyRequestSearch.findNearbyRequestIds(userLat, userLon, maxDistance, category, statuses, limit);
+        if (ids.isEmpty()) {
+            return List.of();
         }
 
-        // Если координаты не указаны, используем обычную фильтрацию
-        List<Request> requests = requestRepository.findAll();
-        return requests.stream()
-                .filter(request -> {
-                    boolean matches = true;
-                    if (category != null && !category.equals("all")) {
-                        matches = matches && request.getCategory().equals(category);
-                    }
-                    if (statuses != null && !statuses.isEmpty()) {
-                        matches = matches && statuses.contains(request.getStatus());
-                    }
-                    return matches;
-                })
+        // Восстанавливаем порядок по расстоянию после загрузки по id
+        Map<Long, RequestSummaryDto> byId = requestRepository.findSummariesByIdIn(ids).stream()
+                .collect(Collectors.toMap(RequestSummaryDto::id, Function.identity()));
+        return ids.stream()
+                .map(byId::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
-    public Request getRequestById(Long requestId) {
-        return requestRepository.findById(requestId).orElse(null);
+    // Все условия фильтра выполняются в базе одним запросом, страницы — по курсору (creation_date, id)
+    @Transactional(readOnly = true)
+    public CursorPage<RequestSummaryDto> filterRequests(RequestFilter filter, String cursor, int limit) {
+        RequestCursor position = cursor != null && !cursor.isEmpty() ? RequestCursor.decode(cursor) : null;
+
+        // Берём на одну строку больше, чтобы понять, есть ли следующая страница
+        List<RequestSummaryDto> rows = requestRepository.findSummaries(
+                RequestSpecifications.matching(filter, position), limit + 1);
+
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            rows = rows.subList(0, limit);
+            RequestSummaryDto last = rows.get(limit - 1);
+            nextCursor = new RequestCursor(last.creationDate(), last.id()).encode();
+        }
+        return new CursorPage<>(rows, nextCursor);
     }
 
-    @Transactional
-    public Request confirmHelpCompletion(Long requestId, Long userId) {
-        System.out.println("Confirming help completion for request: " + requestId + ", userId: " + userId);
+    // Число всех запросов под фильтром, без учёта страницы
+    @Transactional(readOnly = true)
+    public long countRequests(RequestFilter filter) {
+        return requestRepository.countMatching(RequestSpecifications.matching(filter, null));
+    }
 
-        Request request = requestRepository.findById(requestId)
-                .orElseThrow(() -> {
-                    System.out.println("Request not found: " + requestId);
-                    return new RuntimeException("Request not found");
-                });
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.REQUESTS, unless = "#result == null")
+    public RequestSummaryDto getRequestById(Long requestId) {
+        return requestRepository.findSummaryById(requestId).orElse(null);
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = CacheConfig.REQUESTS, key = "#requestId")
+    public RequestSummaryDto confirmHelpCompletion(Long requestId, Long userId) {
+        Request request = requestRepository.findForTransition(requestId)
+                .orElseThrow(() -> new RuntimeException("Request not found"));
 
         if (!request.getUser().getId().equals(userId)) {
-            System.out.println("User " + userId + " is not the creator of request " + requestId);
             throw new RuntimeException("Only the request creator can confirm help completion");
         }
 
-        // Находим записи в help_history со статусом PENDING_CONFIRMATION для этого запроса
-        List<HelpHistory> pendingHelps = helpHistoryRepository.findByRequestIdAndStatus(requestId, "PENDING_CONFIRMATION");
-        System.out.println("Found " + pendingHelps.size() + " pending help records");
-
-        // Обрабатываем все записи в статусе PENDING_CONFIRMATION для данного запроса
-        for (HelpHistory helpHistory : pendingHelps) {
-            // Обновляем статус в help_history на COMPLETED
-            helpHistory.setStatus("COMPLETED");
-            // helpHistory.setEndDate(LocalDateTime.now()); // endDate уже установлен в completeHelp
-            helpHistoryRepository.save(helpHistory);
-            System.out.println("Updated help history status to COMPLETED for helpHistory id: " + helpHistory.getId());
-
-            // Добавляем помощника в список helpers запроса, если его там еще нет (на случай, если multiple helpers)
-            User helper = helpHistory.getHelper();
-            if (request.getHelpers() == null) {
-                request.setHelpers(new ArrayList<>());
-            }
-            if (!request.getHelpers().contains(helper)) {
-                request.getHelpers().add(helper);
-                System.out.println("Added helper " + helper.getId() + " to request helpers list");
-            }
+        // Помощники, ожидающие подтверждения: нужны для агрегата рейтинга, кэша и списка helpers
+        List<User> pendingHelpers = helpHistoryRepository.findPendingHelpers(requestId);
+        log.debug("Confirming {} pending helps for request {}", pendingHelpers.size(), requestId);
+
+        // Подтверждать нечего: повторное подтверждение или помощь уже отклонена параллельно
+        if (pendingHelpers.isEmpty()) {
+            return RequestSummaryDto.from(request);
         }
 
-        // Проверяем, есть ли еще активные (IN_PROGRESS) или ожидающие подтверждения (PENDING_CONFIRMATION) записи в help_history для этого запроса
-        List<HelpHistory> remainingActiveOrPending = helpHistoryRepository.findByRequestIdAndStatus(requestId, "IN_PROGRESS");
-        remainingActiveOrPending.addAll(helpHistoryRepository.findByRequestIdAndStatus(requestId, "PENDING_CONFIRMATION"));
+        // Все записи PENDING_CONFIRMATION -> COMPLETED одним UPDATE (endDate уже установлен в completeHelp);
+        // число запросов не зависит от количества помощников
+        HelpLifecycle.requireHelpTransition("PENDING_CONFIRMATION", "COMPLETED");
+        helpHistoryRepository.completePending(requestId);
 
-        // Если активных или ожидающих подтверждения записей не осталось, меняем статус запроса на COMPLETED
-        if (remainingActiveOrPending.isEmpty()) {
-            request.setStatus("COMPLETED");
-            // request.setCompletionDate(LocalDateTime.now()); // completionDate удалено
-            System.out.println("Updated request status to COMPLETED");
+        List<Long> helperIds = pendingHelpers.stream().map(User::getId).toList();
+        requestRepository.addHelpers(requestId, helperIds);
+        ratingAggregateService.addCompletedHelps(helperIds);
+        pendingHelpers.forEach(helper -> cacheEvictionService.evictUser(helper.getId(), helper.getEmail()));
+
+        // Если активных (IN_PROGRESS) или ожидающих подтверждения записей не осталось, меняем статус запроса на COMPLETED
+        if (!helpHistoryRepository.countOpenHelps(requestId).hasOpenHelps()) {
+            HelpLifecycle.moveRequest(request, "COMPLETED");
         }
 
         // Удаляем сброс activeHelper и возврат статуса запроса в ACTIVE (теперь статус COMPLETED)
         // request.setActiveHelper(null); // Удалено
         // request.setStatus("ACTIVE"); // Удалено
 
-        Request savedRequest = requestRepository.save(request); // Сохраняем изменения в запросе (статус и helpers)
+        Request savedRequest = requestRepository.save(request); // Сохраняем изменения в запросе (статус)
+        openRequestIndex.refreshAfterCommit(savedRequest);
+        deadlineReminderService.refreshAfterCommit(savedRequest);
 
         // Удаляем уведомление о завершении помощи после подтверждения
         notificationService.deleteNotificationForRequestAndType(requestId, "HELP_COMPLETION");
-        System.out.println("Deleted help completion notification for request: " + requestId);
 
-        return savedRequest;
+        return RequestSummaryDto.from(savedRequest);
     }
 
-    // @Scheduled(fixedRate = 300000) // Проверка каждые 5 минут
-    // @Transactional
-    // public void checkAndCleanupExpiredRequests() {
-    //     LocalDateTime now = LocalDateTime.now();
-    //     List<Request> expiredRequests = requestRepository.findExpiredActiveRequests(now);
-
-    //     for (Request request : expiredRequests) {
-    //         request.setIsExpired(true);
-    //         request.setStatus("CANCELLED");
-    //         request.setArchived(true);
-
-    //         // Создаем уведомление для владельца запроса
-    //         Notification notification = new Notification();
-    //         notification.setUser(request.getUser());
-    //         notification.setRequest(request);
-    //         notification.setMessage("Ваш запрос '" + request.getDescription() + "' был автоматически отменен из-за истечения срока");
-    //         notification.setType("REQUEST_EXPIRED");
-    //         notification.setStatus("UNREAD");
-    //         notification.setCreatedAt(LocalDateTime.now());
-    //         notification.setActionNeeded(false);
-
-
-    //         notificationRepository.save(notification);
-    //     }
-
-    //     requestRepository.saveAll(expiredRequests);
-    // }
+    // Просроченные запросы отменяет RequestExpiryService
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.REQUESTS, key = "#requestId")
     public void rejectHelpCompletion(Long requestId, Long userId) {
-        Request request = requestRepository.findById(requestId)
+        Request request = requestRepository.findForTransition(requestId)
                 .orElseThrow(() -> new RuntimeException("Request not found"));
 
         if (!request.getUser().getId().equals(userId)) {
             throw new RuntimeException("Only the request creator can reject help completion");
         }
 
-        // Находим записи в help_history со статусом PENDING_CONFIRMATION для этого запроса
-        List<HelpHistory> pendingHelps = helpHistoryRepository.findByRequestIdAndStatus(requestId, "PENDING_CONFIRMATION");
+        // Все записи PENDING_CONFIRMATION -> CANCELLED одним UPDATE
+        HelpLifecycle.requireHelpTransition("PENDING_CONFIRMATION", "CANCELLED");
+        int rejected = helpHistoryRepository.cancelPending(requestId, LocalDateTime.now());
 
-        // Обновляем статус каждой такой записи в help_history на CANCELLED
-        for (HelpHistory helpHistory : pendingHelps) {
-            helpHistory.setStatus("CANCELLED");
-            helpHistory.setEndDate(LocalDateTime.now()); // Устанавливаем дату завершения отмены
-            helpHistoryRepository.save(helpHistory);
+        // Отклонять нечего: повторный вызов или помощь уже подтверждена параллельно
+        if (rejected == 0) {
+            return;
         }
 
-        // Проверяем, есть ли еще активные (IN_PROGRESS) записи в help_history для этого запроса
-        List<HelpHistory> remainingActive = helpHistoryRepository.findByRequestIdAndStatus(requestId, "IN_PROGRESS");
-
         // Если активных помощников не осталось, возвращаем статус запроса на ACTIVE
-        if (remainingActive.isEmpty()) {
-            request.setStatus("ACTIVE");
+        if (helpHistoryRepository.countOpenHelps(requestId).inProgress() == 0) {
+            HelpLifecycle.moveRequest(request, "ACTIVE");
         }
 
-        // Удаляем сброс activeHelper и возврат статуса запроса в ACTIVE (теперь статус зависит от remainingActive)
+        // Удаляем сброс activeHelper и возврат статуса запроса в ACTIVE (теперь статус зависит от оставшихся IN_PROGRESS)
         // request.setActiveHelper(null); // Удалено
         // request.setStatus("ACTIVE"); // Удалено
 
         requestRepository.save(request); // Сохраняем изменения в запросе (статус)
+        openRequestIndex.refreshAfterCommit(request);
+        deadlineReminderService.refreshAfterCommit(request);
 
         // Удаляем уведомление о завершении помощи после отклонения
         notificationService.deleteNotificationForRequestAndType(requestId, "HELP_COMPLETION");
     }
-}
 
+    private boolean isLatestHelpInStatus(Long requestId, Long helperId, String status) {
+        List<String> statuses = helpHistoryRepository.findLatestStatuses(requestId, helperId, PageRequest.of(0, 1));
+        return !statuses.isEmpty() && status.equals(statuses.get(0));
+    }
+}
@@ -1,19 +1,31 @@
 package com.example.platform.service;
 
+import com.example.platform.config.CacheConfig;
+import com.example.platform.dto.RatingAggregateDto;
+import com.example.platform.dto.ReviewDto;
 import com.example.platform.model.Review;
 import com.example.platform.model.User;
 import com.example.platform.model.Request;
 import com.example.platform.repository.ReviewRepository;
 import com.example.platform.repository.UserRepository;
 import com.example.platform.repository.RequestRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("service.calls")
 public class ReviewService {
+    private static final Logger log = LoggerFactory.getLogger(ReviewService.class);
+
     @Autowired
     private ReviewRepository reviewRepository;
     @Autowired
@@ -22,10 +34,17 @@ public class ReviewService {
     private RequestRepository requestRepository;
     @Autowired
     private NotificationService notificationService;
+    @Autowired
+    private RatingAggregateService ratingAggregateService;
+    @Autowired
+    private LeaderboardService leaderboardService;
+    @Autowired
+    private CacheEvictionService cacheEvictionService;
 
     @Transactional
-    public Review addReview(Long helperId, Long authorId, Long requestId, int rating, String text) {
-        System.out.println("Adding review - helperId: " + helperId + ", authorId: " + authorId + ", requestId: " + requestId);
+    @CacheEvict(cacheNames = CacheConfig.HELPER_REVIEWS, key = "#helperId")
+    public ReviewDto addReview(Long helperId, Long authorId, Long requestId, int rating, String text) {
+        log.debug("Adding review for helper {} by author {} on request {}", helperId, authorId, requestId);
 
         if (rating < 1 || rating > 5) {
             throw new IllegalArgumentException("Рейтинг должен быть от 1 до 5");
@@ -41,11 +60,7 @@ public class ReviewService {
                 .orElseThrow(() -> new RuntimeException("Запрос с ID " + requestId + " не найден"));
 
         // Проверяем, не оставлял ли уже автор отзыв для этого запроса
-        List<Review> existingReviews = reviewRepository.findByRequestId(requestId);
-        boolean hasExistingReview = existingReviews.stream()
-                .anyMatch(review -> review.getAuthor().getId().equals(authorId));
-
-        if (hasExistingReview) {
+        if (reviewRepository.existsByRequestIdAndAuthorId(requestId, authorId)) {
             throw new RuntimeException("Вы уже оставили отзыв для этого запроса");
         }
 
@@ -56,24 +71,19 @@ public class ReviewService {
         review.setRating(rating);
         review.setText(text);
 
-        System.out.println("Saving review for request: " + requestId);
         Review savedReview = reviewRepository.save(review);
 
-        // Обновляем рейтинг помощника
-        List<Review> helperReviews = reviewRepository.findByHelperId(helperId);
-        double avgRating = helperReviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0);
-        helper.setRating((int)Math.round(avgRating));
-        userRepository.save(helper);
+        // Обновляем агрегат рейтинга помощника одним UPDATE в этой же транзакции
+        RatingAggregateDto aggregate = ratingAggregateService.addRating(helperId, rating);
+        leaderboardService.ratingChangedAfterCommit(helper, aggregate);
+        cacheEvictionService.evictUser(helper.getId(), helper.getEmail());
 
         // Удаляем уведомление о завершении помощи у создателя запроса после оставления отзыва
         try {
             // Удаляем уведомление типа HELP_COMPLETION для автора отзыва (создателя запроса) по данному запросу
             notificationService.deleteNotificationForRequestAndType(requestId, "HELP_COMPLETION");
         } catch (Exception e) {
-            System.err.println("Warning: Could not delete HELP_COMPLETION notification for request " + requestId + ": " + e.getMessage());
+            log.warn("Could not delete HELP_COMPLETION notification for request {}: {}", requestId, e.getMessage());
             // Продолжаем выполнение, так как удаление уведомления не является критичным для сохранения отзыва
         }
 
@@ -96,27 +106,31 @@ public class ReviewService {
                 author.getId() // Отправитель: автор отзыва
         );
 
-        return savedReview;
+        return ReviewDto.from(savedReview);
     }
 
-    public List<Review> getReviewsForHelper(Long helperId) {
+    @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.HELPER_REVIEWS)
+    public List<ReviewDto> getReviewsForHelper(Long helperId) {
         if (!userRepository.existsById(helperId)) {
             throw new RuntimeException("Помощник с ID " + helperId + " не найден");
         }
-        return reviewRepository.findByHelperId(helperId);
+        return reviewRepository.findDtosByHelperId(helperId);
     }
 
-    public List<Review> getReviewsForRequest(Long requestId) {
+    @Transactional(readOnly = true)
+    public List<ReviewDto> getReviewsForRequest(Long requestId) {
         if (!requestRepository.existsById(requestId)) {
             throw new RuntimeException("Запрос с ID " + requestId + " не найден");
         }
-        return reviewRepository.findByRequestId(requestId);
+        return reviewRepository.findDtosByRequestId(requestId);
     }
 
-    public List<Review> getReviewsByAuthor(Long authorId) {
+    @Transactional(readOnly = true)
+    public List<ReviewDto> getReviewsByAuthor(Long authorId) {
         if (!userRepository.existsById(authorId)) {
             throw new RuntimeException("Автор с ID " + authorId + " не найден");
         }
-        return reviewRepository.findByAuthorId(authorId);
+        return reviewRepository.findDtosByAuthorId(authorId);
     }
 }
\ No newline at end of file
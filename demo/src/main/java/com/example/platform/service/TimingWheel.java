@@ -0,0 +1,183 @@
+package com.example.platform.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Иерархическое колесо таймеров. Уровень 0 — 64 слота по одному тику, каждый следующий уровень в 64 раза грубее.
+// Вставка и отмена — O(1): запись лежит в двусвязном списке своего слота и находится по ключу через карту.
+// При продвижении слот верхнего уровня, чей интервал наступил, перекладывается на нижние уровни.
+// Класс не потокобезопасен: синхронизацию обеспечивает владелец колеса.
+public class TimingWheel<T> {
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+
+    private final long tickMillis;
+    private final int levels;
+    private final List<Slot<T>[]> wheels = new ArrayList<>();
+    // Записи, срок которых уже наступил к моменту вставки: отдаются при ближайшем продвижении
+    private final Slot<T> due = new Slot<>();
+    private final Map<Long, Entry<T>> entries = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickMillis, int levels, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Длительность тика должна быть положительной");
+        }
+        if (levels < 1 || levels * SLOT_BITS > 48) {
+            throw new IllegalArgumentException("Число уровней должно быть от 1 до 8");
+        }
+        this.tickMillis = tickMillis;
+        this.levels = levels;
+        for (int level = 0; level < levels; level++) {
+            @SuppressWarnings("unchecked")
+            Slot<T>[] slots = new Slot[SLOTS];
+            for (int i = 0; i < SLOTS; i++) {
+                slots[i] = new Slot<>();
+            }
+            wheels.add(slots);
+        }
+        this.currentTick = startMillis / tickMillis;
+    }
+
+    public record Timeout<T>(long key, long dueMillis, T value) {
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public boolean contains(long key) {
+        return entries.containsKey(key);
+    }
+
+    // Гарантированная дальность: любой срок ближе этого помещается в колесо
+    public long horizonMillis() {
+        return (SLOTS - 1) * (1L << (SLOT_BITS * (levels - 1))) * tickMillis;
+    }
+
+    // Добавляет или переносит таймер. false — срок дальше, чем охватывает колесо, таймер не добавлен
+    public boolean schedule(long key, long dueMillis, T value) {
+        cancel(key);
+        // Тик округляется вверх: таймер срабатывает не раньше своего срока
+        Entry<T> entry = new Entry<>(key, Math.floorDiv(dueMillis + tickMillis - 1, tickMillis), dueMillis, value);
+        if (!place(entry)) {
+            return false;
+        }
+        entries.put(key, entry);
+        return true;
+    }
+
+    public boolean cancel(long key) {
+        Entry<T> entry = entries.remove(key);
+        if (entry == null) {
+            return false;
+        }
+        entry.unlink();
+        return true;
+    }
+
+    // Продвигает колесо до указанного момента и возвращает сработавшие таймеры
+    public List<Timeout<T>> advance(long nowMillis) {
+        List<Timeout<T>> expired = new ArrayList<>();
+        drain(due, expired);
+        long targetTick = Math.floorDiv(nowMillis, tickMillis);
+        while (currentTick < targetTick) {
+            currentTick++;
+            // Сначала верхние уровни: их записи могут попасть в слот нижнего уровня, который разбирается следом
+            for (int level = levels - 1; level >= 1; level--) {
+                int shift = SLOT_BITS * level;
+                if ((currentTick & ((1L << shift) - 1)) == 0) {
+                    cascade(wheels.get(level)[(int) ((currentTick >>> shift) & SLOT_MASK)]);
+                }
+            }
+            drain(wheels.get(0)[(int) (currentTick & SLOT_MASK)], expired);
+            drain(due, expired);
+        }
+        return expired;
+    }
+
+    // Уровень выбирается так, чтобы слот записи был строго впереди текущего и не совпадал с ним по модулю 64
+    private boolean place(Entry<T> entry) {
+        if (entry.tick <= currentTick) {
+            due.add(entry);
+            return true;
+        }
+        for (int level = 0; level < levels; level++) {
+            int shift = SLOT_BITS * level;
+            if ((entry.tick >>> shift) - (currentTick >>> shift) < SLOTS) {
+                wheels.get(level)[(int) ((entry.tick >>> shift) & SLOT_MASK)].add(entry);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void cascade(Slot<T> slot) {
+        Entry<T> entry;
+        while ((entry = slot.poll()) != null) {
+            place(entry);
+        }
+    }
+
+    private void drain(Slot<T> slot, List<Timeout<T>> expired) {
+        Entry<T> entry;
+        while ((entry = slot.poll()) != null) {
+            entries.remove(entry.key);
+            expired.add(new Timeout<>(entry.key, entry.dueMillis, entry.value));
+        }
+    }
+
+    private static final class Entry<T> {
+        private final long key;
+        private final long tick;
+        private final long dueMillis;
+        private final T value;
+        private Entry<T> prev;
+        private Entry<T> next;
+
+        Entry(long key, long tick, long dueMillis, T value) {
+            this.key = key;
+            this.tick = tick;
+            this.dueMillis = dueMillis;
+            this.value = value;
+        }
+
+        void unlink() {
+            if (prev != null) {
+                prev.next = next;
+                next.prev = prev;
+                prev = null;
+                next = null;
+            }
+        }
+    }
+
+    // Кольцевой двусвязный список с заглушкой
+    private static final class Slot<T> {
+        private final Entry<T> head = new Entry<>(0, 0, 0, null);
+
+        Slot() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void add(Entry<T> entry) {
+            entry.prev = head.prev;
+            entry.next = head;
+            head.prev.next = entry;
+            head.prev = entry;
+        }
+
+        Entry<T> poll() {
+            Entry<T> first = head.next;
+            if (first == head) {
+                return null;
+            }
+            first.unlink();
+            return first;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.platform.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.platform.repository.RevokedTokenRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+
+// Отзыв JWT по jti. Источник истины — таблица revoked_tokens, на горячем пути проверяется фильтр Блума в памяти:
+// для неотозванного токена (почти все запросы) это ответ без обращения к базе, и только при срабатывании фильтра
+// наличие jti уточняется в таблице. Фильтр строится при старте, дополняется отзывами других узлов
+// раз в sync-interval и перестраивается раз в rebuild-interval, чтобы из него ушли истёкшие токены
+@Service
+public class TokenRevocationService {
+    private static final Logger log = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    // Запас на расхождение часов узлов при выборке свежих отзывов
+    private static final long SYNC_OVERLAP_SECONDS = 5;
+
+    @Autowired
+    private RevokedTokenRepository revokedTokenRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.revocation.expected-tokens:100000}")
+    private long expectedTokens;
+
+    @Value("${jwt.revocation.false-positive-rate:0.001}")
+    private double falsePositiveRate;
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private TransactionTemplate transactionTemplate;
+    private Counter databaseChecks;
+    private volatile BloomFilter filter;
+    private volatile LocalDateTime lastSync;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        databaseChecks = Counter.builder("auth.revocation.database-checks")
+                .description("Revocation checks that hit the Bloom filter and were confirmed in the database")
+                .register(meterRegistry);
+        // До приёма запросов: отозванный токен не должен пройти в окне между стартом и первой синхронизацией
+        rebuild();
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !filter.mightContain(jti)) {
+            return false;
+        }
+        databaseChecks.increment();
+        return revokedTokenRepository.existsById(jti);
+    }
+
+    // Токен без jti отозвать нельзя — такие выдавались до появления отзыва и истекают сами
+    public void revoke(String jti, Date expiresAt) {
+        if (jti == null || expiresAt == null || expiresAt.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> revokedTokenRepository.insert(
+                    jti, LocalDateTime.ofInstant(expiresAt.toInstant(), zone), LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Уже отозван
+        }
+        // Под тем же монитором, что и замена фильтра: отзыв не потеряется при параллельной перестройке
+        synchronized (this) {
+            filter.put(jti);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.sync-interval-ms:30000}",
+            initialDelayString = "${jwt.revocation.sync-interval-ms:30000}")
+    public void sync() {
+        LocalDateTime now = LocalDateTime.now();
+        List<String> revoked = revokedTokenRepository.findActiveJtisRevokedSince(
+                lastSync.minusSeconds(SYNC_OVERLAP_SECONDS), now);
+        synchronized (this) {
+            revoked.forEach(filter::put);
+        }
+        lastSync = now;
+    }
+
+    // Удаляет истёкшие строки и строит фильтр заново по оставшимся, с запасом по размеру
+    @Scheduled(fixedDelayString = "${jwt.revocation.rebuild-interval-ms:3600000}",
+            initialDelayString = "${jwt.revocation.rebuild-interval-ms:3600000}")
+    public synchronized void rebuild() {
+        LocalDateTime now = LocalDateTime.now();
+        int deleted = transactionTemplate.execute(status -> revokedTokenRepository.deleteExpired(now));
+        List<String> revoked = revokedTokenRepository.findActiveJtis(now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, 2L * revoked.size()), falsePositiveRate);
+        revoked.forEach(rebuilt::put);
+        filter = rebuilt;
+        lastSync = now;
+        log.debug("Revocation filter rebuilt: {} revoked tokens, {} expired removed, {} bits",
+                revoked.size(), deleted, rebuilt.bitSize());
+    }
+}
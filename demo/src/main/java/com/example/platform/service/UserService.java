@@ -1,114 +1,88 @@
 package com.example.platform.service;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.example.platform.model.Review;
+import com.example.platform.config.CacheConfig;
+import com.example.platform.dto.UserDto;
 import com.example.platform.model.User;
-import com.example.platform.repository.ReviewRepository;
 import com.example.platform.repository.UserRepository;
 
+import io.micrometer.core.annotation.Timed;
+
 @Service
+@Timed("service.calls")
 public class UserService {
     @Autowired
     private UserRepository userRepository;
     @Autowired
-    private ReviewRepository reviewRepository;
-
-    public User findByEmail(String email) {
-        User user = userRepository.findByEmail(email)
+    private LeaderboardService leaderboardService;
+    @Autowired
+    private CacheEvictionService cacheEvictionService;
+    @Autowired
+    private AvatarStorageService avatarStorageService;
+    @Autowired
+    private AvatarVariantService avatarVariantService;
+
+    @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.USERS_BY_EMAIL)
+    public UserDto getCurrentUser(String email) {
+        // Рейтинг (users.rating) поддерживается агрегатом при добавлении отзыва, пересчёт не нужен
+        return userRepository.findDtoByEmail(email)
+                .map(UserDto::withDisplayName)
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
+    }
 
-        // Инициализируем списки, если они null
-        if (user.getCreatedRequests() == null) {
-            user.setCreatedRequests(new ArrayList<>());
-        }
-        if (user.getHelpedRequests() == null) {
-            user.setHelpedRequests(new ArrayList<>());
-        }
-
-        // Вычисляем и устанавливаем рейтинг пользователя
-        calculateAndSetUserRating(user);
-
-        return user;
+    // Для фильтра аутентификации: пустой результат — пользователя нет, ошибки базы пробрасываются как есть
+    @Transactional(readOnly = true)
+    public Optional<Long> findUserIdByEmail(String email) {
+        return userRepository.findDtoByEmail(email).map(UserDto::id);
     }
 
-    private void calculateAndSetUserRating(User user) {
-        List<Review> reviews = reviewRepository.findByHelperId(user.getId());
-        double avgRating = reviews.stream()
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0);
-        user.setRating((int)Math.round(avgRating));
+    @Transactional(readOnly = true)
+    @Cacheable(CacheConfig.USERS)
+    public UserDto getUser(Long userId) {
+        return userRepository.findDtoById(userId)
+                .map(UserDto::withDisplayName)
+                .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
+    // Сущность для изменения — не кэшируется
     public User getUserById(Long userId) {
         return userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("User not found"));
     }
 
-    public Map<String, Object> getStatistics(Long userId) {
-        User user = getUserById(userId);
-
-        Map<String, Object> statistics = new HashMap<>();
-        statistics.put("createdRequests", user.getCreatedRequests().size());
-        statistics.put("helpedRequests", user.getHelpedRequests().size());
-        statistics.put("rating", user.getRating());
-
-        return statistics;
-    }
-
-    public User updateRating(Long userId, Integer rating) {
-        User user = getUserById(userId);
-        user.setRating(rating);
-        return userRepository.save(user);
+    public UserDto updateUser(User user) {
+        return updateUser(user, null);
     }
 
+    // Новый аватар (если есть) уже загружен во временный файл; в транзакции он занимает место в хранилище,
+    // а ссылка на прежний файл снимается. Уменьшенные копии строятся в фоне после коммита
     @Transactional
-    public User updateUser(User user) {
+    public UserDto updateUser(User user, AvatarStorageService.StagedAvatar avatar) {
         // Проверяем существование пользователя
         User existingUser = userRepository.findById(user.getId())
                 .orElseThrow(() -> new RuntimeException("Пользователь не найден"));
 
         // Обновляем только разрешенные поля
         existingUser.setName(user.getName());
-        existingUser.setAvatarUrl(user.getAvatarUrl());
         existingUser.setBirthDate(user.getBirthDate());
+        if (avatar != null) {
+            String previousUrl = existingUser.getAvatarUrl();
+            existingUser.setAvatarUrl(avatarStorageService.commit(avatar));
+            avatarStorageService.release(previousUrl);
+            avatarVariantService.generateAfterCommit(existingUser.getAvatarUrl());
+        }
 
         // Сохраняем обновленного пользователя
-        return userRepository.save(existingUser);
-    }
-
-    public List<Map<String, Object>> getUsersRating() {
-        List<User> users = userRepository.findAll();
-        return users.stream()
-                .map(user -> {
-                    Map<String, Object> userData = new HashMap<>();
-                    userData.put("id", user.getId());
-                    userData.put("name", user.getName());
-                    List<Review> reviews = reviewRepository.findByHelperId(user.getId());
-                    int helpedCount = reviews.size();
-                    double avgRating = helpedCount > 0
-                            ? reviews.stream().mapToInt(Review::getRating).average().orElse(0)
-                            : 0;
-                    userData.put("rating", avgRating);
-                    userData.put("helpedCount", helpedCount);
-                    userData.put("avatarUrl", user.getAvatarUrl());
-                    return userData;
-                })
-                .filter(u -> (int)u.get("helpedCount") > 0)
-                .sorted((a, b) -> {
-                    int cmp = Double.compare((double) b.get("rating"), (double) a.get("rating"));
-                    if (cmp != 0) return cmp;
-                    return Integer.compare((int) b.get("helpedCount"), (int) a.get("helpedCount"));
-                })
-                .collect(Collectors.toList());
+        User savedUser = userRepository.save(existingUser);
+        leaderboardService.profileChangedAfterCommit(savedUser);
+        cacheEvictionService.evictUser(savedUser.getId(), savedUser.getEmail());
+        return UserDto.from(savedUser);
     }
 }
\ No newline at end of file
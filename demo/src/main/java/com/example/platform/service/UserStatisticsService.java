@@ -0,0 +1,43 @@
+package com.example.platform.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.platform.dto.HelpStatisticsDto;
+import com.example.platform.dto.UserRequestCountsDto;
+import com.example.platform.dto.UserStatisticsDto;
+import com.example.platform.repository.HelpHistoryRepository;
+import com.example.platform.repository.UserRepository;
+
+import io.micrometer.core.annotation.Timed;
+
+// Статистика профиля через агрегирующие запросы: два запроса независимо от объёма истории пользователя
+@Service
+@Timed("service.calls")
+public class UserStatisticsService {
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HelpHistoryRepository helpHistoryRepository;
+
+    @Transactional(readOnly = true)
+    public UserStatisticsDto getStatistics(Long userId) {
+        UserRequestCountsDto counts = userRepository.findRequestCounts(userId)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        HelpStatisticsDto helps = helpHistoryRepository.findHelpStatistics(userId);
+
+        Double averageCompletionMinutes = helps.averageCompletionSeconds() != null
+                ? helps.averageCompletionSeconds() / 60.0
+                : null;
+        return new UserStatisticsDto(
+                counts.createdRequests(),
+                counts.helpedRequests(),
+                counts.rating(),
+                helps.activeHelps() != null ? helps.activeHelps() : 0,
+                helps.completedHelps() != null ? helps.completedHelps() : 0,
+                averageCompletionMinutes
+        );
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.platform.web;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+// Пользователь, чей bearer-токен проверил JwtAuthenticationFilter. Живёт в атрибуте текущего HTTP-запроса;
+// в контроллере доступен через @RequestAttribute(AuthenticatedUser.ATTRIBUTE)
+public record AuthenticatedUser(Long id, String email) {
+    public static final String ATTRIBUTE = "com.example.platform.web.AuthenticatedUser";
+
+    public static AuthenticatedUser from(HttpServletRequest request) {
+        return (AuthenticatedUser) request.getAttribute(ATTRIBUTE);
+    }
+
+    // Изменяющие эндпоинты действуют от имени владельца токена: без токена — 401, чужой id в параметрах — 403.
+    // null — проверка пройдена, id берётся из caller.id()
+    public static ResponseEntity<String> denyUnlessCaller(AuthenticatedUser caller, Long claimedUserId) {
+        if (caller == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Требуется авторизация");
+        }
+        if (claimedUserId != null && !claimedUserId.equals(caller.id())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Действие доступно только от своего имени");
+        }
+        return null;
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.platform.web;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.resource.PathResourceResolver;
+
+import com.example.platform.model.AvatarVariant;
+import com.example.platform.service.AvatarStorageService;
+import com.example.platform.service.AvatarVariantService;
+
+// Отдача /uploads/**: если уменьшенная копия аватара ещё не построена (очередь была переполнена, задача
+// потеряна при перезапуске), отдаётся оригинал, а построение копии ставится в очередь
+@Component
+public class AvatarVariantResolver extends PathResourceResolver {
+    @Autowired
+    private AvatarVariantService avatarVariantService;
+
+    @Override
+    protected Resource getResource(String resourcePath, Resource location) throws IOException {
+        Resource resource = super.getResource(resourcePath, location);
+        if (resource != null) {
+            return resource;
+        }
+        int slash = resourcePath.lastIndexOf('/');
+        if (AvatarVariant.ofFileName(resourcePath.substring(slash + 1)) == null) {
+            return null;
+        }
+        String originalUrl;
+        try {
+            originalUrl = avatarVariantService.onMissingVariant(AvatarStorageService.URL_PREFIX + resourcePath);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        return originalUrl != null
+                ? super.getResource(originalUrl.substring(AvatarStorageService.URL_PREFIX.length()), location)
+                : null;
+    }
+}
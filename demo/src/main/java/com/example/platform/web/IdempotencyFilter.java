@@ -0,0 +1,222 @@
+package com.example.platform.web;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.example.platform.service.IdempotencyService;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
+
+// Буферизует ответ изменяющего запроса с заголовком Idempotency-Key и после выполнения сохраняет его
+// под захваченным ключом. Сам ключ захватывает IdempotencyInterceptor: он работает после CORS-обработки,
+// поэтому повторно отданный ответ тоже получает CORS-заголовки. Здесь же считается SHA-256 тела запроса
+// для отпечатка: тот же ключ с другим телом — ошибка клиента, а не повтор.
+// /api/auth/** не обрабатывается: ответы входа и обновления содержат токены и не сохраняются.
+// Асинхронная повторная диспетчеризация тоже пропускается (по умолчанию OncePerRequestFilter): асинхронные
+// контроллеры есть только среди /api/auth/**
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyFilter.class);
+
+    public static final String HEADER = "Idempotency-Key";
+    static final String CLAIMED_KEY_ATTRIBUTE = IdempotencyFilter.class.getName() + ".claimedKey";
+    static final String BODY_DIGEST_ATTRIBUTE = IdempotencyFilter.class.getName() + ".bodyDigest";
+    private static final Set<String> METHODS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    // Тело читается в память целиком, поэтому его размер ограничен; файлы (multipart) под ограничение не попадают
+    @Value("${idempotency.max-body-bytes:1048576}")
+    private int maxBodyBytes;
+
+    static boolean applies(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        return METHODS.contains(request.getMethod()) && request.getHeader(HEADER) != null
+                && uri.startsWith("/api/") && !uri.startsWith("/api/auth/");
+    }
+
+    // JSON без явной кодировки пишется в UTF-8; тем же правилом ответ кодируется при повторе
+    static Charset charsetOf(String contentType) {
+        if (contentType == null) {
+            return StandardCharsets.UTF_8;
+        }
+        Charset charset = MediaType.parseMediaType(contentType).getCharset();
+        return charset != null ? charset : StandardCharsets.UTF_8;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !applies(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        request = digestBody(request);
+        if (request == null) {
+            response.setStatus(HttpStatus.PAYLOAD_TOO_LARGE.value());
+            response.setContentType("text/plain;charset=UTF-8");
+            response.getWriter().write("Тело запроса с ключом идемпотентности больше " + maxBodyBytes + " байт");
+            return;
+        }
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        boolean failed = true;
+        try {
+            filterChain.doFilter(request, wrapper);
+            failed = false;
+        } finally {
+            String key = (String) request.getAttribute(CLAIMED_KEY_ATTRIBUTE);
+            if (key != null) {
+                finish(key, wrapper, failed);
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    // Отпечаток тела в атрибуте запроса. Обычное тело читается в буфер и дальше отдаётся из него; у multipart
+    // хэшируются части (граница меняется от попытки к попытке), у формы — параметры. null — тело слишком большое
+    private HttpServletRequest digestBody(HttpServletRequest request) throws IOException, ServletException {
+        MessageDigest digest = IdempotencyService.sha256();
+        String contentType = request.getContentType() != null ? request.getContentType().toLowerCase(Locale.ROOT) : "";
+        HttpServletRequest result = request;
+        if (contentType.startsWith("multipart/")) {
+            for (Part part : request.getParts()) {
+                update(digest, part.getName(), part.getSubmittedFileName(), part.getContentType());
+                try (InputStream content = part.getInputStream()) {
+                    byte[] buffer = new byte[8192];
+                    int read;
+                    while ((read = content.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+            }
+        } else if (contentType.startsWith("application/x-www-form-urlencoded")) {
+            for (Map.Entry<String, String[]> parameter : new TreeMap<>(request.getParameterMap()).entrySet()) {
+                update(digest, parameter.getKey());
+                update(digest, parameter.getValue());
+            }
+        } else {
+            byte[] body = request.getInputStream().readNBytes(maxBodyBytes + 1);
+            if (body.length > maxBodyBytes) {
+                return null;
+            }
+            digest.update(body);
+            result = new CachedBodyRequest(request, body);
+        }
+        request.setAttribute(BODY_DIGEST_ATTRIBUTE, HexFormat.of().formatHex(digest.digest()));
+        return result;
+    }
+
+    // Значения разделяются нулевым байтом, null отличается от пустой строки
+    private static void update(MessageDigest digest, String... values) {
+        for (String value : values) {
+            if (value != null) {
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) (value != null ? 0 : 1));
+        }
+    }
+
+    // Сохраняются только успешные ответы; после ошибки ключ освобождается для повтора
+    private void finish(String key, ContentCachingResponseWrapper wrapper, boolean failed) {
+        try {
+            int status = wrapper.getStatus();
+            if (!failed && status >= 200 && status < 300) {
+                String contentType = wrapper.getContentType();
+                String body = new String(wrapper.getContentAsByteArray(), charsetOf(contentType));
+                idempotencyService.complete(key, status, contentType, body);
+            } else {
+                idempotencyService.release(key);
+            }
+        } catch (RuntimeException e) {
+            // Ответ клиенту важнее: незавершённый ключ удалит очистка по таймауту
+            log.error("Failed to store response for idempotency key {}", key, e);
+        }
+    }
+
+    // Тело, уже прочитанное для отпечатка, отдаётся контроллеру из памяти
+    private static final class CachedBodyRequest extends HttpServletRequestWrapper {
+        private final byte[] body;
+
+        CachedBodyRequest(HttpServletRequest request, byte[] body) {
+            super(request);
+            this.body = body;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() {
+            ByteArrayInputStream input = new ByteArrayInputStream(body);
+            return new ServletInputStream() {
+                @Override
+                public int read() {
+                    return input.read();
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    return input.read(b, off, len);
+                }
+
+                @Override
+                public boolean isFinished() {
+                    return input.available() == 0;
+                }
+
+                @Override
+                public boolean isReady() {
+                    return true;
+                }
+
+                @Override
+                public void setReadListener(ReadListener listener) {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public BufferedReader getReader() {
+            Charset charset = getCharacterEncoding() != null ? Charset.forName(getCharacterEncoding()) : StandardCharsets.UTF_8;
+            return new BufferedReader(new InputStreamReader(new ByteArrayInputStream(body), charset));
+        }
+
+        @Override
+        public int getContentLength() {
+            return body.length;
+        }
+
+        @Override
+        public long getContentLengthLong() {
+            return body.length;
+        }
+    }
+}
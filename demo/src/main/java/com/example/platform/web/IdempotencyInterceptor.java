@@ -0,0 +1,80 @@
+package com.example.platform.web;
+
+import java.io.IOException;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import com.example.platform.model.IdempotencyKey;
+import com.example.platform.service.IdempotencyService;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Захват ключа идемпотентности перед вызовом контроллера; повтор получает сохранённый ответ без выполнения.
+// Ключ принадлежит пользователю из bearer-токена (JwtAuthenticationFilter отрабатывает раньше)
+@Component
+public class IdempotencyInterceptor implements HandlerInterceptor {
+    private static final int MAX_KEY_LENGTH = 100;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!IdempotencyFilter.applies(request)) {
+            return true;
+        }
+        String key = request.getHeader(IdempotencyFilter.HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, "Некорректный ключ идемпотентности");
+            return false;
+        }
+
+        String uri = request.getQueryString() != null
+                ? request.getRequestURI() + "?" + request.getQueryString()
+                : request.getRequestURI();
+        AuthenticatedUser user = AuthenticatedUser.from(request);
+        String scopedKey = idempotencyService.scopedKey(user != null ? user.id() : null, key);
+        IdempotencyService.Claim claim = idempotencyService.claim(scopedKey, request.getMethod(), uri,
+                (String) request.getAttribute(IdempotencyFilter.BODY_DIGEST_ATTRIBUTE));
+        switch (claim.state()) {
+            case CLAIMED -> {
+                request.setAttribute(IdempotencyFilter.CLAIMED_KEY_ATTRIBUTE, scopedKey);
+                return true;
+            }
+            case COMPLETED -> {
+                replay(response, claim.stored());
+                return false;
+            }
+            case IN_PROGRESS -> {
+                writeError(response, HttpStatus.CONFLICT, "Запрос с этим ключом идемпотентности ещё выполняется");
+                return false;
+            }
+            default -> {
+                writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, "Ключ идемпотентности уже использован для другого запроса");
+                return false;
+            }
+        }
+    }
+
+    private void replay(HttpServletResponse response, IdempotencyKey stored) throws IOException {
+        response.setStatus(stored.getResponseStatus());
+        response.setHeader("Idempotent-Replayed", "true");
+        if (stored.getResponseContentType() != null) {
+            response.setContentType(stored.getResponseContentType());
+        }
+        if (stored.getResponseBody() != null) {
+            response.getOutputStream().write(stored.getResponseBody()
+                    .getBytes(IdempotencyFilter.charsetOf(stored.getResponseContentType())));
+        }
+    }
+
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType("text/plain;charset=UTF-8");
+        response.getWriter().write(message);
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.platform.web;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.platform.service.JwtService;
+import com.example.platform.service.TokenRevocationService;
+import com.example.platform.service.UserService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Проверяет заголовок Authorization: Bearer один раз на HTTP-запрос и кладёт пользователя в атрибут запроса
+// (см. AuthenticatedUser). Проверенные токены хранятся в ограниченном кэше по SHA-256 от токена до момента exp,
+// поэтому подпись и поиск пользователя выполняются один раз на токен, а не на каждый вызов клиента.
+// Отзыв проверяется на каждом запросе, но по фильтру Блума в памяти (TokenRevocationService).
+// Запрос без токена проходит дальше как раньше; недействительный, просроченный, отозванный
+// или refresh-токен — 401
+@Component
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${jwt.verified-cache.maximum-size:10000}")
+    private long verifiedCacheMaximumSize;
+
+    private Cache<String, VerifiedToken> verifiedTokens;
+
+    private record VerifiedToken(AuthenticatedUser user, String jti, long expiresAtMillis) {
+    }
+
+    @PostConstruct
+    void init() {
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheMaximumSize)
+                .expireAfter(new ExpiresWithToken())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedTokens, "jwtVerifiedTokens");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/") || request.getRequestURI().startsWith("/api/auth/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        AuthenticatedUser user;
+        try {
+            user = authenticate(header.substring(BEARER_PREFIX.length()).trim());
+        } catch (JwtException | IllegalArgumentException e) {
+            reject(response, "Недействительный токен");
+            return;
+        } catch (UnknownUserException e) {
+            reject(response, "Пользователь не найден");
+            return;
+        }
+        // Остальные ошибки (база недоступна, пул соединений исчерпан) — 5xx: клиент не должен выбрасывать
+        // действительный токен из-за сбоя на сервере
+        request.setAttribute(AuthenticatedUser.ATTRIBUTE, user);
+        filterChain.doFilter(request, response);
+    }
+
+    AuthenticatedUser authenticate(String token) {
+        String key = hash(token);
+        VerifiedToken verified = verifiedTokens.getIfPresent(key);
+        // Запись может дожить до очистки кэша на несколько миллисекунд дольше exp
+        if (verified == null || verified.expiresAtMillis() <= System.currentTimeMillis()) {
+            verified = verify(token);
+            verifiedTokens.put(key, verified);
+        }
+        if (tokenRevocationService.isRevoked(verified.jti())) {
+            throw new JwtException("Token revoked");
+        }
+        return verified.user();
+    }
+
+    private VerifiedToken verify(String token) {
+        Claims claims = jwtService.parseClaims(token);
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Token without expiration");
+        }
+        if (JwtService.REFRESH.equals(claims.get(JwtService.TOKEN_TYPE_CLAIM, String.class))) {
+            throw new JwtException("Refresh token used as access token");
+        }
+        String email = claims.getSubject();
+        Long userId = claims.get(JwtService.USER_ID_CLAIM, Long.class);
+        if (userId == null) {
+            // Токены, выданные до появления uid: идентификатор по email
+            userId = userService.findUserIdByEmail(email).orElseThrow(UnknownUserException::new);
+        }
+        return new VerifiedToken(new AuthenticatedUser(userId, email), claims.getId(),
+                claims.getExpiration().getTime());
+    }
+
+    // Сам токен в памяти не хранится — только его хэш
+    static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private void reject(HttpServletResponse response, String message) throws IOException {
+        response.setStatus(HttpStatus.UNAUTHORIZED.value());
+        response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("Error: " + message);
+    }
+
+    // Токен подписан верно, но пользователя с его email уже нет
+    private static final class UnknownUserException extends RuntimeException {
+    }
+
+    // Запись живёт ровно до exp своего токена; чтение срок не продлевает
+    private static final class ExpiresWithToken implements Expiry<String, VerifiedToken> {
+        @Override
+        public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, value.expiresAtMillis() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
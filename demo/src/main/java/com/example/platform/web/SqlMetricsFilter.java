@@ -0,0 +1,108 @@
+package com.example.platform.web;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Число SQL-запросов на HTTP-запрос (http.server.sql.statements) с теми же тегами method/uri,
+// что и у таймера http.server.requests, и детектор N+1: одна форма запроса повторяется repeat-threshold раз
+// или всего запросов больше statement-threshold. Нарушение считается в http.server.sql.violations и пишется
+// в лог не чаще раза в log-interval на эндпоинт; с fail-on-violation (профиль test) запрос завершается ошибкой
+@Component
+public class SqlMetricsFilter extends OncePerRequestFilter {
+    private static final Logger log = LoggerFactory.getLogger(SqlMetricsFilter.class);
+
+    static final String METRIC = "http.server.sql.statements";
+    static final String VIOLATIONS_METRIC = "http.server.sql.violations";
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${sql.n-plus-one.repeat-threshold:10}")
+    private int repeatThreshold;
+
+    @Value("${sql.n-plus-one.statement-threshold:50}")
+    private int statementThreshold;
+
+    @Value("${sql.n-plus-one.log-interval-ms:60000}")
+    private long logIntervalMs;
+
+    @Value("${sql.n-plus-one.fail-on-violation:false}")
+    private boolean failOnViolation;
+
+    private final Map<String, Long> lastLoggedByEndpoint = new ConcurrentHashMap<>();
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        sqlStatementCounter.start();
+        SqlStatementCounter.Stats stats;
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            stats = sqlStatementCounter.stop();
+        }
+
+        // Шаблон пути, а не сам путь: число рядов метрики ограничено числом эндпоинтов
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder(METRIC)
+                .description("SQL statements prepared by Hibernate per HTTP request")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .serviceLevelObjectives(1, 5, 10, 25, 50, 100)
+                .register(meterRegistry)
+                .record(stats.statements());
+
+        if (stats.repeatedCount() >= repeatThreshold || stats.statements() > statementThreshold) {
+            reportViolation(request.getMethod(), uri, stats);
+        }
+    }
+
+    private void reportViolation(String method, String uri, SqlStatementCounter.Stats stats) {
+        Counter.builder(VIOLATIONS_METRIC)
+                .description("HTTP requests that exceeded the SQL statement or repeated-query threshold")
+                .tag("method", method)
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .increment();
+
+        String endpoint = method + " " + uri;
+        String message = String.format("%s issued %d SQL statements, %d of them with the same shape: %s",
+                endpoint, stats.statements(), stats.repeatedCount(), stats.repeatedShape());
+        if (failOnViolation) {
+            throw new IllegalStateException("Possible N+1: " + message);
+        }
+        long now = System.currentTimeMillis();
+        Long last = lastLoggedByEndpoint.get(endpoint);
+        if ((last == null || now - last >= logIntervalMs)
+                && (last == null ? lastLoggedByEndpoint.putIfAbsent(endpoint, now) == null
+                        : lastLoggedByEndpoint.replace(endpoint, last, now))) {
+            log.warn("Possible N+1: {}", message);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.platform.web;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.stereotype.Component;
+
+// Счётчик SQL, подготовленных Hibernate в текущем потоке. Подключается к фабрике сессий как StatementInspector
+// (см. MetricsConfig); считает только между start() и stop(), вне этого окна ничего не делает.
+// Окна вкладываются: тестовая проверка вокруг MockMvc и фильтр запроса видят одни и те же запросы.
+// Запросы через JdbcTemplate (NotificationWriter, засев) сюда не попадают
+@Component
+public class SqlStatementCounter implements StatementInspector {
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin\\s*\\(\\s*\\?(\\s*,\\s*\\?)*\\s*\\)");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final ThreadLocal<Window> current = new ThreadLocal<>();
+
+    // Итог окна: всего запросов и самая частая форма запроса с числом повторов
+    public record Stats(int statements, String repeatedShape, int repeatedCount) {
+    }
+
+    private static final class Window {
+        private final Window parent;
+        // Текст SQL от Hibernate для одного и того же запроса совпадает, поэтому группируем по нему,
+        // а приводим к форме только при подведении итога
+        private final Map<String, Integer> bySql = new HashMap<>();
+        private int statements;
+
+        Window(Window parent) {
+            this.parent = parent;
+        }
+    }
+
+    @Override
+    public String inspect(String sql) {
+        for (Window window = current.get(); window != null; window = window.parent) {
+            window.statements++;
+            window.bySql.merge(sql, 1, Integer::sum);
+        }
+        return sql;
+    }
+
+    public void start() {
+        current.set(new Window(current.get()));
+    }
+
+    // Закрывает последнее открытое окно и возвращает его итог
+    public Stats stop() {
+        Window window = current.get();
+        if (window == null) {
+            return new Stats(0, null, 0);
+        }
+        if (window.parent != null) {
+            current.set(window.parent);
+        } else {
+            current.remove();
+        }
+
+        Map<String, Integer> byShape = new HashMap<>();
+        window.bySql.forEach((sql, count) -> byShape.merge(shapeOf(sql), count, Integer::sum));
+        String repeatedShape = null;
+        int repeatedCount = 0;
+        for (Map.Entry<String, Integer> entry : byShape.entrySet()) {
+            if (entry.getValue() > repeatedCount) {
+                repeatedShape = entry.getKey();
+                repeatedCount = entry.getValue();
+            }
+        }
+        return new Stats(window.statements, repeatedShape, repeatedCount);
+    }
+
+    // Форма запроса: литералы и списки IN разной длины сводятся к одному виду
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        shape = IN_LIST.matcher(shape).replaceAll("in (...)");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+}
@@ -0,0 +1,13 @@
+-- Аватары в хранилище по содержимому: одна строка на файл /uploads/<2 символа>/<sha256>.<расширение>,
+-- ref_count — число пользователей, ссылающихся на файл. Файл без ссылок дольше льготного периода удаляется
+CREATE TABLE IF NOT EXISTS avatar_files (
+    url VARCHAR(255) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    ref_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    released_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_avatar_files_released
+    ON avatar_files (released_at)
+    WHERE ref_count = 0;
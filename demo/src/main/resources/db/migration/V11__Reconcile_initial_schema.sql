@@ -0,0 +1,9 @@
+-- V1 расходился с сущностями, по которым Hibernate создавал схему существующих баз. На новой базе это
+-- приводится в соответствие; на базе, принятой за V1 (baseline), изменения ничего не меняют
+
+-- Срок запроса хранится с временем (LocalDateTime), а не только датой
+ALTER TABLE requests ALTER COLUMN deadline_date TYPE TIMESTAMP;
+
+-- Статус PENDING_CONFIRMATION (помощь ждёт подтверждения владельца) не проходил CHECK из V1
+ALTER TABLE requests DROP CONSTRAINT IF EXISTS requests_status_check;
+ALTER TABLE help_history DROP CONSTRAINT IF EXISTS help_history_status_check;
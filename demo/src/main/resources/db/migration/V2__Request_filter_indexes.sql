@@ -0,0 +1,9 @@
+-- Индексы для фильтрации запросов с keyset-пагинацией по (creation_date, id)
+CREATE INDEX IF NOT EXISTS idx_requests_feed_keyset
+    ON requests (creation_date DESC, id DESC) WHERE is_archived = false;
+CREATE INDEX IF NOT EXISTS idx_requests_user_keyset
+    ON requests (user_id, creation_date DESC, id DESC) WHERE is_archived = false;
+CREATE INDEX IF NOT EXISTS idx_requests_status_keyset
+    ON requests (status, creation_date DESC, id DESC) WHERE is_archived = false;
+CREATE INDEX IF NOT EXISTS idx_help_history_helper_status_request
+    ON help_history (helper_id, status, request_id);
@@ -0,0 +1,9 @@
+-- Хранимая географическая точка запроса и GiST-индекс для ST_DWithin / KNN-сортировки
+CREATE EXTENSION IF NOT EXISTS postgis;
+
+ALTER TABLE requests
+    ADD COLUMN IF NOT EXISTS location geography(Point, 4326)
+        GENERATED ALWAYS AS (ST_SetSRID(ST_MakePoint(longitude, latitude), 4326)::geography) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_requests_location
+    ON requests USING GIST (location) WHERE is_archived = false;
@@ -0,0 +1,37 @@
+-- Таблица отзывов (создавалась Hibernate и отсутствовала в V1)
+CREATE TABLE IF NOT EXISTS reviews (
+    id BIGSERIAL PRIMARY KEY,
+    helper_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    author_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    request_id BIGINT NOT NULL REFERENCES requests(id) ON DELETE CASCADE,
+    rating INTEGER NOT NULL,
+    text TEXT,
+    created_at TIMESTAMP
+);
+CREATE INDEX IF NOT EXISTS idx_reviews_helper_id ON reviews(helper_id);
+CREATE INDEX IF NOT EXISTS idx_reviews_request_id ON reviews(request_id);
+
+-- Агрегат рейтинга пользователя, поддерживаемый при добавлении отзыва и подтверждении помощи
+ALTER TABLE users ADD COLUMN IF NOT EXISTS rating_sum BIGINT DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS rating_count INTEGER DEFAULT 0 NOT NULL;
+ALTER TABLE users ADD COLUMN IF NOT EXISTS helped_count INTEGER DEFAULT 0 NOT NULL;
+
+-- Заполнение агрегата по существующим данным
+UPDATE users u
+SET rating_sum = s.rating_sum,
+    rating_count = s.rating_count
+FROM (SELECT helper_id, SUM(rating) AS rating_sum, COUNT(*) AS rating_count
+      FROM reviews
+      GROUP BY helper_id) s
+WHERE s.helper_id = u.id;
+
+UPDATE users u
+SET helped_count = h.helped_count
+FROM (SELECT helper_id, COUNT(*) AS helped_count
+      FROM help_history
+      WHERE status = 'COMPLETED'
+      GROUP BY helper_id) h
+WHERE h.helper_id = u.id;
+
+UPDATE users
+SET rating = CASE WHEN rating_count > 0 THEN ROUND(rating_sum::numeric / rating_count) ELSE 0 END;
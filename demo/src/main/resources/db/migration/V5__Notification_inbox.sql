@@ -0,0 +1,21 @@
+-- Флаг прочтения синхронизируется со статусом (до этого приложение меняло только status)
+UPDATE notifications SET is_read = (status = 'READ') WHERE is_read <> (status = 'READ');
+
+-- Входящие: WHERE user_id = ? [AND is_read = false] ORDER BY is_read, created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_notifications_inbox
+    ON notifications (user_id, is_read, created_at DESC, id DESC);
+
+-- Покрываются составным индексом
+DROP INDEX IF EXISTS idx_notifications_user_id;
+DROP INDEX IF EXISTS idx_notifications_is_read;
+
+-- Счётчик непрочитанных для значка
+ALTER TABLE users ADD COLUMN IF NOT EXISTS unread_notification_count INTEGER DEFAULT 0 NOT NULL;
+
+UPDATE users u
+SET unread_notification_count = c.unread
+FROM (SELECT user_id, COUNT(*) AS unread
+      FROM notifications
+      WHERE is_read = false
+      GROUP BY user_id) c
+WHERE c.user_id = u.id;
@@ -0,0 +1,13 @@
+-- Выборка просроченных открытых запросов: status = 'ACTIVE' AND deadline_date < now()
+CREATE INDEX IF NOT EXISTS idx_requests_expiry
+    ON requests (status, deadline_date) WHERE is_archived = false;
+
+-- Приложение давно создаёт уведомления других типов (REVIEW_RECEIVED, REQUEST_EXPIRED, ...)
+ALTER TABLE notifications DROP CONSTRAINT IF EXISTS notifications_type_check;
+
+-- Аренда фоновых задач между узлами приложения
+CREATE TABLE IF NOT EXISTS job_locks (
+    name VARCHAR(100) PRIMARY KEY,
+    locked_until TIMESTAMP NOT NULL,
+    locked_by VARCHAR(255)
+);
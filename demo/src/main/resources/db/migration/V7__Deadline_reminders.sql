@@ -0,0 +1,7 @@
+-- Флаг отправленного напоминания о сроке; выставляется условным UPDATE ровно один раз
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS reminder_sent BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Загрузка колеса напоминаний: открытые запросы без напоминания в диапазоне сроков
+CREATE INDEX IF NOT EXISTS idx_requests_reminder
+    ON requests (deadline_date)
+    WHERE reminder_sent = false AND is_archived = false AND status IN ('ACTIVE', 'IN_PROGRESS');
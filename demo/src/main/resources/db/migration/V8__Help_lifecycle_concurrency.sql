@@ -0,0 +1,32 @@
+-- Версии для оптимистической блокировки запросов и записей истории помощи
+ALTER TABLE requests ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE help_history ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Дубли незавершённой помощи, появившиеся из-за гонки откликов: оставляем последнюю запись пары
+UPDATE help_history h
+SET status = 'CANCELLED', end_date = COALESCE(h.end_date, now())
+WHERE h.status IN ('IN_PROGRESS', 'PENDING_CONFIRMATION')
+  AND EXISTS (
+      SELECT 1 FROM help_history d
+      WHERE d.request_id = h.request_id
+        AND d.helper_id = h.helper_id
+        AND d.status IN ('IN_PROGRESS', 'PENDING_CONFIRMATION')
+        AND d.id > h.id
+  );
+
+-- Не больше одной незавершённой помощи на пару запрос-помощник
+CREATE UNIQUE INDEX IF NOT EXISTS uq_help_history_open
+    ON help_history (request_id, helper_id)
+    WHERE status IN ('IN_PROGRESS', 'PENDING_CONFIRMATION');
+
+-- Ключи идемпотентности изменяющих REST-запросов и сохранённые ответы
+CREATE TABLE IF NOT EXISTS idempotency_keys (
+    idempotency_key VARCHAR(100) PRIMARY KEY,
+    fingerprint VARCHAR(64) NOT NULL,
+    response_status INTEGER,
+    response_content_type VARCHAR(255),
+    response_body TEXT,
+    created_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys (created_at);
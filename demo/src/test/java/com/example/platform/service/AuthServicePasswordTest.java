@@ -0,0 +1,190 @@
+package com.example.platform.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+import com.example.platform.web.IdempotencyFilter;
+
+// Пароли хэшируются в отдельном пуле (один поток, очередь на одну задачу), старые пароли обновляются при входе
+@SpringBootTest(properties = {"auth.password.hashing-threads=1", "auth.password.queue-capacity=1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthServicePasswordTest {
+    private static final String PASSWORD = "secret-password";
+
+    @Autowired
+    private AuthService authService;
+
+    @Autowired
+    private PasswordHashingService passwordHashingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void registerStoresBcryptHashAndLoginAcceptsIt() {
+        User user = newUser(PASSWORD);
+        authService.registerUser(user).join();
+
+        String stored = userRepository.findByEmail(user.getEmail()).orElseThrow().getPassword();
+        assertTrue(stored.startsWith("$2"), stored);
+        assertFalse(passwordHashingService.needsRehash(stored));
+        assertNotNull(authService.loginUser(user.getEmail(), PASSWORD).join().get("token"));
+        assertEquals("Неверный пароль", authService.loginUser(user.getEmail(), "wrong").join().get("message"));
+    }
+
+    @Test
+    void plaintextPasswordIsRehashedOnLogin() throws InterruptedException {
+        User user = userRepository.save(newUser(PASSWORD));
+
+        assertNotNull(authService.loginUser(user.getEmail(), PASSWORD).join().get("token"));
+
+        String stored = awaitRehash(user.getId(), PASSWORD);
+        assertTrue(new BCryptPasswordEncoder().matches(PASSWORD, stored));
+        assertNotNull(authService.loginUser(user.getEmail(), PASSWORD).join().get("token"));
+    }
+
+    @Test
+    void hashWithOtherCostIsRehashedOnLogin() throws InterruptedException {
+        String oldHash = new BCryptPasswordEncoder(5).encode(PASSWORD);
+        User user = userRepository.save(newUser(oldHash));
+
+        assertNotNull(authService.loginUser(user.getEmail(), PASSWORD).join().get("token"));
+
+        String stored = awaitRehash(user.getId(), oldHash);
+        assertFalse(passwordHashingService.needsRehash(stored));
+    }
+
+    @Test
+    void wrongPasswordDoesNotRehash() {
+        User user = userRepository.save(newUser(PASSWORD));
+
+        assertEquals("Неверный пароль", authService.loginUser(user.getEmail(), "wrong").join().get("message"));
+        assertEquals(PASSWORD, userRepository.findById(user.getId()).orElseThrow().getPassword());
+    }
+
+    @Test
+    void hashingBeyondQueueCapacityIsRejected() {
+        // Стоимость 12 — сотни миллисекунд на проверку: пул из одного потока с очередью на одну задачу занят
+        String slowHash = new BCryptPasswordEncoder(12).encode(PASSWORD);
+        List<CompletableFuture<Boolean>> checks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            checks.add(passwordHashingService.matches(PASSWORD, slowHash));
+        }
+
+        int rejected = 0;
+        for (CompletableFuture<Boolean> check : checks) {
+            try {
+                assertTrue(check.join());
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException, e.toString());
+                rejected++;
+            }
+        }
+        assertTrue(rejected >= 3, "rejected " + rejected);
+    }
+
+    @Test
+    void loginEndpointCompletesAsynchronously() throws Exception {
+        User user = newUser(PASSWORD);
+        authService.registerUser(user).join();
+
+        MvcResult started = mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty());
+    }
+
+    // Ответ входа содержит токены: с ключом идемпотентности он не сохраняется и не отдаётся повторно
+    @Test
+    void loginWithIdempotencyKeyIsNeitherStoredNorReplayed() throws Exception {
+        User user = newUser(PASSWORD);
+        authService.registerUser(user).join();
+        String key = UUID.randomUUID().toString();
+        int storedKeys = countIdempotencyKeys();
+
+        String first = login(user, key);
+        String second = login(user, key);
+
+        assertNotEquals(first, second);
+        assertEquals(storedKeys, countIdempotencyKeys());
+    }
+
+    private String login(User user, String idempotencyKey) throws Exception {
+        MvcResult started = mockMvc.perform(post("/api/auth/login")
+                        .header(IdempotencyFilter.HEADER, idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + user.getEmail() + "\",\"password\":\"" + PASSWORD + "\"}"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private int countIdempotencyKeys() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM idempotency_keys", Integer.class);
+    }
+
+    // Перехэширование идёт в фоне после ответа на вход
+    private String awaitRehash(Long userId, String oldPassword) throws InterruptedException {
+        for (int i = 0; i < 100; i++) {
+            String stored = userRepository.findById(userId).orElseThrow().getPassword();
+            if (!stored.equals(oldPassword)) {
+                return stored;
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Password was not rehashed: " + Map.of("userId", userId));
+    }
+
+    private User newUser(String password) {
+        User user = new User();
+        user.setName("Пользователь");
+        user.setEmail(UUID.randomUUID() + "@test.local");
+        user.setPassword(password);
+        return user;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.platform.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+// Повтор при конфликте версий и нарушении уникального индекса (uq_help_history_open), отказ после исчерпания попыток
+class ConflictRetryServiceTest {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final ConflictRetryService conflictRetryService = new ConflictRetryService();
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(conflictRetryService, "maxAttempts", MAX_ATTEMPTS);
+        ReflectionTestUtils.setField(conflictRetryService, "backoffMs", 1L);
+    }
+
+    @Test
+    void retriesOptimisticLockConflict() {
+        String result = conflictRetryService.execute(() -> {
+            if (attempts.incrementAndGet() < MAX_ATTEMPTS) {
+                throw new OptimisticLockingFailureException("stale version");
+            }
+            return "done";
+        });
+
+        assertEquals("done", result);
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+    }
+
+    @Test
+    void retriesUniqueIndexViolation() {
+        conflictRetryService.run(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new DataIntegrityViolationException("uq_help_history_open");
+            }
+        });
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void rethrowsConflictAfterMaxAttempts() {
+        assertThrows(OptimisticLockingFailureException.class, () -> conflictRetryService.run(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("stale version");
+        }));
+
+        assertEquals(MAX_ATTEMPTS, attempts.get());
+    }
+
+    @Test
+    void doesNotRetryOtherErrors() {
+        assertThrows(IllegalStateException.class, () -> conflictRetryService.run(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException("Недопустимый переход");
+        }));
+
+        assertEquals(1, attempts.get());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.platform.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+// Поиск в радиусе у антимеридиана, у полюса и с радиусом, охватывающим весь круг долгот
+class GeoGridIndexTest {
+    private static final double CELL = 0.05;
+
+    @Test
+    void findsPointsAcrossAntimeridian() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(CELL);
+        index.put(1, 0.0, 179.99, "east");
+        index.put(2, 0.0, -179.99, "west");
+        index.put(3, 0.0, 170.0, "far");
+
+        List<GeoGridIndex.Hit<String>> hits = index.within(0.0, -179.995, 5_000, null, 0);
+
+        assertEquals(List.of(2L, 1L), ids(hits));
+    }
+
+    @Test
+    void findsPointsAroundPoleAtAnyLongitude() {
+        // Сетка занята целиком, поэтому обходится диапазон ячеек; верхний ряд — у самого полюса
+        GeoGridIndex<String> index = filledGrid(89.95);
+
+        List<GeoGridIndex.Hit<String>> hits = index.within(90.0, 0.0, 10_000, null, 0);
+
+        assertEquals(36, hits.size());
+        assertUnique(hits);
+    }
+
+    @Test
+    void wideRadiusDoesNotReturnPointsTwice() {
+        GeoGridIndex<String> index = filledGrid(85.0);
+
+        // На широте 62° радиус 2300 км — около 160° долготы в каждую сторону: диапазон длиннее круга, но короче двух
+        List<GeoGridIndex.Hit<String>> hits = index.within(62.0, 0.0, 2_300_000, null, 0);
+
+        assertUnique(hits);
+        long expected = 0;
+        for (double lat = -85.0; lat < 90.0; lat += 10.0) {
+            for (double lon = -175.0; lon < 180.0; lon += 10.0) {
+                if (GeoGridIndex.distanceMeters(62.0, 0.0, lat, lon) <= 2_300_000) {
+                    expected++;
+                }
+            }
+        }
+        assertEquals(expected, hits.size());
+    }
+
+    @Test
+    void worldRadiusReturnsEveryPointOnceOrderedByDistance() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(CELL);
+        index.put(1, 55.75, 37.62, "moscow");
+        index.put(2, -33.87, 151.21, "sydney");
+        index.put(3, 40.71, -74.0, "new-york");
+        index.put(4, -89.0, 45.0, "antarctica");
+
+        List<GeoGridIndex.Hit<String>> hits = index.within(55.0, 37.0, 1e9, null, 0);
+
+        assertEquals(List.of(1L, 3L, 2L, 4L), ids(hits));
+        assertEquals(List.of(1L, 3L), ids(index.within(55.0, 37.0, 1e9, null, 2)));
+    }
+
+    @Test
+    void filterAndRemoveApply() {
+        GeoGridIndex<String> index = new GeoGridIndex<>(CELL);
+        index.put(1, 1.0, 1.0, "keep");
+        index.put(2, 1.0, 1.001, "skip");
+        index.put(3, 1.0, 1.002, "keep");
+        index.remove(3);
+
+        List<GeoGridIndex.Hit<String>> hits = index.within(1.0, 1.0, 1_000, "keep"::equals, 0);
+
+        assertEquals(List.of(1L), ids(hits));
+    }
+
+    // Сетка 10°, по точке в центре каждой ячейки; в верхнем ряду — на широте topLatitude
+    private static GeoGridIndex<String> filledGrid(double topLatitude) {
+        GeoGridIndex<String> index = new GeoGridIndex<>(10.0);
+        long id = 0;
+        for (double lat = -85.0; lat < 90.0; lat += 10.0) {
+            for (double lon = -175.0; lon < 180.0; lon += 10.0) {
+                index.put(id++, lat == 85.0 ? topLatitude : lat, lon, "cell");
+            }
+        }
+        return index;
+    }
+
+    private static List<Long> ids(List<GeoGridIndex.Hit<String>> hits) {
+        return hits.stream().map(GeoGridIndex.Hit::id).toList();
+    }
+
+    private static void assertUnique(List<GeoGridIndex.Hit<String>> hits) {
+        Set<Long> ids = new HashSet<>(ids(hits));
+        assertEquals(hits.size(), ids.size(), "duplicate hits: " + ids(hits));
+    }
+}
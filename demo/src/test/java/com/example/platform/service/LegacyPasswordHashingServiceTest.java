@@ -0,0 +1,58 @@
+package com.example.platform.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+
+// Пароли открытым текстом хэшируются без входа владельцев, уже захэшированные не трогаются
+@SpringBootTest
+@ActiveProfiles("test")
+class LegacyPasswordHashingServiceTest {
+    @Autowired
+    private LegacyPasswordHashingService legacyPasswordHashingService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void hashesPlaintextPasswordsAcrossPages() {
+        List<User> plaintext = new ArrayList<>();
+        // Больше одной страницы
+        for (int i = 0; i < 40; i++) {
+            plaintext.add(userRepository.save(newUser("password-" + i)));
+        }
+        String hash = new BCryptPasswordEncoder(4).encode("hashed-password");
+        User alreadyHashed = userRepository.save(newUser(hash));
+
+        legacyPasswordHashingService.hashPlaintextPasswords();
+
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder();
+        for (int i = 0; i < plaintext.size(); i++) {
+            String stored = userRepository.findById(plaintext.get(i).getId()).orElseThrow().getPassword();
+            assertTrue(encoder.matches("password-" + i, stored), stored);
+        }
+        assertEquals(hash, userRepository.findById(alreadyHashed.getId()).orElseThrow().getPassword());
+        assertTrue(userRepository.findWithPlaintextPassword(0L, PageRequest.of(0, 1)).isEmpty());
+    }
+
+    private User newUser(String password) {
+        User user = new User();
+        user.setName("Пользователь");
+        user.setEmail(UUID.randomUUID() + "@test.local");
+        user.setPassword(password);
+        return user;
+    }
+}
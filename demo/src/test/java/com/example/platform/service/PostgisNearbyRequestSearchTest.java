@@ -0,0 +1,39 @@
+package com.example.platform.service;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+// Без колонки requests.location (миграция V3 не применена) режим postgis не даёт приложению стартовать
+class PostgisNearbyRequestSearchTest {
+    private final PostgisNearbyRequestSearch search = new PostgisNearbyRequestSearch();
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"));
+        jdbcTemplate.execute("CREATE TABLE requests (id BIGINT PRIMARY KEY, latitude DOUBLE PRECISION, longitude DOUBLE PRECISION)");
+        ReflectionTestUtils.setField(search, "jdbcTemplate", jdbcTemplate);
+    }
+
+    @Test
+    void missingLocationColumnFailsStartup() {
+        assertThrows(IllegalStateException.class, search::checkSchema);
+    }
+
+    @Test
+    void migratedSchemaPasses() {
+        // Тип geography в H2 нет; проверяется только наличие колонки
+        jdbcTemplate.execute("ALTER TABLE requests ADD COLUMN location VARCHAR(255)");
+
+        assertDoesNotThrow(search::checkSchema);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.platform.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.platform.dto.RequestFilter;
+import com.example.platform.dto.RequestSummaryDto;
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+
+// Радиус вместе с владельцем (вкладка "my") не отбрасывается: страница и total считаются с его учётом
+@SpringBootTest
+@ActiveProfiles("test")
+class RequestFilterRadiusTest {
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void ownerRequestsAreLimitedToRadius() {
+        User owner = createUser();
+        Long near = createRequest(owner, 55.7510, 37.6180);
+        createRequest(owner, 55.7558, 37.6500); // ~2 км
+        createRequest(owner, 56.1000, 37.6180); // ~39 км
+
+        RequestFilter filter = new RequestFilter(null, null, owner.getId(), null, 55.7500, 37.6170, 1000.0);
+        List<RequestSummaryDto> page = requestService.filterRequests(filter, null, 50).items();
+
+        assertEquals(List.of(near), page.stream().map(RequestSummaryDto::id).toList());
+        assertEquals(1, requestService.countRequests(filter));
+        assertEquals(3, requestService.countRequests(new RequestFilter(null, null, owner.getId(), null)));
+    }
+
+    private Long createRequest(User owner, double latitude, double longitude) {
+        Request request = new Request();
+        request.setDescription("Помочь с покупками");
+        request.setCategory("SHOPPING");
+        request.setLatitude(latitude);
+        request.setLongitude(longitude);
+        request.setDeadlineDate(LocalDateTime.now().plusDays(2));
+        return requestService.createRequest(owner.getId(), request).id();
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("user");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.platform.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+import com.example.platform.repository.HelpHistoryRepository;
+import com.example.platform.repository.UserRepository;
+
+import jakarta.persistence.EntityManagerFactory;
+
+// Переходы помощи выполняются фиксированным числом SQL-запросов, не зависящим от числа помощников
+@SpringBootTest
+@ActiveProfiles("test")
+class RequestServiceStatementCountTest {
+    private static final long MAX_STATEMENTS = 12;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private HelpHistoryRepository helpHistoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @Test
+    void confirmHelpCompletionDoesNotDependOnHelperCount() {
+        long single = confirmStatements(1);
+        long many = confirmStatements(5);
+
+        assertEquals(single, many);
+        assertTrue(many <= MAX_STATEMENTS, "confirmHelpCompletion: " + many + " statements");
+    }
+
+    @Test
+    void rejectHelpCompletionDoesNotDependOnHelperCount() {
+        long single = rejectStatements(1);
+        long many = rejectStatements(5);
+
+        assertEquals(single, many);
+        assertTrue(many <= MAX_STATEMENTS, "rejectHelpCompletion: " + many + " statements");
+    }
+
+    @Test
+    void completeAndCancelHelpUseFixedStatementCount() {
+        Scenario scenario = respondedScenario(5);
+        Long helperId = scenario.helpers().get(0).getId();
+
+        long complete = count(() -> requestService.completeHelp(scenario.requestId(), helperId));
+        long cancel = count(() -> requestService.cancelHelp(scenario.requestId(), scenario.helpers().get(1).getId()));
+
+        assertTrue(complete <= MAX_STATEMENTS, "completeHelp: " + complete + " statements");
+        assertTrue(cancel <= MAX_STATEMENTS, "cancelHelp: " + cancel + " statements");
+        assertEquals("PENDING_CONFIRMATION", helpHistoryRepository
+                .findByRequestIdAndHelperIdOrderByStartDateDesc(scenario.requestId(), helperId).get(0).getStatus());
+    }
+
+    private long confirmStatements(int helpers) {
+        Scenario scenario = pendingScenario(helpers);
+        long statements = count(() -> requestService.confirmHelpCompletion(scenario.requestId(), scenario.ownerId()));
+
+        assertEquals(helpers, helpHistoryRepository.findByRequestIdAndStatus(scenario.requestId(), "COMPLETED").size());
+        for (User helper : scenario.helpers()) {
+            assertEquals(1, userRepository.findById(helper.getId()).orElseThrow().getHelpedCount());
+        }
+        return statements;
+    }
+
+    private long rejectStatements(int helpers) {
+        Scenario scenario = pendingScenario(helpers);
+        long statements = count(() -> requestService.rejectHelpCompletion(scenario.requestId(), scenario.ownerId()));
+
+        assertEquals(helpers, helpHistoryRepository.findByRequestIdAndStatus(scenario.requestId(), "CANCELLED").size());
+        return statements;
+    }
+
+    private long count(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private Scenario pendingScenario(int helpers) {
+        Scenario scenario = respondedScenario(helpers);
+        for (User helper : scenario.helpers()) {
+            requestService.completeHelp(scenario.requestId(), helper.getId());
+        }
+        return scenario;
+    }
+
+    private Scenario respondedScenario(int helpers) {
+        User owner = createUser();
+        Request request = new Request();
+        request.setDescription("Помочь с покупками");
+        request.setCategory("SHOPPING");
+        request.setLatitude(55.75);
+        request.setLongitude(37.61);
+        request.setDeadlineDate(LocalDateTime.now().plusDays(2));
+        Long requestId = requestService.createRequest(owner.getId(), request).id();
+
+        List<User> helperUsers = new ArrayList<>();
+        for (int i = 0; i < helpers; i++) {
+            User helper = createUser();
+            requestService.respondToRequest(helper.getId(), requestId);
+            helperUsers.add(helper);
+        }
+        return new Scenario(owner.getId(), requestId, helperUsers);
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("user");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+
+    private record Scenario(Long ownerId, Long requestId, List<User> helpers) {
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.platform.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+// Колесо получает время параметрами, поэтому часы в тестах — обычная переменная
+class TimingWheelTest {
+    private long now;
+
+    @Test
+    void firesOnDueTickAndNotBefore() {
+        now = 1_000;
+        TimingWheel<String> wheel = new TimingWheel<>(100, 2, now);
+        wheel.schedule(1, 1_050, "a");
+
+        assertEquals(List.of(), keys(wheel.advance(1_099)));
+        assertEquals(List.of(1L), keys(wheel.advance(1_100)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesThroughAllLevels() {
+        now = 0;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 3, now);
+        // Уровень 2 -> уровень 1 -> уровень 0
+        wheel.schedule(1, 5_000, "far");
+        wheel.schedule(2, 64, "level-1");
+        wheel.schedule(3, 63, "level-0");
+
+        assertEquals(List.of(3L), keys(advanceTo(wheel, 63)));
+        assertEquals(List.of(2L), keys(advanceTo(wheel, 64)));
+        assertEquals(List.of(), keys(advanceTo(wheel, 4_999)));
+        assertEquals(List.of(1L), keys(advanceTo(wheel, 5_000)));
+    }
+
+    @Test
+    void alreadyDueTimerIsReturnedOnNextAdvance() {
+        now = 10_000;
+        TimingWheel<String> wheel = new TimingWheel<>(100, 2, now);
+        wheel.advance(now);
+        wheel.schedule(1, now - 500, "overdue");
+        wheel.schedule(2, now, "due-now");
+
+        // Время не сдвинулось, но оба срока уже наступили
+        assertEquals(List.of(1L, 2L), keys(wheel.advance(now)));
+        assertEquals(List.of(), keys(wheel.advance(now + 100)));
+    }
+
+    @Test
+    void cancelAfterCascadeRemovesTimer() {
+        now = 0;
+        TimingWheel<String> wheel = new TimingWheel<>(1, 3, now);
+        wheel.schedule(1, 5_000, "cancelled");
+        wheel.schedule(2, 5_001, "kept");
+
+        // К 4 995 записи спущены с уровня 2 на нижние уровни
+        assertEquals(List.of(), keys(advanceTo(wheel, 4_995)));
+        assertTrue(wheel.cancel(1));
+        assertFalse(wheel.cancel(1));
+
+        assertEquals(List.of(2L), keys(advanceTo(wheel, 6_000)));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void rescheduleMovesTimer() {
+        now = 0;
+        TimingWheel<String> wheel = new TimingWheel<>(10, 2, now);
+        wheel.schedule(1, 500, "first");
+        wheel.schedule(1, 2_000, "moved");
+
+        assertEquals(List.of(), keys(advanceTo(wheel, 1_990)));
+        List<TimingWheel.Timeout<String>> fired = advanceTo(wheel, 2_000);
+        assertEquals(List.of(1L), keys(fired));
+        assertEquals("moved", fired.get(0).value());
+    }
+
+    @Test
+    void horizonIsAcceptedFromAnyPositionAndBeyondItIsRejected() {
+        for (long start : new long[]{0, 630, 12_345, 40_950}) {
+            now = start;
+            TimingWheel<String> wheel = new TimingWheel<>(10, 2, now);
+            long horizon = wheel.horizonMillis();
+
+            assertTrue(wheel.schedule(1, now + horizon, "horizon"), "start " + start);
+            // 64 слота верхнего уровня — больше, чем колесо различает
+            assertFalse(wheel.schedule(2, now + 64 * 64 * 10 + 640, "beyond"), "start " + start);
+            assertFalse(wheel.contains(2));
+
+            assertEquals(List.of(), keys(advanceTo(wheel, now + horizon - 10)));
+            assertEquals(List.of(1L), keys(advanceTo(wheel, now + horizon)));
+        }
+    }
+
+    // Случайные вставки, переносы и отмены сверяются с простой картой: каждый таймер срабатывает ровно один раз,
+    // при первом продвижении, достигшем тика его срока
+    @Test
+    void matchesReferenceModel() {
+        Random random = new Random(42);
+        now = 1_000_000;
+        long tick = 10;
+        TimingWheel<String> wheel = new TimingWheel<>(tick, 3, now);
+        Map<Long, Long> expected = new HashMap<>();
+
+        for (int step = 0; step < 5_000; step++) {
+            int action = random.nextInt(10);
+            long key = random.nextInt(300);
+            if (action < 6) {
+                long due = now + random.nextLong(-200, wheel.horizonMillis());
+                assertTrue(wheel.schedule(key, due, "v"));
+                expected.put(key, due);
+            } else if (action < 7) {
+                assertEquals(expected.remove(key) != null, wheel.cancel(key));
+            } else {
+                now += random.nextInt(5_000);
+                long reached = Math.floorDiv(now, tick) * tick;
+                List<Long> fired = new ArrayList<>();
+                for (TimingWheel.Timeout<String> timeout : wheel.advance(now)) {
+                    assertEquals(expected.remove(timeout.key()), timeout.dueMillis());
+                    assertTrue(timeout.dueMillis() <= reached, "fired early: " + timeout);
+                    fired.add(timeout.key());
+                }
+                for (Map.Entry<Long, Long> pending : expected.entrySet()) {
+                    assertTrue(pending.getValue() > reached, "missed " + pending + " at " + now + ", fired " + fired);
+                }
+            }
+            assertEquals(expected.size(), wheel.size());
+        }
+    }
+
+    private List<TimingWheel.Timeout<String>> advanceTo(TimingWheel<String> wheel, long millis) {
+        now = millis;
+        return wheel.advance(now);
+    }
+
+    private static List<Long> keys(List<TimingWheel.Timeout<String>> timeouts) {
+        return timeouts.stream().map(TimingWheel.Timeout::key).sorted().toList();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+import com.example.platform.service.JwtService;
+import com.example.platform.service.RequestService;
+
+// Изменяющие эндпоинты действуют от имени владельца токена: без токена — 401, чужой id в параметрах или теле — 403
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class CallerIdentityTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User helper;
+    private Long requestId;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser();
+        helper = createUser();
+        requestId = requestService.createRequest(owner.getId(), newRequest()).id();
+    }
+
+    @Test
+    void mutationWithoutTokenIsUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/requests/" + requestId + "/help").param("userId", helper.getId().toString()))
+                .andExpect(status().isUnauthorized());
+        assertEquals(0, countHelps());
+    }
+
+    @Test
+    void foreignUserIdIsForbidden() throws Exception {
+        mockMvc.perform(authorized(post("/api/requests/" + requestId + "/help"), owner)
+                        .param("userId", helper.getId().toString()))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(put("/api/requests/" + requestId + "/status"), helper)
+                        .param("status", "CANCELLED")
+                        .param("userId", owner.getId().toString()))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(put("/api/notifications/user/" + owner.getId() + "/read"), helper))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(authorized(post("/api/reviews"), helper)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"helperId\":" + helper.getId() + ",\"authorId\":" + owner.getId()
+                                + ",\"requestId\":" + requestId + ",\"rating\":5,\"text\":\"Спасибо\"}"))
+                .andExpect(status().isForbidden());
+
+        assertEquals(0, countHelps());
+        assertEquals("ACTIVE", jdbcTemplate.queryForObject("SELECT status FROM requests WHERE id = ?", String.class, requestId));
+    }
+
+    @Test
+    void userIdIsTakenFromToken() throws Exception {
+        mockMvc.perform(authorized(post("/api/requests/" + requestId + "/help"), helper))
+                .andExpect(status().isOk());
+
+        assertEquals(1, countHelps());
+    }
+
+    @Test
+    void notificationStreamIsOnlyForItsOwner() throws Exception {
+        String stream = "/api/notifications/stream/" + owner.getId();
+
+        mockMvc.perform(get(stream)).andExpect(status().isUnauthorized());
+        mockMvc.perform(authorized(get(stream), helper)).andExpect(status().isForbidden());
+        mockMvc.perform(authorized(get(stream), owner)).andExpect(request().asyncStarted());
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder builder, User user) {
+        return builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(user.getId(), user.getEmail()));
+    }
+
+    private int countHelps() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM help_history WHERE request_id = ? AND helper_id = ?", Integer.class, requestId, helper.getId());
+    }
+
+    private Request newRequest() {
+        Request request = new Request();
+        request.setDescription("Проверка владельца токена");
+        request.setCategory("SHOPPING");
+        request.setLatitude(55.75);
+        request.setLongitude(37.61);
+        request.setDeadlineDate(LocalDateTime.now().plusDays(1));
+        return request;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Пользователь");
+        user.setEmail(UUID.randomUUID() + "@test.local");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
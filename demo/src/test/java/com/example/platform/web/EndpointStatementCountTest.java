@@ -0,0 +1,125 @@
+package com.example.platform.web;
+
+import static com.example.platform.web.SqlStatementAssertions.assertMaxStatements;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+import com.example.platform.service.RequestService;
+import com.example.platform.service.ReviewService;
+
+// Число SQL на чтение через HTTP не растёт с числом запросов, помощников и отзывов
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class EndpointStatementCountTest {
+    private static final int REQUESTS = 6;
+    private static final int HELPERS = 4;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private SqlStatementCounter sqlStatementCounter;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private ReviewService reviewService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private Long ownerId;
+    private Long helperId;
+
+    @BeforeEach
+    void setUp() {
+        User owner = createUser();
+        List<User> helpers = new ArrayList<>();
+        for (int i = 0; i < HELPERS; i++) {
+            helpers.add(createUser());
+        }
+        ownerId = owner.getId();
+        helperId = helpers.get(0).getId();
+
+        for (int r = 0; r < REQUESTS; r++) {
+            Request request = new Request();
+            request.setDescription("Запрос " + r);
+            request.setCategory("SHOPPING");
+            request.setLatitude(55.75);
+            request.setLongitude(37.61);
+            request.setDeadlineDate(LocalDateTime.now().plusDays(2));
+            Long requestId = requestService.createRequest(ownerId, request).id();
+            for (User helper : helpers) {
+                requestService.respondToRequest(helper.getId(), requestId);
+            }
+            // Половина запросов завершена, по каждому — отзыв на первого помощника
+            if (r % 2 == 0) {
+                for (User helper : helpers) {
+                    requestService.completeHelp(requestId, helper.getId());
+                }
+                requestService.confirmHelpCompletion(requestId, ownerId);
+                reviewService.addReview(helperId, ownerId, requestId, 5, "Спасибо");
+            }
+        }
+    }
+
+    @Test
+    void requestReadsUseFixedStatementCount() throws Exception {
+        assertEndpoint(1, "/api/requests/active");
+        assertEndpoint(1, "/api/requests/user/" + ownerId);
+        assertEndpoint(1, "/api/requests/user/" + helperId + "/helped");
+        assertEndpoint(1, "/api/requests/user/" + helperId + "/active-helps");
+        assertEndpoint(1, "/api/requests/user/" + helperId + "/completed-helps");
+        // Страница и общее число подходящих запросов (total)
+        assertEndpoint(2, "/api/requests/filter?status=ACTIVE&category=SHOPPING");
+    }
+
+    @Test
+    void userAndReviewReadsUseFixedStatementCount() throws Exception {
+        assertEndpoint(1, "/api/users/" + helperId);
+        assertEndpoint(2, "/api/users/" + helperId + "/statistics");
+        assertEndpoint(0, "/api/users/rating");
+        // Проверка существования пользователя и сами отзывы
+        assertEndpoint(2, "/api/reviews/helper/" + helperId);
+        assertEndpoint(2, "/api/reviews/author/" + ownerId);
+        assertEndpoint(1, "/api/notifications/user/" + ownerId + "/inbox");
+    }
+
+    @Test
+    void shapeIgnoresLiteralsAndInListLength() {
+        assertEquals(SqlStatementCounter.shapeOf("select * from users where id in (?, ?, ?) and name = 'a'"),
+                SqlStatementCounter.shapeOf("select * from users  where id in (?) and name = 'b'"));
+    }
+
+    private void assertEndpoint(int maxStatements, String uri) throws Exception {
+        assertMaxStatements(sqlStatementCounter, maxStatements,
+                () -> mockMvc.perform(get(uri)).andExpect(status().isOk()));
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("user");
+        user.setEmail(UUID.randomUUID() + "@example.com");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
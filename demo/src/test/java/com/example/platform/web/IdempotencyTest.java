@@ -0,0 +1,206 @@
+package com.example.platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import com.example.platform.model.Request;
+import com.example.platform.model.User;
+import com.example.platform.repository.UserRepository;
+import com.example.platform.service.IdempotencyService;
+import com.example.platform.service.JwtService;
+import com.example.platform.service.RequestService;
+
+// Повтор с тем же ключом отдаёт сохранённый ответ, дубль во время выполнения — 409, другой запрос с тем же ключом — 422.
+// Параллельные отклики одного помощника оставляют одну открытую запись помощи
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IdempotencyTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RequestService requestService;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private User owner;
+    private User helper;
+
+    @BeforeEach
+    void setUp() {
+        owner = createUser();
+        helper = createUser();
+    }
+
+    @Test
+    void repeatedKeyReplaysStoredResponse() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = requestBody("Купить продукты");
+
+        MvcResult first = mockMvc.perform(createRequest(owner, key, body))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult replayed = mockMvc.perform(createRequest(owner, key, body))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andReturn();
+
+        assertEquals(first.getResponse().getContentAsString(), replayed.getResponse().getContentAsString());
+        assertEquals(1, countRequests("Купить продукты"));
+    }
+
+    @Test
+    void sameKeyWithOtherBodyIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        mockMvc.perform(createRequest(owner, key, requestBody("Первый запрос")))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(createRequest(owner, key, requestBody("Другой запрос")))
+                .andExpect(status().isUnprocessableEntity());
+        assertEquals(0, countRequests("Другой запрос"));
+    }
+
+    @Test
+    void keyInProgressIsRejected() throws Exception {
+        String key = UUID.randomUUID().toString();
+        String body = requestBody("Запрос выполняется");
+        // Ключ захвачен первым запросом, который ещё не завершился
+        String bodyDigest = HexFormat.of().formatHex(
+                IdempotencyService.sha256().digest(body.getBytes(StandardCharsets.UTF_8)));
+        idempotencyService.claim(idempotencyService.scopedKey(owner.getId(), key), "POST", "/api/requests", bodyDigest);
+
+        mockMvc.perform(createRequest(owner, key, body))
+                .andExpect(status().isConflict());
+        assertEquals(0, countRequests("Запрос выполняется"));
+    }
+
+    @Test
+    void keysOfDifferentUsersDoNotCollide() throws Exception {
+        String key = UUID.randomUUID().toString();
+        User other = createUser();
+
+        MvcResult mine = mockMvc.perform(createRequest(owner, key, requestBody("Общий ключ", owner)))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult theirs = mockMvc.perform(createRequest(other, key, requestBody("Общий ключ", other)))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"))
+                .andReturn();
+
+        assertNotEquals(mine.getResponse().getContentAsString(), theirs.getResponse().getContentAsString());
+        assertEquals(2, countRequests("Общий ключ"));
+    }
+
+    @Test
+    void concurrentRespondsCreateOneOpenHelp() throws Exception {
+        Long requestId = requestService.createRequest(owner.getId(), newRequest("Параллельные отклики")).id();
+        int threads = 4;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> calls = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                calls.add(() -> mockMvc.perform(authorized(post("/api/requests/" + requestId + "/help"), helper)
+                                .param("userId", helper.getId().toString()))
+                        .andReturn().getResponse().getStatus());
+            }
+            int succeeded = 0;
+            for (Future<Integer> result : executor.invokeAll(calls)) {
+                int status = result.get();
+                // Исчерпав повторы при конфликте версий, отклик отвечает 409 — но не создаёт вторую запись
+                assertTrue(status == 200 || status == 409, "status " + status);
+                if (status == 200) {
+                    succeeded++;
+                }
+            }
+            assertTrue(succeeded >= 1);
+        } finally {
+            executor.shutdown();
+        }
+
+        Integer open = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM help_history WHERE request_id = ? AND helper_id = ? AND status = 'IN_PROGRESS'",
+                Integer.class, requestId, helper.getId());
+        assertEquals(1, open);
+    }
+
+    private MockHttpServletRequestBuilder createRequest(User user, String key, String body) {
+        return authorized(post("/api/requests"), user)
+                .header(IdempotencyFilter.HEADER, key)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(body);
+    }
+
+    private MockHttpServletRequestBuilder authorized(MockHttpServletRequestBuilder builder, User user) {
+        return builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + jwtService.generateToken(user.getId(), user.getEmail()));
+    }
+
+    private String requestBody(String description) {
+        return requestBody(description, owner);
+    }
+
+    private String requestBody(String description, User user) {
+        return "{\"userId\":" + user.getId() + ",\"description\":\"" + description + "\",\"category\":\"SHOPPING\","
+                + "\"latitude\":55.75,\"longitude\":37.61,\"deadline_date\":\"" + LocalDateTime.now().plusDays(1).withNano(0) + "\"}";
+    }
+
+    private int countRequests(String description) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM requests WHERE description = ?", Integer.class, description);
+    }
+
+    private Request newRequest(String description) {
+        Request request = new Request();
+        request.setDescription(description);
+        request.setCategory("SHOPPING");
+        request.setLatitude(55.75);
+        request.setLongitude(37.61);
+        request.setDeadlineDate(LocalDateTime.now().plusDays(1));
+        return request;
+    }
+
+    private User createUser() {
+        User user = new User();
+        user.setName("Пользователь");
+        user.setEmail(UUID.randomUUID() + "@test.local");
+        user.setPassword("password");
+        return userRepository.save(user);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.platform.web;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.example.platform.service.JwtService;
+import com.example.platform.service.TokenRevocationService;
+import com.example.platform.service.UserService;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+// Токен без uid ищет пользователя по email: нет пользователя — 401, сбой базы — ошибка сервера, а не 401
+class JwtAuthenticationFilterTest {
+    private static final String SECRET = "test-secret-test-secret-test-secret-0123456789";
+
+    @Test
+    void unknownUserIsUnauthorized() throws Exception {
+        JwtAuthenticationFilter filter = filter(email -> Optional.empty());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request(legacyToken("gone@test.local")), response, new MockFilterChain());
+
+        assertEquals(401, response.getStatus());
+    }
+
+    @Test
+    void knownUserIsAuthenticated() throws Exception {
+        JwtAuthenticationFilter filter = filter(email -> Optional.of(7L));
+        MockHttpServletRequest request = request(legacyToken("user@test.local"));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(request, response, new MockFilterChain());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(new AuthenticatedUser(7L, "user@test.local"), AuthenticatedUser.from(request));
+    }
+
+    @Test
+    void databaseFailureIsNotReportedAsUnauthorized() {
+        JwtAuthenticationFilter filter = filter(email -> {
+            throw new DataAccessResourceFailureException("Connection is not available");
+        });
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertThrows(DataAccessResourceFailureException.class, () ->
+                filter.doFilter(request(legacyToken("user@test.local")), response, new MockFilterChain()));
+        assertEquals(200, response.getStatus());
+    }
+
+    private static JwtAuthenticationFilter filter(Function<String, Optional<Long>> lookup) {
+        JwtAuthenticationFilter filter = new JwtAuthenticationFilter();
+        ReflectionTestUtils.setField(filter, "jwtService", new JwtService(SECRET, 900_000, 900_000));
+        ReflectionTestUtils.setField(filter, "userService", new UserService() {
+            @Override
+            public Optional<Long> findUserIdByEmail(String email) {
+                return lookup.apply(email);
+            }
+        });
+        ReflectionTestUtils.setField(filter, "tokenRevocationService", new TokenRevocationService() {
+            @Override
+            public boolean isRevoked(String jti) {
+                return false;
+            }
+        });
+        ReflectionTestUtils.setField(filter, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(filter, "verifiedCacheMaximumSize", 100L);
+        filter.init();
+        return filter;
+    }
+
+    private static MockHttpServletRequest request(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users/current");
+        request.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        return request;
+    }
+
+    // Токен, выданный до появления uid: только email в subject
+    private static String legacyToken(String email) {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setSubject(email)
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + 60_000))
+                .signWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .compact();
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.platform.web;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Проверки числа SQL-запросов в тестах: выполняет действие в окне SqlStatementCounter
+// и падает, если Hibernate подготовил больше запросов, чем разрешено
+public final class SqlStatementAssertions {
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private SqlStatementAssertions() {
+    }
+
+    public static SqlStatementCounter.Stats assertMaxStatements(SqlStatementCounter counter, int max, Action action)
+            throws Exception {
+        counter.start();
+        SqlStatementCounter.Stats stats;
+        try {
+            action.run();
+        } finally {
+            stats = counter.stop();
+        }
+        if (stats.statements() > max) {
+            fail(String.format("Expected at most %d SQL statements but was %d; most repeated (%d times): %s",
+                    max, stats.statements(), stats.repeatedCount(), stats.repeatedShape()));
+        }
+        return stats;
+    }
+}